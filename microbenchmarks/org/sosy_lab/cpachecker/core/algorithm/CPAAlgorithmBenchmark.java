@@ -0,0 +1,65 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.util.test.BenchmarkAnalysis;
+
+/** Measures the state-space exploration of {@link CPAAlgorithm} for fixed programs. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CPAAlgorithmBenchmark {
+
+  @Param({"config/valueAnalysis-NoCegar.properties", "config/intervalAnalysis.properties"})
+  private String configFile;
+
+  @Param({"test/programs/simple/ssh_s3_clnt_errorpath.c"})
+  private String programFile;
+
+  private BenchmarkAnalysis analysis;
+  private CPAAlgorithm algorithm;
+
+  @Setup
+  public void setUp() throws Exception {
+    analysis = BenchmarkAnalysis.create(configFile, programFile);
+    algorithm = analysis.createAlgorithm();
+  }
+
+  @Benchmark
+  public int run() throws Exception {
+    ReachedSet reached = analysis.createInitialReachedSet();
+    algorithm.run(reached);
+    return reached.size();
+  }
+}
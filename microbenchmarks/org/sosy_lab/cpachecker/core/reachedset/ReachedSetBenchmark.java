@@ -0,0 +1,109 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import com.google.common.collect.ImmutableList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.util.test.BenchmarkAnalysis;
+
+/**
+ * Measures {@link ReachedSet#add(AbstractState, Precision)} and
+ * {@link ReachedSet#getReached(AbstractState)} of the different reached-set implementations,
+ * using the states of a real analysis run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReachedSetBenchmark {
+
+  @Param({
+    "NORMAL",
+    "LOCATIONMAPPED",
+    "LOCATIONINDEXED",
+    "PARTITIONED",
+    "CONCURRENTPARTITIONED"
+  })
+  private String reachedSetType;
+
+  @Param({"config/valueAnalysis-NoCegar.properties"})
+  private String configFile;
+
+  @Param({"test/programs/simple/ssh_s3_clnt_errorpath.c"})
+  private String programFile;
+
+  private ReachedSetFactory factory;
+  private ImmutableList<AbstractState> states;
+  private ImmutableList<Precision> precisions;
+  private ReachedSet filledReachedSet;
+
+  @Setup
+  public void setUp() throws Exception {
+    BenchmarkAnalysis analysis = BenchmarkAnalysis.create(configFile, programFile);
+    ReachedSet reached = analysis.explore();
+    states = ImmutableList.copyOf(reached);
+    ImmutableList.Builder<Precision> precisionsBuilder = ImmutableList.builder();
+    for (AbstractState state : states) {
+      precisionsBuilder.add(reached.getPrecision(state));
+    }
+    precisions = precisionsBuilder.build();
+
+    factory =
+        new ReachedSetFactory(
+            Configuration.builder().setOption("analysis.reachedSet", reachedSetType).build(),
+            analysis.getLogger());
+    filledReachedSet = fill(factory.create());
+  }
+
+  private ReachedSet fill(ReachedSet pReached) {
+    for (int i = 0; i < states.size(); i++) {
+      pReached.add(states.get(i), precisions.get(i));
+    }
+    return pReached;
+  }
+
+  @Benchmark
+  public int add() {
+    return fill(factory.create()).size();
+  }
+
+  @Benchmark
+  public int getReached() {
+    int candidates = 0;
+    for (AbstractState state : states) {
+      candidates += filledReachedSet.getReached(state).size();
+    }
+    return candidates;
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.defaults.precision.VariableTrackingPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisCPA;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.CPAs;
+import org.sosy_lab.cpachecker.util.Precisions;
+import org.sosy_lab.cpachecker.util.test.BenchmarkAnalysis;
+
+/**
+ * Measures lookups and insertions in {@link BAMCacheImpl}, using the states and precisions
+ * of the value analysis as cache keys.
+ * Half of the keys are contained in the cache, such that the lookups are
+ * a mix of cache hits and cache misses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BAMCacheBenchmark {
+
+  @Param({"config/valueAnalysis-NoCegar.properties"})
+  private String configFile;
+
+  @Param({"test/programs/simple/ssh_s3_clnt_errorpath.c"})
+  private String programFile;
+
+  private Configuration config;
+  private ValueAnalysisCPA valueCPA;
+  private Block block;
+  private ImmutableList<AbstractState> stateKeys;
+  private ImmutableList<Precision> precisionKeys;
+  private ReachedSet cachedReachedSet;
+  private BAMCacheImpl filledCache;
+
+  @Setup
+  public void setUp() throws Exception {
+    BenchmarkAnalysis analysis = BenchmarkAnalysis.create(configFile, programFile);
+    config = analysis.getConfiguration();
+    valueCPA = CPAs.retrieveCPA(analysis.getCpa(), ValueAnalysisCPA.class);
+    CFA cfa = analysis.getCfa();
+    block =
+        new Block(
+            ImmutableSet.of(),
+            ImmutableSet.of(cfa.getMainFunction()),
+            ImmutableSet.of(cfa.getMainFunction().getExitNode()),
+            cfa.getAllNodes());
+
+    ReachedSet reached = analysis.explore();
+    ImmutableList.Builder<AbstractState> states = ImmutableList.builder();
+    ImmutableList.Builder<Precision> precisions = ImmutableList.builder();
+    for (AbstractState state : reached) {
+      states.add(AbstractStates.extractStateByType(state, ValueAnalysisState.class));
+      precisions.add(
+          Precisions.extractPrecisionByType(
+              reached.getPrecision(state), VariableTrackingPrecision.class));
+    }
+    stateKeys = states.build();
+    precisionKeys = precisions.build();
+    cachedReachedSet = new ReachedSetFactory(config, analysis.getLogger()).create();
+
+    filledCache = createCache();
+    for (int i = 0; i < stateKeys.size(); i += 2) {
+      filledCache.put(stateKeys.get(i), precisionKeys.get(i), block, cachedReachedSet);
+    }
+  }
+
+  private BAMCacheImpl createCache() throws Exception {
+    return new BAMCacheImpl(config, valueCPA.getReducer(), valueCPA.getLogger());
+  }
+
+  @Benchmark
+  public int get() {
+    int hits = 0;
+    for (int i = 0; i < stateKeys.size(); i++) {
+      if (filledCache.get(stateKeys.get(i), precisionKeys.get(i), block) != null) {
+        hits++;
+      }
+    }
+    return hits;
+  }
+
+  @Benchmark
+  public BAMCacheImpl put() throws Exception {
+    BAMCacheImpl cache = createCache();
+    for (int i = 0; i < stateKeys.size(); i++) {
+      cache.put(stateKeys.get(i), precisionKeys.get(i), block, cachedReachedSet);
+    }
+    return cache;
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/**
+ * Measures the copy-on-write updates of {@link ValueAnalysisState}s, which are backed by
+ * persistent maps, and the coverage check between them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValueAnalysisStateBenchmark {
+
+  /** number of variables that are assigned in each benchmark iteration */
+  private static final int UPDATES = 10;
+
+  @Param({"10", "100", "1000"})
+  private int size;
+
+  private MemoryLocation[] variables;
+  private ValueAnalysisState base;
+  private ValueAnalysisState updated;
+
+  @Setup
+  public void setUp() {
+    variables = new MemoryLocation[size];
+    base = new ValueAnalysisState(MachineModel.LINUX64);
+    for (int i = 0; i < size; i++) {
+      variables[i] = MemoryLocation.valueOf("main", "x" + i);
+      base.assignConstant(variables[i], new NumericValue(i), CNumericTypes.INT);
+    }
+    updated = copyAndAssign();
+  }
+
+  @Benchmark
+  public ValueAnalysisState copyAndAssign() {
+    ValueAnalysisState state = ValueAnalysisState.copyOf(base);
+    for (int i = 0; i < UPDATES; i++) {
+      state.assignConstant(variables[i % size], new NumericValue(-i), CNumericTypes.INT);
+    }
+    return state;
+  }
+
+  @Benchmark
+  public boolean isLessOrEqual() {
+    return updated.isLessOrEqual(base);
+  }
+}
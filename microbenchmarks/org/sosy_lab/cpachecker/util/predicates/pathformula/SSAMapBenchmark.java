@@ -0,0 +1,88 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sosy_lab.common.collect.MapsDifference;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap.SSAMapBuilder;
+
+/** Measures updating and merging {@link SSAMap}s of different sizes. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SSAMapBenchmark {
+
+  /** number of variables that are updated in each benchmark iteration */
+  private static final int UPDATES = 10;
+
+  @Param({"10", "100", "1000"})
+  private int size;
+
+  private SSAMap base;
+  private SSAMap left;
+  private SSAMap right;
+
+  @Setup
+  public void setUp() {
+    SSAMapBuilder builder = SSAMap.emptySSAMap().builder();
+    for (int i = 0; i < size; i++) {
+      builder.setIndex(variable(i), CNumericTypes.INT, 1);
+    }
+    base = builder.build();
+    left = update(base, 0);
+    right = update(base, size / 2);
+  }
+
+  private static String variable(int i) {
+    return "main::x" + i;
+  }
+
+  private SSAMap update(SSAMap pSsa, int pFirstVariable) {
+    SSAMapBuilder builder = pSsa.builder();
+    for (int i = 0; i < UPDATES; i++) {
+      String variable = variable((pFirstVariable + i) % size);
+      builder.setIndex(variable, CNumericTypes.INT, builder.getIndex(variable) + 1);
+    }
+    return builder.build();
+  }
+
+  @Benchmark
+  public SSAMap updateAndBuild() {
+    return update(base, 0);
+  }
+
+  @Benchmark
+  public SSAMap merge() {
+    return SSAMap.merge(left, right, MapsDifference.ignoreMapsDifference());
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+
+/**
+ * Measures {@link Solver#isUnsat(BooleanFormula)} with a cache hit
+ * and a satisfiability check of the same formula that bypasses the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SolverBenchmark {
+
+  /** SMTInterpol is written in Java, so this benchmark does not need native libraries. */
+  @Param({"SMTINTERPOL"})
+  private String solverName;
+
+  /** length of the cycle of strict inequalities in the (unsatisfiable) query */
+  @Param({"10", "50"})
+  private int size;
+
+  private Solver solver;
+  private BooleanFormula query;
+
+  @Setup
+  public void setUp() throws Exception {
+    Configuration config = Configuration.builder().setOption("solver.solver", solverName).build();
+    solver = Solver.create(config, LogManager.createNullLogManager(), ShutdownNotifier.createDummy());
+
+    FormulaManagerView fmgr = solver.getFormulaManager();
+    IntegerFormulaManagerView imgr = fmgr.getIntegerFormulaManager();
+    BooleanFormulaManagerView bfmgr = fmgr.getBooleanFormulaManager();
+    List<BooleanFormula> inequalities = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      IntegerFormula current = imgr.makeVariable("x" + i);
+      IntegerFormula next = imgr.makeVariable("x" + ((i + 1) % size));
+      inequalities.add(imgr.lessThan(current, next));
+    }
+    query = bfmgr.and(inequalities);
+
+    // fill the cache
+    solver.isUnsat(query);
+  }
+
+  @TearDown
+  public void tearDown() {
+    solver.close();
+  }
+
+  @Benchmark
+  public boolean cachedIsUnsat() throws Exception {
+    return solver.isUnsat(query);
+  }
+
+  @Benchmark
+  public boolean uncachedIsUnsat() throws Exception {
+    try (ProverEnvironment prover = solver.newProverEnvironment()) {
+      prover.push(query);
+      return prover.isUnsat();
+    }
+  }
+}
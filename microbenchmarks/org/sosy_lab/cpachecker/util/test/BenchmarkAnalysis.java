@@ -0,0 +1,132 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.test;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFACreator;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.core.CoreComponentsFactory;
+import org.sosy_lab.cpachecker.core.Specification;
+import org.sosy_lab.cpachecker.core.algorithm.CPAAlgorithm;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
+import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.exceptions.ParserException;
+
+/**
+ * Fixture for microbenchmarks that need a CPA for a real program:
+ * loads a configuration file, parses a program, and creates the CPA
+ * (without any specification, such that the whole state space is explored).
+ */
+public class BenchmarkAnalysis {
+
+  private final Configuration config;
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+  private final CFA cfa;
+  private final CoreComponentsFactory factory;
+  private final ConfigurableProgramAnalysis cpa;
+
+  private BenchmarkAnalysis(
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier,
+      CFA pCfa,
+      CoreComponentsFactory pFactory,
+      ConfigurableProgramAnalysis pCpa) {
+    config = pConfig;
+    logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+    cfa = pCfa;
+    factory = pFactory;
+    cpa = pCpa;
+  }
+
+  public static BenchmarkAnalysis create(String pConfigFile, String pProgramFile)
+      throws InvalidConfigurationException, IOException, ParserException, InterruptedException,
+          CPAException {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .loadFromFile(pConfigFile)
+            .setOption("output.disable", "true")
+            .build();
+    LogManager logger = LogManager.createNullLogManager();
+    ShutdownNotifier shutdownNotifier = ShutdownNotifier.createDummy();
+
+    CFA cfa =
+        new CFACreator(config, logger, shutdownNotifier)
+            .parseFileAndCreateCFA(ImmutableList.of(pProgramFile));
+    CoreComponentsFactory factory =
+        new CoreComponentsFactory(config, logger, shutdownNotifier, new AggregatedReachedSets());
+    ConfigurableProgramAnalysis cpa = factory.createCPA(cfa, Specification.alwaysSatisfied());
+    return new BenchmarkAnalysis(config, logger, shutdownNotifier, cfa, factory, cpa);
+  }
+
+  public Configuration getConfiguration() {
+    return config;
+  }
+
+  public LogManager getLogger() {
+    return logger;
+  }
+
+  public CFA getCfa() {
+    return cfa;
+  }
+
+  public ConfigurableProgramAnalysis getCpa() {
+    return cpa;
+  }
+
+  /** Create a reached set that contains only the initial state of the analysis. */
+  public ReachedSet createInitialReachedSet() throws InterruptedException {
+    FunctionEntryNode mainFunction = cfa.getMainFunction();
+    StateSpacePartition partition = StateSpacePartition.getDefaultPartition();
+    ReachedSet reached = factory.createReachedSet();
+    reached.add(
+        cpa.getInitialState(mainFunction, partition),
+        cpa.getInitialPrecision(mainFunction, partition));
+    return reached;
+  }
+
+  public CPAAlgorithm createAlgorithm() throws InvalidConfigurationException {
+    return CPAAlgorithm.create(cpa, logger, config, shutdownNotifier);
+  }
+
+  /** Explore the whole state space of the program and return the resulting reached set. */
+  public ReachedSet explore()
+      throws InvalidConfigurationException, CPAException, InterruptedException {
+    ReachedSet reached = createInitialReachedSet();
+    createAlgorithm().run(reached);
+    return reached;
+  }
+}
@@ -33,6 +33,7 @@ import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -104,6 +105,7 @@ import org.sosy_lab.cpachecker.exceptions.JParserException;
 import org.sosy_lab.cpachecker.exceptions.ParserException;
 import org.sosy_lab.cpachecker.exceptions.UnrecognizedCCodeException;
 import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.FunctionHashes;
 import org.sosy_lab.cpachecker.util.LiveVariables;
 import org.sosy_lab.cpachecker.util.LoopStructure;
 import org.sosy_lab.cpachecker.util.Pair;
@@ -185,6 +187,17 @@ public class CFACreator {
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path exportFunctionCallsFile = Paths.get("functionCalls.dot");
 
+  @Option(secure=true, name="cfa.functionHashes.export",
+      description="export hashes of all functions, which allow to recognize unchanged functions "
+          + "in a later analysis of a modified version of the program "
+          + "(cf. option cpa.predicate.abstraction.initialPredicates.previousFunctionHashes)")
+  private boolean exportFunctionHashes = false;
+
+  @Option(secure=true, name="cfa.functionHashes.file",
+      description="file name for the hashes of all functions")
+  @FileOption(FileOption.Type.OUTPUT_FILE)
+  private Path exportFunctionHashesFile = Paths.get("functionHashes.txt");
+
   @Option(secure=true, name="cfa.file",
       description="export CFA as .dot file")
   @FileOption(FileOption.Type.OUTPUT_FILE)
@@ -570,6 +583,7 @@ private boolean classifyNodes = false;
 
     if (((exportCfaFile != null) && (exportCfa || exportCfaPerFunction))
         || ((exportFunctionCallsFile != null) && exportFunctionCalls)
+        || ((exportFunctionHashesFile != null) && exportFunctionHashes)
         || ((serializeCfaFile != null) && serializeCfa)
         || (exportCfaPixelFile != null)) {
       exportCFAAsync(immutableCFA);
@@ -1003,6 +1017,15 @@ v.addInitializer(initializer);
       }
     }
 
+    if (exportFunctionHashes && exportFunctionHashesFile != null) {
+      try (Writer w = IO.openOutputFile(exportFunctionHashesFile, StandardCharsets.UTF_8)) {
+        FunctionHashes.of(cfa).writeTo(w);
+      } catch (IOException e) {
+        logger.logUserException(Level.WARNING, e, "Could not write function hashes to file");
+        // continue with analysis
+      }
+    }
+
     if (exportCfaPixelFile != null) {
       try {
         new CFAToPixelsWriter(config).write(cfa.getMainFunction(), exportCfaPixelFile);
@@ -101,6 +101,8 @@ public class CPAchecker {
   public static interface CPAcheckerMXBean {
     public int getReachedSetSize();
 
+    public int getWaitlistSize();
+
     public void stop();
   }
 
@@ -120,6 +122,11 @@ public class CPAchecker {
       return reached.size();
     }
 
+    @Override
+    public int getWaitlistSize() {
+      return reached.getWaitlist().size();
+    }
+
     @Override
     public void stop() {
       shutdownManager.requestShutdown("A stop request was received via the JMX interface.");
@@ -505,6 +512,7 @@ public class CPAchecker {
     mxbean.register();
 
     stats.startAnalysisTimer();
+    stats.startSampling(reached);
     try {
       int counterExampleCount = 0;
       do {
@@ -526,6 +534,7 @@ public class CPAchecker {
       return status;
 
     } finally {
+      stats.stopSampling();
       stats.stopAnalysisTimer();
 
       // unregister management interface for CPAchecker
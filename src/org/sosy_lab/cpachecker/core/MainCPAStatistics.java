@@ -150,6 +150,8 @@ class MainCPAStatistics implements Statistics {
   private final @Nullable CExpressionInvariantExporter cExpressionInvariantExporter;
   private Thread memStatsThread;
 
+  private final StatisticsSampler sampler;
+
   private final Timer programTime = new Timer();
   final Timer creationTime = new Timer();
   final Timer cpaCreationTime = new Timer();
@@ -170,6 +172,7 @@ class MainCPAStatistics implements Statistics {
     pConfig.inject(this);
 
     subStats = new ArrayList<>();
+    sampler = new StatisticsSampler(pConfig, pLogger);
 
     if (monitorMemoryUsage) {
       memStats = new MemoryStatistics(pLogger);
@@ -237,6 +240,15 @@ class MainCPAStatistics implements Statistics {
     }
   }
 
+  /** Start writing snapshots of the statistics during the analysis, if enabled. */
+  void startSampling(UnmodifiableReachedSet pReached) {
+    sampler.start(pReached, subStats);
+  }
+
+  void stopSampling() {
+    sampler.stop();
+  }
+
   void stopAnalysisTimer() {
     analysisTime.stop();
     programTime.stop();
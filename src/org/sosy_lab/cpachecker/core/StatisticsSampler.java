@@ -0,0 +1,197 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import javax.management.JMException;
+import org.sosy_lab.common.Concurrency;
+import org.sosy_lab.common.JSON;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.configuration.TimeSpanOption;
+import org.sosy_lab.common.io.IO;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.util.resources.ProcessCpuTime;
+
+/**
+ * This class periodically writes snapshots of some statistics to a file while the analysis is
+ * running, such that long runs can be observed (and stopped early, if they are hopeless).
+ *
+ * Each snapshot is a JSON object in a single line of the output file. It contains the time,
+ * the cpu time, the heap and garbage-collection statistics of the JVM, the size of the reached
+ * set and the waitlist, and all values provided by
+ * {@link Statistics#collectLiveValues(Map)} of the registered statistics.
+ *
+ * All values are read without synchronization from a separate thread,
+ * such that the analysis itself is not slowed down.
+ * Thus they may be slightly outdated.
+ */
+@Options(prefix = "statistics.sampling")
+class StatisticsSampler implements Runnable {
+
+  @Option(
+    secure = true,
+    description =
+        "write a snapshot of some statistics in this interval while the analysis is running"
+            + " (use seconds or specify a unit; -1 for disabling)"
+  )
+  @TimeSpanOption(codeUnit = TimeUnit.MILLISECONDS, defaultUserUnit = TimeUnit.SECONDS, min = -1)
+  private TimeSpan interval = TimeSpan.ofMillis(-1);
+
+  @Option(
+    secure = true,
+    description = "file for the statistics snapshots, each line contains one JSON object"
+  )
+  @FileOption(FileOption.Type.OUTPUT_FILE)
+  private @Nullable Path file = Paths.get("StatisticsSamples.jsonl");
+
+  private final LogManager logger;
+  private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+  private @Nullable Thread thread = null;
+  private @Nullable UnmodifiableReachedSet reached = null;
+  private ImmutableList<Statistics> statistics = ImmutableList.of();
+  private long startTime;
+
+  StatisticsSampler(Configuration pConfig, LogManager pLogger)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    logger = checkNotNull(pLogger);
+  }
+
+  /**
+   * Start sampling in a separate thread, if enabled. Only the given statistics are sampled, later
+   * additions to the collection are ignored.
+   */
+  void start(UnmodifiableReachedSet pReached, Collection<Statistics> pStatistics) {
+    if (file == null || interval.compareTo(TimeSpan.empty()) <= 0 || thread != null) {
+      return;
+    }
+    reached = checkNotNull(pReached);
+    statistics = ImmutableList.copyOf(pStatistics);
+    startTime = System.nanoTime();
+    thread = Concurrency.newDaemonThread("CPAchecker statistics sampler", this);
+    thread.start();
+  }
+
+  void stop() {
+    if (thread != null) {
+      thread.interrupt();
+    }
+  }
+
+  @Override
+  public void run() {
+    boolean failureLogged = false;
+    try (Writer w = IO.openOutputFile(file, UTF_8)) {
+      while (!Thread.currentThread().isInterrupted()) {
+        Map<String, Object> sample = null;
+        try {
+          sample = takeSample();
+        } catch (RuntimeException e) {
+          // the analysis changes the data concurrently, just skip this sample
+          if (!failureLogged) {
+            logger.logException(
+                Level.WARNING,
+                e,
+                "Could not take statistics sample, skipping it (further failures are not logged)");
+            failureLogged = true;
+          }
+        }
+        if (sample != null) {
+          JSON.writeJSONString(sample, w);
+          w.append('\n');
+          w.flush();
+        }
+        Thread.sleep(interval.asMillis());
+      }
+    } catch (InterruptedException e) {
+      // stop requested
+    } catch (IOException e) {
+      if (!Thread.currentThread().isInterrupted()) {
+        logger.logUserException(Level.WARNING, e, "Could not write statistics samples to file");
+      }
+    }
+  }
+
+  private Map<String, Object> takeSample() {
+    Map<String, Object> sample = new LinkedHashMap<>();
+    sample.put("time", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    try {
+      sample.put("cpuTime", TimeUnit.NANOSECONDS.toMillis(ProcessCpuTime.read()));
+    } catch (JMException e) {
+      // not supported by this VM, the user was already warned
+    }
+
+    MemoryUsage heap = memory.getHeapMemoryUsage();
+    sample.put("heapUsed", heap.getUsed());
+    sample.put("heapCommitted", heap.getCommitted());
+    long gcCount = 0;
+    long gcTime = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      gcCount += Math.max(0, gc.getCollectionCount());
+      gcTime += Math.max(0, gc.getCollectionTime());
+    }
+    sample.put("gcCount", gcCount);
+    sample.put("gcTime", gcTime);
+
+    sample.put("reachedSetSize", reached.size());
+    sample.put("waitlistSize", reached.getWaitlistSize());
+
+    for (Statistics s : statistics) {
+      String name = s.getName();
+      if (name != null) {
+        Map<String, Number> values = new LinkedHashMap<>();
+        s.collectLiveValues(values);
+        if (!values.isEmpty()) {
+          sample.put(name, values);
+        }
+      }
+    }
+    return sample;
+  }
+}
@@ -24,6 +24,10 @@
 package org.sosy_lab.cpachecker.core.algorithm;
 
 import com.google.common.base.Functions;
+import com.google.common.base.Joiner;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -33,12 +37,19 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 import java.util.logging.Level;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.ShutdownNotifier.ShutdownRequestListener;
 import org.sosy_lab.common.configuration.ClassOption;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -57,7 +68,9 @@ import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult.Action;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.ThreadSafeConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
+import org.sosy_lab.cpachecker.core.reachedset.ConcurrentPartitionedReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.PartitionedReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.PseudoPartitionedReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
@@ -65,10 +78,12 @@ import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGMergeJoinCPAEnabledAnalysis;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.CPAs;
 import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
 import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 
 public class CPAAlgorithm implements Algorithm, StatisticsProvider {
@@ -95,11 +110,21 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
 
     private Map<String, AbstractStatValue> reachedSetStatistics = new HashMap<>();
 
+    private final List<WorkerStatistics> workerStatistics = new ArrayList<>();
+
     @Override
     public String getName() {
       return "CPA algorithm";
     }
 
+    @Override
+    public void collectLiveValues(Map<String, Number> pValues) {
+      pValues.put("Number of iterations", countIterations);
+      pValues.put("Max size of waitlist", maxWaitlistSize);
+      pValues.put("Number of times merged", countMerge);
+      pValues.put("Number of times stopped", countStop);
+    }
+
     @Override
     public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
       out.println("Number of iterations:            " + countIterations);
@@ -134,6 +159,63 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       out.println("  Time for stop operator:         " + stopTimer);
       out.println("  Time for adding to reached set: " + addTimer);
 
+      if (!workerStatistics.isEmpty()) {
+        out.println();
+        out.println("Number of worker threads:         " + workerStatistics.size());
+        for (int i = 0; i < workerStatistics.size(); i++) {
+          WorkerStatistics worker = workerStatistics.get(i);
+          out.println("  Worker " + i + ":");
+          CPAStatistics successorStats = worker.successorStats;
+          out.println("    Number of handled states:       " + worker.countHandledStates);
+          out.println("    Time for transfer relation:     " + worker.transferTimer);
+          out.println("    Time for handling successors:   " + worker.successorTimer);
+          out.println("      Time for precision adjustment:  " + successorStats.precisionTimer);
+          if (successorStats.mergeTimer.getNumberOfIntervals() > 0) {
+            out.println("      Time for merge operator:        " + successorStats.mergeTimer);
+          }
+          out.println("      Time for stop operator:         " + successorStats.stopTimer);
+          out.println("      Time for adding to reached set: " + successorStats.addTimer);
+          out.println("    Time for waiting (waitlist and locks): " + worker.waitTimer);
+          long lifetime = worker.lifetimeTimer.getSumTime().asNanos();
+          if (lifetime > 0) {
+            long busy = lifetime - worker.waitTimer.getSumTime().asNanos();
+            out.println(
+                "    Utilization:                    " + StatisticsUtils.toPercent(busy, lifetime));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Statistics of a single worker thread if the state space is explored in parallel. Each instance
+   * is only updated by its own worker.
+   */
+  private static class WorkerStatistics {
+
+    private final Timer lifetimeTimer = new Timer();
+    private final Timer waitTimer = new Timer();
+    private final Timer transferTimer = new Timer();
+    private final Timer successorTimer = new Timer();
+
+    /**
+     * Statistics of precision adjustment, merge, stop, and add of this worker. The counters are
+     * added to the main statistics after each run.
+     */
+    private final CPAStatistics successorStats = new CPAStatistics();
+
+    private int countHandledStates = 0;
+
+    private void transferCountersTo(CPAStatistics pStats) {
+      pStats.countSuccessors += successorStats.countSuccessors;
+      pStats.maxSuccessors = Math.max(pStats.maxSuccessors, successorStats.maxSuccessors);
+      pStats.countMerge += successorStats.countMerge;
+      pStats.countStop += successorStats.countStop;
+      pStats.countBreak += successorStats.countBreak;
+      successorStats.countSuccessors = 0;
+      successorStats.countMerge = 0;
+      successorStats.countStop = 0;
+      successorStats.countBreak = 0;
     }
   }
 
@@ -152,6 +234,18 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         + " Useful for incomplete analysis with no counterexample checking.")
     private boolean reportFalseAsUnknown = false;
 
+    @Option(
+      secure = true,
+      description =
+          "Number of threads that explore the state space in parallel. Successors are computed"
+              + " concurrently. With analysis.reachedSet=CONCURRENTPARTITIONED, merge, stop, and"
+              + " adding to the reached set are done concurrently for different partitions,"
+              + " otherwise they are done sequentially."
+              + " All used CPAs need to be thread-safe for values greater than 1."
+    )
+    @IntegerOption(min = 1)
+    private int numberOfThreads = 1;
+
     private final ForcedCovering forcedCovering;
 
     private final ConfigurableProgramAnalysis cpa;
@@ -172,11 +266,33 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         forcedCovering = null;
       }
 
+      if (numberOfThreads > 1) {
+        checkParallelExplorationSupported();
+      }
+    }
+
+    private void checkParallelExplorationSupported() throws InvalidConfigurationException {
+      if (forcedCovering != null) {
+        throw new InvalidConfigurationException(
+            "Forced covering is not supported in combination with cpa.numberOfThreads > 1");
+      }
+      List<String> unsafeCpas =
+          CPAs.asIterable(cpa)
+              .filter(c -> !(c instanceof ThreadSafeConfigurableProgramAnalysis))
+              .transform(c -> c.getClass().getSimpleName())
+              .toList();
+      if (!unsafeCpas.isEmpty()) {
+        throw new InvalidConfigurationException(
+            "Parallel state-space exploration with cpa.numberOfThreads > 1 is not supported,"
+                + " because the following CPAs are not thread-safe: "
+                + Joiner.on(", ").join(unsafeCpas));
+      }
     }
 
     @Override
     public CPAAlgorithm newInstance() {
-      return new CPAAlgorithm(cpa, logger, shutdownNotifier, forcedCovering, reportFalseAsUnknown);
+      return new CPAAlgorithm(
+          cpa, logger, shutdownNotifier, forcedCovering, reportFalseAsUnknown, numberOfThreads);
     }
   }
 
@@ -191,10 +307,11 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
 
   private final CPAStatistics               stats = new CPAStatistics();
 
+  private final ConfigurableProgramAnalysis cpa;
+  private final int numberOfThreads;
+
   private final TransferRelation transferRelation;
-  private final MergeOperator mergeOperator;
-  private final StopOperator stopOperator;
-  private final PrecisionAdjustment precisionAdjustment;
+  private final SuccessorHandler successorHandler;
 
   private final LogManager                  logger;
 
@@ -205,22 +322,39 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
   private CPAAlgorithm(ConfigurableProgramAnalysis cpa, LogManager logger,
       ShutdownNotifier pShutdownNotifier,
       ForcedCovering pForcedCovering,
-      boolean pIsImprecise) {
+      boolean pIsImprecise,
+      int pNumberOfThreads) {
 
+    this.cpa = cpa;
+    numberOfThreads = pNumberOfThreads;
     transferRelation = cpa.getTransferRelation();
-    mergeOperator = cpa.getMergeOperator();
-    stopOperator = cpa.getStopOperator();
-    precisionAdjustment = cpa.getPrecisionAdjustment();
+    successorHandler =
+        new SuccessorHandler(
+            cpa.getPrecisionAdjustment(),
+            cpa.getMergeOperator(),
+            cpa.getStopOperator(),
+            stats,
+            null,
+            null);
     this.logger = logger;
     this.shutdownNotifier = pShutdownNotifier;
     this.forcedCovering = pForcedCovering;
     status = AlgorithmStatus.SOUND_AND_PRECISE.withPrecise(!pIsImprecise);
+
+    if (numberOfThreads > 1) {
+      for (int i = 0; i < numberOfThreads; i++) {
+        stats.workerStatistics.add(new WorkerStatistics());
+      }
+    }
   }
 
   @Override
   public AlgorithmStatus run(final ReachedSet reachedSet) throws CPAException, InterruptedException {
     stats.totalTimer.start();
     try {
+      if (numberOfThreads > 1) {
+        return runParallel(reachedSet);
+      }
       return run0(reachedSet);
     } finally {
       stats.totalTimer.stopIfRunning();
@@ -237,6 +371,8 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         reachedSetStats = ((PartitionedReachedSet) reachedSet).getStatistics();
       } else if (reachedSet instanceof PseudoPartitionedReachedSet) {
         reachedSetStats = ((PseudoPartitionedReachedSet) reachedSet).getStatistics();
+      } else if (reachedSet instanceof ConcurrentPartitionedReachedSet) {
+        reachedSetStats = ((ConcurrentPartitionedReachedSet) reachedSet).getStatistics();
       } else {
         reachedSetStats = null;
       }
@@ -250,7 +386,10 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
           } else {
             AbstractStatValue newVal = stats.reachedSetStatistics.get(key);
 
-            if (newVal instanceof StatCounter) {
+            if (newVal == val) {
+              // the reached set reports a live value, which is already up to date
+              continue;
+            } else if (newVal instanceof StatCounter) {
               assert val instanceof StatCounter;
               for (int i = 0; i < ((StatCounter) val).getValue(); i++) {
                 ((StatCounter) newVal).inc();
@@ -272,20 +411,8 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     while (reachedSet.hasWaitingState()) {
       shutdownNotifier.shutdownIfNecessary();
 
-      stats.countIterations++;
-
-      // Pick next state using strategy
-      // BFS, DFS or top sort according to the configuration
-      int size = reachedSet.getWaitlist().size();
-      if (size >= stats.maxWaitlistSize) {
-        stats.maxWaitlistSize = size;
-      }
-      stats.countWaitlistSize += size;
-
-      stats.chooseTimer.start();
-      final AbstractState state = reachedSet.popFromWaitlist();
+      final AbstractState state = chooseFromWaitlist(reachedSet);
       final Precision precision = reachedSet.getPrecision(state);
-      stats.chooseTimer.stop();
 
       logger.log(Level.FINER, "Retrieved state from waitlist");
       try {
@@ -305,6 +432,279 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     return status;
   }
 
+  /**
+   * Pick the next state from the waitlist, using the strategy of the waitlist (BFS, DFS, or top
+   * sort according to the configuration).
+   */
+  private AbstractState chooseFromWaitlist(final ReachedSet reachedSet) {
+    stats.countIterations++;
+
+    int size = reachedSet.getWaitlist().size();
+    if (size >= stats.maxWaitlistSize) {
+      stats.maxWaitlistSize = size;
+    }
+    stats.countWaitlistSize += size;
+
+    stats.chooseTimer.start();
+    try {
+      return reachedSet.popFromWaitlist();
+    } finally {
+      stats.chooseTimer.stop();
+    }
+  }
+
+  /**
+   * Explore the state space with several worker threads. Each worker takes states from the
+   * waitlist and computes their successors with its own instances of the CPA operators. If the
+   * reached set is a {@link ConcurrentPartitionedReachedSet}, precision adjustment, merge, stop,
+   * and adding to the reached set are done concurrently, and only the partition of the respective
+   * successor is locked. Other reached sets are not thread-safe, so in this case these steps are
+   * done by only one worker at a time.
+   */
+  private AlgorithmStatus runParallel(final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+    final @Nullable ConcurrentPartitionedReachedSet lockedReachedSet;
+    if (reachedSet instanceof ConcurrentPartitionedReachedSet) {
+      lockedReachedSet = (ConcurrentPartitionedReachedSet) reachedSet;
+    } else {
+      lockedReachedSet = null;
+      logger.log(
+          Level.INFO,
+          "Reached set is not thread-safe, handling successors sequentially."
+              + " Use analysis.reachedSet=CONCURRENTPARTITIONED for more parallelism.");
+    }
+
+    final ParallelExploration exploration = new ParallelExploration(reachedSet, lockedReachedSet);
+    final ShutdownRequestListener wakeUpWorkers = reason -> exploration.wakeUp();
+    shutdownNotifier.register(wakeUpWorkers);
+
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            numberOfThreads,
+            new ThreadFactoryBuilder().setNameFormat("CPAAlgorithm worker %d").build());
+    boolean terminated = false;
+    try {
+      List<Future<Void>> workers = new ArrayList<>(numberOfThreads);
+      for (WorkerStatistics workerStats : stats.workerStatistics) {
+        TransferRelation workerTransferRelation = cpa.getTransferRelation();
+        SuccessorHandler workerHandler =
+            new SuccessorHandler(
+                cpa.getPrecisionAdjustment(),
+                cpa.getMergeOperator(),
+                cpa.getStopOperator(),
+                workerStats.successorStats,
+                lockedReachedSet,
+                workerStats.waitTimer);
+        workers.add(
+            executor.submit(
+                () -> exploration.work(workerTransferRelation, workerHandler, workerStats)));
+      }
+
+      // wait for all workers, such that nobody modifies the reached set after we return
+      Throwable failure = null;
+      for (Future<Void> worker : workers) {
+        try {
+          worker.get();
+        } catch (ExecutionException e) {
+          exploration.abort();
+          if (failure == null) {
+            failure = e.getCause();
+          }
+        }
+      }
+
+      if (failure != null) {
+        Throwables.throwIfInstanceOf(failure, CPAException.class);
+        Throwables.throwIfInstanceOf(failure, InterruptedException.class);
+        Throwables.throwIfUnchecked(failure);
+        throw new AssertionError("Unexpected exception in worker thread", failure);
+      }
+      return status;
+
+    } finally {
+      exploration.abort();
+      shutdownNotifier.unregister(wakeUpWorkers);
+      terminated = MoreExecutors.shutdownAndAwaitTermination(executor, 10, TimeUnit.SECONDS);
+      if (terminated) {
+        for (WorkerStatistics workerStats : stats.workerStatistics) {
+          workerStats.transferCountersTo(stats);
+        }
+      } else {
+        logger.log(Level.WARNING, "Not all worker threads of the CPA algorithm are terminated.");
+      }
+    }
+  }
+
+  /**
+   * Shared state of the worker threads during parallel exploration. Taking states from the
+   * waitlist is synchronized on this object. If the reached set is not thread-safe, all other
+   * accesses to the reached set are synchronized on this object, too.
+   */
+  private class ParallelExploration {
+
+    private final ReachedSet reachedSet;
+
+    /** The reached set if it is thread-safe and locks its partitions, otherwise null. */
+    private final @Nullable ConcurrentPartitionedReachedSet lockedReachedSet;
+
+    /** Number of states taken from the waitlist whose successors were not handled yet. */
+    private int statesInProgress = 0;
+
+    /** Whether some worker requested to stop the exploration (break or exception). */
+    private volatile boolean finished = false;
+
+    private ParallelExploration(
+        ReachedSet pReachedSet, @Nullable ConcurrentPartitionedReachedSet pLockedReachedSet) {
+      reachedSet = pReachedSet;
+      lockedReachedSet = pLockedReachedSet;
+    }
+
+    private synchronized void wakeUp() {
+      notifyAll();
+    }
+
+    private synchronized void abort() {
+      finished = true;
+      notifyAll();
+    }
+
+    private Void work(
+        TransferRelation pTransferRelation, SuccessorHandler pHandler, WorkerStatistics pStats)
+        throws CPAException, InterruptedException {
+      pStats.lifetimeTimer.start();
+      try {
+        while (true) {
+          final AbstractState state;
+          Precision precision = null;
+
+          pStats.waitTimer.start();
+          try {
+            synchronized (this) {
+              // The waitlist may be empty only temporarily while other workers are still busy.
+              while (!finished && !reachedSet.hasWaitingState() && statesInProgress > 0) {
+                shutdownNotifier.shutdownIfNecessary();
+                wait();
+              }
+              if (finished || !reachedSet.hasWaitingState()) {
+                finished = true;
+                notifyAll();
+                return null;
+              }
+              shutdownNotifier.shutdownIfNecessary();
+
+              state = chooseFromWaitlist(reachedSet);
+              if (lockedReachedSet == null) {
+                precision = reachedSet.getPrecision(state);
+              }
+              statesInProgress++;
+            }
+          } finally {
+            pStats.waitTimer.stop();
+          }
+
+          boolean stop = false;
+          try {
+            if (lockedReachedSet != null) {
+              precision = getPrecisionIfReached(state, lockedReachedSet, pStats);
+              if (precision == null) {
+                // another worker has merged this state and removed it from the reached set
+                continue;
+              }
+            }
+
+            logger.log(Level.ALL, "Current state is", state, "with precision", precision);
+            Collection<? extends AbstractState> successors;
+            pStats.transferTimer.start();
+            try {
+              successors = pTransferRelation.getAbstractSuccessors(state, precision);
+            } finally {
+              pStats.transferTimer.stop();
+            }
+
+            if (lockedReachedSet == null) {
+              pStats.waitTimer.start();
+              synchronized (this) {
+                pStats.waitTimer.stop();
+                stop = handleSuccessors(state, precision, successors, pHandler, pStats);
+              }
+            } else {
+              stop = handleSuccessors(state, precision, successors, pHandler, pStats);
+            }
+          } catch (Exception e) {
+            // re-add the old state to the waitlist, there might be unhandled successors left
+            // that otherwise would be forgotten (which would be unsound)
+            synchronized (this) {
+              reAddToWaitlistIfReached(state);
+              finished = true;
+            }
+            throw e;
+          } finally {
+            synchronized (this) {
+              statesInProgress--;
+              notifyAll();
+            }
+          }
+
+          if (stop) {
+            // Prec operator requested break
+            abort();
+            return null;
+          }
+        }
+      } finally {
+        pStats.waitTimer.stopIfRunning();
+        pStats.lifetimeTimer.stop();
+      }
+    }
+
+    /**
+     * Get the precision of a state that was taken from the waitlist, or null if another worker
+     * has removed the state from the reached set in the meantime.
+     */
+    private @Nullable Precision getPrecisionIfReached(
+        AbstractState pState,
+        ConcurrentPartitionedReachedSet pReachedSet,
+        WorkerStatistics pStats) {
+      Lock lock = pReachedSet.getPartitionLock(pState);
+      pStats.waitTimer.start();
+      lock.lock();
+      pStats.waitTimer.stop();
+      try {
+        return pReachedSet.contains(pState) ? pReachedSet.getPrecision(pState) : null;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private boolean handleSuccessors(
+        AbstractState pState,
+        Precision pPrecision,
+        Collection<? extends AbstractState> pSuccessors,
+        SuccessorHandler pHandler,
+        WorkerStatistics pStats)
+        throws CPAException, InterruptedException {
+      pStats.successorTimer.start();
+      try {
+        if (finished) {
+          // another worker stopped the analysis, keep the state for later continuation
+          reAddToWaitlistIfReached(pState);
+          return false;
+        }
+        pStats.countHandledStates++;
+        return pHandler.handleSuccessors(pState, pPrecision, pSuccessors, reachedSet);
+      } finally {
+        pStats.successorTimer.stop();
+      }
+    }
+
+    private void reAddToWaitlistIfReached(AbstractState pState) {
+      // another worker may have merged the state and removed it from the reached set
+      if (reachedSet.contains(pState)) {
+        reachedSet.reAddToWaitlist(pState);
+      }
+    }
+  }
+
   /**
    * Handle one state from the waitlist, i.e., produce successors etc.
    * @param state The abstract state that was taken out of the waitlist
@@ -341,35 +741,145 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     // TODO When we have a nice way to mark the analysis result as incomplete,
     // we could continue analysis on a CPATransferException with the next state from waitlist.
 
-    int numSuccessors = successors.size();
-    logger.log(Level.FINER, "Current state has", numSuccessors, "successors");
-    stats.countSuccessors += numSuccessors;
-    stats.maxSuccessors = Math.max(numSuccessors, stats.maxSuccessors);
+    return successorHandler.handleSuccessors(state, precision, successors, reachedSet);
+  }
 
-    for (Iterator<? extends AbstractState> it = successors.iterator(); it.hasNext();) {
-      AbstractState successor = it.next();
-      shutdownNotifier.shutdownIfNecessary();
-      logger.log(Level.FINER, "Considering successor of current state");
-      logger.log(Level.ALL, "Successor of", state, "\nis", successor);
+  /**
+   * Precision adjustment, merge, and stop of the CPA together with the statistics of their use.
+   * In parallel exploration, every worker thread has its own instance, because the operators need
+   * not be thread-safe (only different instances may be used concurrently).
+   */
+  private class SuccessorHandler {
+
+    private final PrecisionAdjustment precisionAdjustment;
+    private final MergeOperator mergeOperator;
+    private final StopOperator stopOperator;
+    private final CPAStatistics stats;
+
+    /**
+     * The reached set whose partition lock needs to be held for merge, stop, and add, or null if
+     * no locking is necessary.
+     */
+    private final @Nullable ConcurrentPartitionedReachedSet lockedReachedSet;
+
+    private final @Nullable Timer lockWaitTimer;
+
+    private SuccessorHandler(
+        PrecisionAdjustment pPrecisionAdjustment,
+        MergeOperator pMergeOperator,
+        StopOperator pStopOperator,
+        CPAStatistics pStats,
+        @Nullable ConcurrentPartitionedReachedSet pLockedReachedSet,
+        @Nullable Timer pLockWaitTimer) {
+      precisionAdjustment = pPrecisionAdjustment;
+      mergeOperator = pMergeOperator;
+      stopOperator = pStopOperator;
+      stats = pStats;
+      lockedReachedSet = pLockedReachedSet;
+      lockWaitTimer = pLockWaitTimer;
+    }
 
-      stats.precisionTimer.start();
-      PrecisionAdjustmentResult precAdjustmentResult;
-      try {
-        Optional<PrecisionAdjustmentResult> precAdjustmentOptional =
-            precisionAdjustment.prec(
-                successor, precision, reachedSet, Functions.<AbstractState>identity(), successor);
-        if (!precAdjustmentOptional.isPresent()) {
-          continue;
+    /**
+     * Handle the successors of one state, i.e., apply precision adjustment, merge, and stop, and
+     * add them to the reached set.
+     *
+     * @param state The abstract state that was taken out of the waitlist
+     * @param precision The precision for this abstract state.
+     * @param successors The successors of the abstract state.
+     * @param reachedSet The reached set.
+     * @return true if analysis should terminate, false if analysis should continue with next state
+     */
+    private boolean handleSuccessors(
+        final AbstractState state,
+        final Precision precision,
+        final Collection<? extends AbstractState> successors,
+        final ReachedSet reachedSet)
+        throws CPAException, InterruptedException {
+      int numSuccessors = successors.size();
+      logger.log(Level.FINER, "Current state has", numSuccessors, "successors");
+      stats.countSuccessors += numSuccessors;
+      stats.maxSuccessors = Math.max(numSuccessors, stats.maxSuccessors);
+
+      for (Iterator<? extends AbstractState> it = successors.iterator(); it.hasNext();) {
+        AbstractState successor = it.next();
+        shutdownNotifier.shutdownIfNecessary();
+        logger.log(Level.FINER, "Considering successor of current state");
+        logger.log(Level.ALL, "Successor of", state, "\nis", successor);
+
+        stats.precisionTimer.start();
+        PrecisionAdjustmentResult precAdjustmentResult;
+        try {
+          Optional<PrecisionAdjustmentResult> precAdjustmentOptional =
+              precisionAdjustment.prec(
+                  successor, precision, reachedSet, Functions.<AbstractState>identity(), successor);
+          if (!precAdjustmentOptional.isPresent()) {
+            continue;
+          }
+          precAdjustmentResult = precAdjustmentOptional.get();
+        } finally {
+          stats.precisionTimer.stop();
+        }
+
+        successor = precAdjustmentResult.abstractState();
+        Precision successorPrecision = precAdjustmentResult.precision();
+        Action action = precAdjustmentResult.action();
+
+        boolean stopAnalysis;
+        Lock partitionLock = lockPartition(successor);
+        try {
+          stopAnalysis = handleSuccessor(successor, successorPrecision, action, reachedSet);
+        } finally {
+          if (partitionLock != null) {
+            partitionLock.unlock();
+          }
+        }
+
+        if (stopAnalysis) {
+          if (it.hasNext()) {
+            // re-add the old state to the waitlist, there are unhandled
+            // successors left that otherwise would be forgotten
+            reachedSet.reAddToWaitlist(state);
+          }
+          return true;
         }
-        precAdjustmentResult = precAdjustmentOptional.get();
-      } finally {
-        stats.precisionTimer.stop();
       }
 
-      successor = precAdjustmentResult.abstractState();
-      Precision successorPrecision = precAdjustmentResult.precision();
-      Action action = precAdjustmentResult.action();
+      return false;
+    }
+
+    /**
+     * Acquire the lock of the partition of the given state, if necessary. Merge and stop consider
+     * only states of the same partition, so holding this lock makes merge, stop, and add atomic
+     * with respect to other workers.
+     *
+     * @return the acquired lock, or null if no locking is necessary
+     */
+    private @Nullable Lock lockPartition(AbstractState pState) {
+      if (lockedReachedSet == null) {
+        return null;
+      }
+      Lock lock = lockedReachedSet.getPartitionLock(pState);
+      lockWaitTimer.start();
+      try {
+        lock.lock();
+      } finally {
+        lockWaitTimer.stop();
+      }
+      return lock;
+    }
 
+    /**
+     * Handle one successor after precision adjustment, i.e., apply merge and stop, and add it to
+     * the reached set.
+     *
+     * @return true if analysis should terminate, false if analysis should continue
+     */
+    private boolean handleSuccessor(
+        final AbstractState successor,
+        final Precision successorPrecision,
+        final Action action,
+        final ReachedSet reachedSet)
+        throws CPAException, InterruptedException {
       if (action == Action.BREAK) {
         stats.stopTimer.start();
         boolean stop;
@@ -385,7 +895,7 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
           // and handle next successor
           stats.countStop++;
           logger.log(Level.FINER, "Break was signalled but ignored because the state is covered.");
-          continue;
+          return false;
 
         } else {
           stats.countBreak++;
@@ -393,13 +903,6 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
 
           // add the new state
           reachedSet.add(successor, successorPrecision);
-
-          if (it.hasNext()) {
-            // re-add the old state to the waitlist, there are unhandled
-            // successors left that otherwise would be forgotten
-            reachedSet.reAddToWaitlist(state);
-          }
-
           return true;
         }
       }
@@ -467,9 +970,9 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         reachedSet.add(successor, successorPrecision);
         stats.addTimer.stop();
       }
-    }
 
-    return false;
+      return false;
+    }
   }
 
   @Override
@@ -0,0 +1,119 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFACreator;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.core.CoreComponentsFactory;
+import org.sosy_lab.cpachecker.core.Specification;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
+import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class CPAAlgorithmTest {
+
+  private static final String PROGRAM = "test/programs/simple/loop1.c";
+
+  private static final String THREAD_SAFE_CPAS =
+      "cpa.location.LocationCPA, cpa.callstack.CallstackCPA, cpa.value.ValueAnalysisCPA";
+
+  private static ReachedSet explore(Configuration pConfig) throws Exception {
+    LogManager logger = LogManager.createTestLogManager();
+    ShutdownNotifier shutdownNotifier = ShutdownNotifier.createDummy();
+    CFA cfa =
+        new CFACreator(pConfig, logger, shutdownNotifier)
+            .parseFileAndCreateCFA(ImmutableList.of(PROGRAM));
+    CoreComponentsFactory factory =
+        new CoreComponentsFactory(pConfig, logger, shutdownNotifier, new AggregatedReachedSets());
+    ConfigurableProgramAnalysis cpa = factory.createCPA(cfa, Specification.alwaysSatisfied());
+
+    FunctionEntryNode mainFunction = cfa.getMainFunction();
+    StateSpacePartition partition = StateSpacePartition.getDefaultPartition();
+    ReachedSet reached = factory.createReachedSet();
+    reached.add(
+        cpa.getInitialState(mainFunction, partition),
+        cpa.getInitialPrecision(mainFunction, partition));
+    CPAAlgorithm.create(cpa, logger, pConfig, shutdownNotifier).run(reached);
+    return reached;
+  }
+
+  private static Configuration configuration(int pThreads, String pReachedSet, String pCpas)
+      throws InvalidConfigurationException {
+    return TestDataTools.configurationForTest()
+        .setOption("CompositeCPA.cpas", pCpas)
+        .setOption("analysis.reachedSet", pReachedSet)
+        .setOption("cpa.numberOfThreads", Integer.toString(pThreads))
+        .build();
+  }
+
+  private static ImmutableSet<CFANode> locations(ReachedSet pReached) {
+    return FluentIterable.from(pReached).transform(AbstractStates::extractLocation).toSet();
+  }
+
+  private void checkParallelExploration(String pReachedSet) throws Exception {
+    ReachedSet sequential = explore(configuration(1, pReachedSet, THREAD_SAFE_CPAS));
+    ReachedSet parallel = explore(configuration(4, pReachedSet, THREAD_SAFE_CPAS));
+
+    assertThat(parallel.hasWaitingState()).isFalse();
+    // the program is deterministic, so every state is reached exactly once in both modes
+    assertThat(parallel.size()).isEqualTo(sequential.size());
+    assertThat(FluentIterable.from(locations(parallel)).transform(CFANode::getNodeNumber).toSet())
+        .containsExactlyElementsIn(
+            FluentIterable.from(locations(sequential)).transform(CFANode::getNodeNumber).toSet());
+  }
+
+  @Test
+  public void parallelExplorationWithPartitionLocks() throws Exception {
+    checkParallelExploration("CONCURRENTPARTITIONED");
+  }
+
+  @Test
+  public void parallelExplorationWithGlobalLock() throws Exception {
+    checkParallelExploration("PARTITIONED");
+  }
+
+  @Test(expected = InvalidConfigurationException.class)
+  public void parallelExplorationRejectsUnsafeCpas() throws Exception {
+    explore(
+        configuration(
+            4,
+            "CONCURRENTPARTITIONED",
+            "cpa.location.LocationCPA, cpa.callstack.CallstackCPA, cpa.sign.SignCPA"));
+  }
+}
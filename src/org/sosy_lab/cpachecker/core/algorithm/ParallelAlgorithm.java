@@ -31,7 +31,6 @@ import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition.getDefaultPartition;
 
 import com.google.common.base.Strings;
-import com.google.common.collect.FluentIterable;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.Futures;
@@ -39,6 +38,8 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -59,10 +60,13 @@ import org.sosy_lab.common.configuration.AnnotatedValue;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.ConfigurationBuilder;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.configuration.TimeSpanOption;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
@@ -76,6 +80,7 @@ import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.conditions.ReachedSetAdjustingCPA;
 import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
 import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets.AggregatedReachedSetManager;
+import org.sosy_lab.cpachecker.core.reachedset.ConcurrentPartitionedReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.ForwardingReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
@@ -85,7 +90,6 @@ import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.CPAs;
 import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
 import org.sosy_lab.cpachecker.util.resources.ResourceLimitChecker;
-import org.sosy_lab.cpachecker.util.resources.ThreadCpuTimeLimit;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
 
 @Options(prefix = "parallelAlgorithm")
@@ -108,6 +112,27 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
   @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
   private List<AnnotatedValue<Path>> configFiles;
 
+  @Option(
+    secure = true,
+    description =
+        "Maximal number of analyses that are run at the same time (0 for running all analyses"
+            + " at once). The remaining analyses are started in the given order as soon as one of"
+            + " the running analyses terminates without a result."
+  )
+  @IntegerOption(min = 0)
+  private int maxConcurrentAnalyses = 0;
+
+  @Option(
+    secure = true,
+    description =
+        "Limit for the thread cpu time of each analysis, starting when the analysis is started"
+            + " (use seconds or specify a unit; -1 for infinite). An analysis that exceeds it is"
+            + " stopped and its thread is given to the next waiting analysis. This limit is not"
+            + " applied to analyses whose configuration specifies limits.time.cpu.thread itself."
+  )
+  @TimeSpanOption(codeUnit = TimeUnit.NANOSECONDS, defaultUserUnit = TimeUnit.SECONDS, min = -1)
+  private TimeSpan analysisTimeBudget = TimeSpan.ofNanos(-1);
+
   private static final String SUCCESS_MESSAGE =
       "One of the parallel analyses has finished successfully, cancelling all other runs.";
 
@@ -151,7 +176,18 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
     mainEntryNode = AbstractStates.extractLocation(pReachedSet.getFirstState());
     ForwardingReachedSet forwardingReachedSet = (ForwardingReachedSet) pReachedSet;
 
-    ListeningExecutorService exec = listeningDecorator(newFixedThreadPool(configFiles.size()));
+    int numberOfThreads = configFiles.size();
+    if (maxConcurrentAnalyses > 0 && maxConcurrentAnalyses < numberOfThreads) {
+      numberOfThreads = maxConcurrentAnalyses;
+      logger.log(
+          Level.INFO,
+          "Running at most",
+          numberOfThreads,
+          "of",
+          configFiles.size(),
+          "analyses at the same time.");
+    }
+    ListeningExecutorService exec = listeningDecorator(newFixedThreadPool(numberOfThreads));
     List<ListenableFuture<ParallelAnalysisResult>> futures = new ArrayList<>();
 
     for (AnnotatedValue<Path> p : configFiles) {
@@ -269,7 +305,6 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
     final ShutdownManager singleShutdownManager = ShutdownManager.createWithParent(shutdownManager.getNotifier());
 
     final LogManager singleLogger = logger.withComponentName("Parallel analysis " + analysisNumber);
-    final ResourceLimitChecker singleAnalysisOverallLimit;
     final CoreComponentsFactory coreComponents;
     try {
       if (pSingleConfigFileName.annotation().isPresent()) {
@@ -294,9 +329,6 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
         supplyRefinableReached = false;
       }
 
-      singleAnalysisOverallLimit =
-          ResourceLimitChecker.fromConfiguration(singleConfig, singleLogger, singleShutdownManager);
-
       coreComponents =
           new CoreComponentsFactory(
               singleConfig,
@@ -310,61 +342,94 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
     final ReachedSet reached = coreComponents.createReachedSet();
 
     AtomicBoolean terminated = new AtomicBoolean(false);
-    Collection<Statistics> subStats =
-        stats.getNewSubStatistics(
-            reached,
-            singleConfigFileName.toString(),
-            Iterables.getOnlyElement(
-                FluentIterable.from(singleAnalysisOverallLimit.getResourceLimits())
-                    .filter(ThreadCpuTimeLimit.class),
-                null), terminated);
+    StatisticsEntry statisticsEntry =
+        stats.getNewSubStatistics(reached, singleConfigFileName.toString(), terminated);
+    Collection<Statistics> subStats = statisticsEntry.subStatistics;
     return () -> {
-      final Algorithm algorithm;
-      final ConfigurableProgramAnalysis cpa;
+      if (shutdownManager.getNotifier().shouldShutdown()) {
+        // another analysis has finished while this one was waiting for a free thread
+        return ParallelAnalysisResult.absent(singleConfigFileName.toString());
+      }
 
-      cpa = coreComponents.createCPA(cfa, specification);
+      // The resource limits are created here such that they refer to the thread
+      // of this analysis and start when the analysis actually starts.
+      final ResourceLimitChecker singleAnalysisOverallLimit =
+          ResourceLimitChecker.fromConfiguration(singleConfig, singleLogger, singleShutdownManager);
+      statisticsEntry.startMeasuring();
+      try {
+        return runSingleAnalysis(
+            singleConfigFileName.toString(),
+            singleLogger,
+            coreComponents,
+            reached,
+            singleAnalysisOverallLimit,
+            subStats,
+            terminated,
+            supplyReached,
+            supplyRefinableReached);
+      } finally {
+        singleAnalysisOverallLimit.cancel();
+        statisticsEntry.stopMeasuring();
+      }
+    };
+  }
 
-      // TODO global info will not work correctly with parallel analyses
-      // as it is a mutable singleton object
-      GlobalInfo.getInstance().setUpInfoFromCPA(cpa);
+  private ParallelAnalysisResult runSingleAnalysis(
+      final String analysisName,
+      final LogManager singleLogger,
+      final CoreComponentsFactory coreComponents,
+      final ReachedSet reached,
+      final ResourceLimitChecker singleAnalysisOverallLimit,
+      final Collection<Statistics> subStats,
+      final AtomicBoolean terminated,
+      final boolean supplyReached,
+      final boolean supplyRefinableReached)
+      throws InvalidConfigurationException, CPAException {
+    final Algorithm algorithm;
+    final ConfigurableProgramAnalysis cpa;
 
-      algorithm = coreComponents.createAlgorithm(cpa, cfa, specification);
-      if (algorithm instanceof ConditionAdjustmentEventSubscriber) {
-        conditionAdjustmentEventSubscribers.add((ConditionAdjustmentEventSubscriber) algorithm);
-      }
+    cpa = coreComponents.createCPA(cfa, specification);
 
-      singleAnalysisOverallLimit.start();
+    // TODO global info will not work correctly with parallel analyses
+    // as it is a mutable singleton object
+    GlobalInfo.getInstance().setUpInfoFromCPA(cpa);
 
-      if (cpa instanceof StatisticsProvider) {
-        ((StatisticsProvider) cpa).collectStatistics(subStats);
-      }
+    algorithm = coreComponents.createAlgorithm(cpa, cfa, specification);
+    if (algorithm instanceof ConditionAdjustmentEventSubscriber) {
+      conditionAdjustmentEventSubscribers.add((ConditionAdjustmentEventSubscriber) algorithm);
+    }
 
-      if (algorithm instanceof StatisticsProvider) {
-        ((StatisticsProvider) algorithm).collectStatistics(subStats);
-      }
+    singleAnalysisOverallLimit.start();
 
-      try {
-        initializeReachedSet(cpa, mainEntryNode, reached);
-      } catch (InterruptedException e) {
-        singleLogger.logUserException(
-            Level.INFO, e, "Initializing reached set took too long, analysis cannot be started");
-        terminated.set(true);
-        return ParallelAnalysisResult.absent(singleConfigFileName.toString());
-      }
+    if (cpa instanceof StatisticsProvider) {
+      ((StatisticsProvider) cpa).collectStatistics(subStats);
+    }
 
-      ParallelAnalysisResult r =
-          runParallelAnalysis(
-              singleConfigFileName.toString(),
-              algorithm,
-              reached,
-              singleLogger,
-              cpa,
-              supplyReached,
-              supplyRefinableReached,
-              coreComponents);
+    if (algorithm instanceof StatisticsProvider) {
+      ((StatisticsProvider) algorithm).collectStatistics(subStats);
+    }
+
+    try {
+      initializeReachedSet(cpa, mainEntryNode, reached);
+    } catch (InterruptedException e) {
+      singleLogger.logUserException(
+          Level.INFO, e, "Initializing reached set took too long, analysis cannot be started");
       terminated.set(true);
-      return r;
-    };
+      return ParallelAnalysisResult.absent(analysisName);
+    }
+
+    ParallelAnalysisResult r =
+        runParallelAnalysis(
+            analysisName,
+            algorithm,
+            reached,
+            singleLogger,
+            cpa,
+            supplyReached,
+            supplyRefinableReached,
+            coreComponents);
+    terminated.set(true);
+    return r;
   }
 
   private ParallelAnalysisResult runParallelAnalysis(
@@ -380,7 +445,7 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
     try {
       AlgorithmStatus status = null;
       ReachedSet currentReached = reached;
-      AtomicReference<ReachedSet> oldReached = new AtomicReference<>();
+      AtomicReference<UnmodifiableReachedSet> oldReached = new AtomicReference<>();
 
       if (algorithm instanceof ReachedSetUpdater) {
         ReachedSetUpdater reachedSetUpdater = (ReachedSetUpdater) algorithm;
@@ -390,11 +455,18 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
               @Override
               public void updated(ReachedSet pReachedSet) {
                 singleLogger.log(Level.INFO, "Updating reached set provided to other analyses");
-                ReachedSet oldReachedSet = oldReached.get();
-                ReachedSet currentReached = coreComponents.createReachedSet();
-                for (AbstractState as : pReachedSet) {
-                  currentReached.add(as, pReachedSet.getPrecision(as));
-                  currentReached.removeOnlyFromWaitlist(as);
+                UnmodifiableReachedSet oldReachedSet = oldReached.get();
+                UnmodifiableReachedSet currentReached;
+                if (pReachedSet instanceof ConcurrentPartitionedReachedSet) {
+                  // cheaper than copying, and safe while the analysis continues
+                  currentReached = ((ConcurrentPartitionedReachedSet) pReachedSet).snapshot();
+                } else {
+                  ReachedSet copy = coreComponents.createReachedSet();
+                  for (AbstractState as : pReachedSet) {
+                    copy.add(as, pReachedSet.getPrecision(as));
+                    copy.removeOnlyFromWaitlist(as);
+                  }
+                  currentReached = copy;
                 }
                 if (oldReachedSet != null) {
                   aggregatedReachedSetManager.updateReachedSet(oldReachedSet, currentReached);
@@ -424,7 +496,7 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
           if (status.isSound()
               && !from(currentReached)
                   .anyMatch(or(AbstractStates::isTargetState, AbstractStates::hasAssumptions))) {
-            ReachedSet oldReachedSet = oldReached.get();
+            UnmodifiableReachedSet oldReachedSet = oldReached.get();
             if (oldReachedSet != null) {
               aggregatedReachedSetManager.updateReachedSet(oldReachedSet, currentReached);
             } else {
@@ -454,7 +526,7 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
 
           if (status.isSound()) {
             singleLogger.log(Level.INFO, "Updating reached set provided to other analyses");
-            ReachedSet oldReachedSet = oldReached.get();
+            UnmodifiableReachedSet oldReachedSet = oldReached.get();
             if (oldReachedSet != null) {
               aggregatedReachedSetManager.updateReachedSet(oldReachedSet, currentReached);
             } else {
@@ -494,6 +566,11 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
       singleConfigBuilder.copyFrom(globalConfig);
       singleConfigBuilder.clearOption("parallelAlgorithm.configFiles");
       singleConfigBuilder.clearOption("analysis.useParallelAnalyses");
+      if (analysisTimeBudget.compareTo(TimeSpan.empty()) > 0) {
+        // set before loading the file, such that a limit given there takes precedence
+        singleConfigBuilder.setOption(
+            "limits.time.cpu.thread", analysisTimeBudget.asMillis() + "ms");
+      }
       singleConfigBuilder.loadFromFile(singleConfigFileName);
 
       Configuration singleConfig = singleConfigBuilder.build();
@@ -577,12 +654,12 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
       logger = checkNotNull(pLogger);
     }
 
-    public synchronized Collection<Statistics> getNewSubStatistics(
-        ReachedSet pReached, String pName, @Nullable ThreadCpuTimeLimit pRLimit, AtomicBoolean pTerminated) {
+    public synchronized StatisticsEntry getNewSubStatistics(
+        ReachedSet pReached, String pName, AtomicBoolean pTerminated) {
       Collection<Statistics> subStats = Lists.newCopyOnWriteArrayList();
-      StatisticsEntry entry = new StatisticsEntry(subStats, pReached, pName, pRLimit, pTerminated);
+      StatisticsEntry entry = new StatisticsEntry(subStats, pReached, pName, pTerminated);
       allAnalysesStats.add(entry);
-      return subStats;
+      return entry;
     }
 
     @Override
@@ -596,9 +673,30 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
       if (successfulAnalysisName != null) {
         out.println("Successful analysis: " + successfulAnalysisName);
       }
+      printResourceUsage(out);
       printSubStatistics(out, result);
     }
 
+    private void printResourceUsage(PrintStream pOut) {
+      for (StatisticsEntry subStats : allAnalysesStats) {
+        pOut.print("  " + subStats.name + ": ");
+        if (!subStats.started) {
+          pOut.println("not started");
+          continue;
+        }
+        long cpuTime = subStats.cpuTime;
+        long allocatedMemory = subStats.allocatedMemory;
+        pOut.println(
+            (cpuTime >= 0
+                    ? TimeSpan.ofNanos(cpuTime).formatAs(TimeUnit.SECONDS)
+                    : "unknown time")
+                + " cpu time, "
+                + (allocatedMemory >= 0 ? (allocatedMemory >> 20) + " MiB" : "unknown memory")
+                + " allocated"
+                + (subStats.terminated.get() ? "" : " (still running)"));
+      }
+    }
+
     private void printSubStatistics(PrintStream pOut, Result pResult) {
       for (StatisticsEntry subStats : allAnalysesStats) {
         pOut.println();
@@ -606,12 +704,12 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
         String title = "Statistics for: " + subStats.name;
         pOut.println(title);
         pOut.println(Strings.repeat("=", title.length()));
-        if (subStats.rLimit != null) {
+        if (subStats.cpuTime >= 0) {
           pOut.println(
               "Time spent in analysis thread "
                   + subStats.name
                   + ": "
-                  + subStats.rLimit.getOverallUsedTime().formatAs(TimeUnit.SECONDS));
+                  + TimeSpan.ofNanos(subStats.cpuTime).formatAs(TimeUnit.SECONDS));
         }
         boolean terminated = subStats.terminated.get();
         if (terminated) {
@@ -673,6 +771,8 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
     pStatsCollection.add(stats);
   }
 
+  private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
   private static class StatisticsEntry {
 
     private final Collection<Statistics> subStatistics;
@@ -681,18 +781,59 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
 
     private final String name;
 
-    private final @Nullable ThreadCpuTimeLimit rLimit;
-
     private final AtomicBoolean terminated;
 
-    public StatisticsEntry(Collection<Statistics> pSubStatistics, ReachedSet pReachedSet, String pName, @Nullable ThreadCpuTimeLimit pRLimit, AtomicBoolean pTerminated) {
+    // The following fields are written by the thread of the analysis.
+    // Resources are measured for the analysis thread only,
+    // thus threads that are started by the analysis itself are not included.
+
+    private volatile boolean started = false;
+
+    /** cpu time of the analysis in nanoseconds, or -1 if not (yet) available */
+    private volatile long cpuTime = -1;
+
+    /** memory allocated by the analysis in bytes, or -1 if not (yet) available */
+    private volatile long allocatedMemory = -1;
+
+    private long startCpuTime;
+    private long startAllocatedMemory;
+
+    public StatisticsEntry(Collection<Statistics> pSubStatistics, ReachedSet pReachedSet, String pName, AtomicBoolean pTerminated) {
       subStatistics = Objects.requireNonNull(pSubStatistics);
       reachedSet = Objects.requireNonNull(pReachedSet);
       name = Objects.requireNonNull(pName);
-      rLimit = pRLimit;
       terminated = Objects.requireNonNull(pTerminated);
     }
 
+    /** Start measuring the resources of the analysis, needs to be called by its thread. */
+    private void startMeasuring() {
+      startCpuTime = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+      startAllocatedMemory = getCurrentThreadAllocatedMemory();
+      started = true;
+    }
+
+    /** Stop measuring the resources of the analysis, needs to be called by its thread. */
+    private void stopMeasuring() {
+      long endCpuTime = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+      if (startCpuTime >= 0 && endCpuTime >= 0) {
+        cpuTime = endCpuTime - startCpuTime;
+      }
+      long endAllocatedMemory = getCurrentThreadAllocatedMemory();
+      if (startAllocatedMemory >= 0 && endAllocatedMemory >= 0) {
+        allocatedMemory = endAllocatedMemory - startAllocatedMemory;
+      }
+    }
+
+    private static long getCurrentThreadAllocatedMemory() {
+      if (THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+        if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+          return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+      }
+      return -1;
+    }
+
   }
 
   public static interface ReachedSetUpdateListener {
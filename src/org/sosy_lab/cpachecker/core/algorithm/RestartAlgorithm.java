@@ -30,6 +30,7 @@ import static org.sosy_lab.cpachecker.util.AbstractStates.IS_TARGET_STATE;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
@@ -46,6 +47,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownManager;
@@ -58,7 +60,9 @@ import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.configuration.TimeSpanOption;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
@@ -86,6 +90,7 @@ import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.CPAs;
 import org.sosy_lab.cpachecker.util.Triple;
 import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
+import org.sosy_lab.cpachecker.util.resources.ProgressTimeLimit;
 import org.sosy_lab.cpachecker.util.resources.ResourceLimitChecker;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
 
@@ -212,6 +217,29 @@ public class RestartAlgorithm implements Algorithm, StatisticsProvider, ReachedS
   )
   private boolean alwaysRestart = false;
 
+  @Option(
+    secure = true,
+    description =
+        "stop a component of the restart algorithm and continue with the next configuration"
+            + " (as if it had been interrupted) if neither its reached set nor its waitlist"
+            + " changed and no refinement happened for the given time"
+            + " (use seconds or specify a unit; -1 for infinite)."
+            + " This is never applied to the last configuration."
+            + " Does not work for analyses that do not use their main reached set, like BAM."
+  )
+  @TimeSpanOption(codeUnit = TimeUnit.NANOSECONDS, defaultUserUnit = TimeUnit.SECONDS, min = -1)
+  private TimeSpan timeWithoutProgress = TimeSpan.ofNanos(-1);
+
+  @Option(
+    secure = true,
+    description =
+        "if positive, only a growth of the reached set by at least this number of states per"
+            + " second (on average) counts as progress for restartAlgorithm.timeWithoutProgress,"
+            + " such that components that add states only very slowly are also stopped."
+            + " Refinements always count as progress."
+  )
+  private double minReachedSetGrowthRate = 0;
+
   private final LogManager logger;
   private final ShutdownNotifier shutdownNotifier;
   private final ShutdownRequestListener logShutdownListener;
@@ -239,6 +267,10 @@ public class RestartAlgorithm implements Algorithm, StatisticsProvider, ReachedS
     if (configFiles.isEmpty()) {
       throw new InvalidConfigurationException("Need at least one configuration for restart algorithm!");
     }
+    if (minReachedSetGrowthRate < 0) {
+      throw new InvalidConfigurationException(
+          "Option restartAlgorithm.minReachedSetGrowthRate must not be negative.");
+    }
 
     this.stats = new RestartAlgorithmStatistics(configFiles.size(), pLogger);
     this.logger = pLogger;
@@ -297,6 +329,8 @@ public class RestartAlgorithm implements Algorithm, StatisticsProvider, ReachedS
       @Nullable ConfigurableProgramAnalysis currentCpa = null;
       ReachedSet currentReached;
       ShutdownManager singleShutdownManager = ShutdownManager.createWithParent(shutdownNotifier);
+      @Nullable ProgressTimeLimit progress = null;
+      @Nullable ResourceLimitChecker progressLimit = null;
 
       boolean lastAnalysisInterrupted = false;
       boolean lastAnalysisFailed = false;
@@ -353,8 +387,25 @@ public class RestartAlgorithm implements Algorithm, StatisticsProvider, ReachedS
 
         stats.noOfAlgorithmsUsed++;
 
+        if (timeWithoutProgress.compareTo(TimeSpan.empty()) > 0 && configFilesIterator.hasNext()) {
+          progress =
+              ProgressTimeLimit.fromNowOn(
+                  timeWithoutProgress, minReachedSetGrowthRate, currentReached);
+          progressLimit =
+              new ResourceLimitChecker(singleShutdownManager, ImmutableList.of(progress));
+          progressLimit.start();
+        }
+
         // run algorithm
         registerReachedSetUpdateListeners();
+        if (progress != null && currentAlgorithm instanceof ReachedSetUpdater) {
+          // e.g., CEGARAlgorithm notifies its listeners in each iteration of the refinement loop
+          final ProgressTimeLimit progressLimitForListener = progress;
+          ReachedSetUpdateListener progressListener =
+              r -> progressLimitForListener.reportProgress();
+          ((ReachedSetUpdater) currentAlgorithm).register(progressListener);
+          reachedSetUpdateListenersAdded.add(progressListener);
+        }
         try {
           logger.logf(Level.INFO, "Starting analysis %d ...", stats.noOfAlgorithmsUsed);
           status = currentAlgorithm.run(currentReached);
@@ -422,6 +473,9 @@ public class RestartAlgorithm implements Algorithm, StatisticsProvider, ReachedS
           }
         }
       } finally {
+        if (progressLimit != null) {
+          progressLimit.cancel();
+        }
         unregisterReachedSetUpdateListeners();
         singleShutdownManager.getNotifier().unregister(logShutdownListener);
         singleShutdownManager.requestShutdown("Analysis terminated"); // shutdown any remaining components
@@ -493,25 +493,14 @@ class ReachedSetExecutor {
     ReachedSet newRs = pBsme.getReachedSet();
     BAMDataManager data = bamcpa.getData();
 
-    synchronized (data) {
-      if (newRs == null) {
-        // We are only synchronized in the current method. Thus, we need to check
-        // the cache again, maybe another thread already created the needed reached-set.
-        final BAMCacheEntry entry =
-            data.getCache()
-                .get(pBsme.getReducedState(), pBsme.getReducedPrecision(), pBsme.getBlock());
-        newRs = entry == null ? null : entry.getReachedSet();
-      }
-
-      // now we can be sure, whether the sub-reached-set exists or not.
-      if (newRs == null) {
-        // we have not even cached a partly computed reached-set,
-        // so we must compute the subgraph specification from scratch
-        BAMCacheEntry entry =
-            data.createAndRegisterNewReachedSet(
-                pBsme.getReducedState(), pBsme.getReducedPrecision(), pBsme.getBlock());
-        newRs = entry.getReachedSet();
-      }
+    if (newRs == null) {
+      // Maybe another thread already created the needed reached-set in the meantime,
+      // otherwise we must compute the subgraph specification from scratch.
+      // The data manager guarantees that only one reached-set is created.
+      BAMCacheEntry entry =
+          data.getOrCreateReachedSet(
+              pBsme.getReducedState(), pBsme.getReducedPrecision(), pBsme.getBlock());
+      newRs = entry.getReachedSet();
     }
 
     ReachedSetExecutor newSubRse =
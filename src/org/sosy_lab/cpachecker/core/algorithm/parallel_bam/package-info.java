@@ -1,5 +1,5 @@
 /**
  * This algorithm executes the sub-analyses of BAM in several threads. The cache data-structures
- * from BAM are synchronized.
+ * from BAM are thread-safe, either with fine-grained locking or with a single lock.
  */
 package org.sosy_lab.cpachecker.core.algorithm.parallel_bam;
@@ -107,6 +107,15 @@ public abstract class AbstractSingleWrapperState
     }
   }
 
+  @Override
+  public long getCoverageSignature() {
+    if (wrappedState instanceof PseudoPartitionable) {
+      return ((PseudoPartitionable) wrappedState).getCoverageSignature();
+    } else {
+      return 0L;
+    }
+  }
+
   @Override
   public String toString() {
     return wrappedState.toString();
@@ -69,4 +69,35 @@ public interface PseudoPartitionable {
    */
   @Nullable
   Object getPseudoHashCode();
+
+  /**
+   * Return a signature of the current object that allows a fast check for non-coverage,
+   * similar to a Bloom filter.
+   * Each set bit represents some information that is also contained in all states
+   * that are 'lessOrEqual' to the current state,
+   * i.e., if a state s1 is 'lessOrEqual' to a state s2,
+   * then all bits that are set in the signature of s2 are also set in the signature of s1.
+   *
+   * The signature must be consistent with the stop operator of the CPA,
+   * i.e., a state may only be covered by a single reached state if the above condition holds.
+   * The default value 0 is always sound, but never allows to skip a coverage check.
+   */
+  default long getCoverageSignature() {
+    return 0L;
+  }
+
+  /**
+   * Check whether a state with the given signature might be 'lessOrEqual'
+   * to a state with the other signature, cf. {@link #getCoverageSignature()}.
+   */
+  static boolean mayBeLessOrEqual(long pSignature, long pOtherSignature) {
+    return (pOtherSignature & ~pSignature) == 0;
+  }
+
+  /** Map a hash code to the bit of a signature that represents it. */
+  static long toSignatureBit(int pHashCode) {
+    // spread the higher bits like HashMap does, only the lowest six bits are used
+    int h = pHashCode ^ (pHashCode >>> 16);
+    return 1L << (h & 63);
+  }
 }
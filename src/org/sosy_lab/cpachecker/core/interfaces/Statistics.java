@@ -24,6 +24,7 @@
 package org.sosy_lab.cpachecker.core.interfaces;
 
 import java.io.PrintStream;
+import java.util.Map;
 import javax.annotation.Nullable;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
@@ -82,6 +83,18 @@ public interface Statistics {
    */
   default void writeOutputFiles(Result pResult, UnmodifiableReachedSet pReached) {}
 
+  /**
+   * Add the current values of some of the statistics in this group to the given map. This is
+   * called periodically while the analysis is running, if sampling of statistics is enabled.
+   *
+   * <p>This method is called by a different thread than the analysis. Thus implementations should
+   * only read single fields like counters (which may be slightly outdated), and must neither
+   * iterate over data structures of the analysis nor block.
+   *
+   * @param pValues the map to which the values are added, with human-readable names as keys
+   */
+  default void collectLiveValues(Map<String, Number> pValues) {}
+
   int DEFAULT_OUTPUT_NAME_COL_WIDTH = 50;
 
   /**
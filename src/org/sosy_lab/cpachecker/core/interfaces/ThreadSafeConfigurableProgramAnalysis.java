@@ -0,0 +1,44 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.interfaces;
+
+import org.sosy_lab.cpachecker.core.algorithm.CPAAlgorithm;
+
+/**
+ * This is a marker interface that tells the {@link CPAAlgorithm} that this CPA can be used for
+ * exploring the state space with several threads in parallel.
+ *
+ * <p>A CPA implementing this interface guarantees that the transfer relations, merge operators,
+ * stop operators, and precision adjustments returned by different calls to {@link
+ * #getTransferRelation()}, {@link #getMergeOperator()}, {@link #getStopOperator()}, and {@link
+ * #getPrecisionAdjustment()} can be used concurrently by different threads, i.e., they are either
+ * fresh instances or stateless. Each instance is used by only one thread, and merge and stop are
+ * never called concurrently for states of the same partition of the reached set.
+ *
+ * <p>For a {@link WrapperCPA}, implementing this interface only states that the wrapper itself is
+ * thread-safe, all wrapped CPAs need to implement this interface, too.
+ */
+public interface ThreadSafeConfigurableProgramAnalysis extends ConfigurableProgramAnalysis {
+
+}
@@ -0,0 +1,631 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.FluentIterable.from;
+import static org.sosy_lab.cpachecker.util.AbstractStates.IS_TARGET_STATE;
+
+import com.google.common.collect.Collections2;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import javax.annotation.Nullable;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Property;
+import org.sosy_lab.cpachecker.core.interfaces.Targetable;
+import org.sosy_lab.cpachecker.core.waitlist.AbstractSortedWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
+
+/**
+ * Thread-safe implementation of the reached set that partitions the set by the keys of {@link
+ * Partitionable} states, like {@link PartitionedReachedSet}.
+ *
+ * <p>Each state gets a unique sequence number when it is added. All states as well as the states
+ * of each partition are stored in lock-free maps sorted by these numbers, thus querying states
+ * from several threads does not block, and the iteration order is the order of insertion, exactly
+ * as for the other reached-set implementations. Iterators and the collections returned by {@link
+ * #getReached(AbstractState)} are weakly consistent, i.e., they never throw a {@link
+ * java.util.ConcurrentModificationException} and reflect the content of the reached set at some
+ * point at or since their creation.
+ *
+ * <p>Adding and removing a state is atomic with respect to other changes of the same partition,
+ * because it is done while holding the lock of the partition (cf. {@link
+ * #getPartitionLock(AbstractState)}). Changes of different partitions do not block each other.
+ * A state is visible in {@link #contains(AbstractState)} and in the iteration over all states
+ * only after it was added completely.
+ *
+ * <p>The waitlist implementations are not thread-safe, so all accesses to the waitlist are
+ * synchronized.
+ */
+public class ConcurrentPartitionedReachedSet implements ReachedSet {
+
+  /** Precision and sequence number of a state in the reached set. */
+  private static final class ReachedEntry {
+
+    private final Precision precision;
+    private final long sequenceNumber;
+
+    private ReachedEntry(Precision pPrecision, long pSequenceNumber) {
+      precision = pPrecision;
+      sequenceNumber = pSequenceNumber;
+    }
+  }
+
+  /** The states of one partition sorted by their sequence number, and the lock for changes. */
+  private static final class Partition {
+
+    private final ConcurrentNavigableMap<Long, AbstractState> states =
+        new ConcurrentSkipListMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+  }
+
+  private final AtomicLong nextSequenceNumber = new AtomicLong();
+
+  private final ConcurrentMap<AbstractState, ReachedEntry> reached = new ConcurrentHashMap<>();
+
+  /** All states sorted by their sequence number. */
+  private final ConcurrentNavigableMap<Long, AbstractState> orderedReached =
+      new ConcurrentSkipListMap<>();
+
+  /**
+   * The states of each partition, sorted by their sequence number. Since a partition key may be
+   * null, but ConcurrentHashMap does not support null keys, we use Optionals.
+   */
+  private final ConcurrentMap<Optional<Object>, Partition> partitionedReached =
+      new ConcurrentHashMap<>();
+
+  private final Set<AbstractState> unmodifiableReached = new ReachedStatesView();
+
+  /** Guarded by itself. */
+  private final Waitlist waitlist;
+
+  private volatile @Nullable AbstractState lastState = null;
+
+  public ConcurrentPartitionedReachedSet(WaitlistFactory waitlistFactory) {
+    waitlist = waitlistFactory.createWaitlistInstance();
+  }
+
+  @Override
+  public void add(AbstractState state, Precision precision) throws IllegalArgumentException {
+    checkNotNull(state);
+    checkNotNull(precision);
+
+    Partition partition = getPartition(getPartitionKey(state));
+    partition.lock.lock();
+    try {
+      ReachedEntry previous = reached.get(state);
+
+      if (previous == null) {
+        long sequenceNumber = nextSequenceNumber.getAndIncrement();
+        orderedReached.put(sequenceNumber, state);
+        partition.states.put(sequenceNumber, state);
+        synchronized (waitlist) {
+          waitlist.add(state);
+        }
+        // publish the state last, such that contains() implies that all maps contain it
+        reached.put(state, new ReachedEntry(precision, sequenceNumber));
+        lastState = state;
+
+      } else {
+        // State was already in the reached set, cf. DefaultReachedSet#add for the reasons
+        // why we do not need to add it to the waitlist again.
+        if (!precision.equals(previous.precision)) {
+          throw new IllegalArgumentException(
+              "State added to reached set which is already contained,"
+                  + " but with a different precision");
+        }
+      }
+    } finally {
+      partition.lock.unlock();
+    }
+  }
+
+  @Override
+  public void addAll(Iterable<Pair<AbstractState, Precision>> toAdd) {
+    for (Pair<AbstractState, Precision> pair : toAdd) {
+      add(pair.getFirst(), pair.getSecond());
+    }
+  }
+
+  @Override
+  public void reAddToWaitlist(AbstractState s) {
+    checkNotNull(s);
+    Partition partition = getPartition(getPartitionKey(s));
+    partition.lock.lock();
+    try {
+      checkArgument(reached.containsKey(s), "State has to be in the reached set");
+
+      synchronized (waitlist) {
+        if (!waitlist.contains(s)) {
+          waitlist.add(s);
+        }
+      }
+    } finally {
+      partition.lock.unlock();
+    }
+  }
+
+  @Override
+  public void updatePrecision(AbstractState s, Precision newPrecision) {
+    checkNotNull(s);
+    checkNotNull(newPrecision);
+
+    ReachedEntry updated =
+        reached.computeIfPresent(
+            s, (state, entry) -> new ReachedEntry(newPrecision, entry.sequenceNumber));
+    if (updated == null) {
+      throw new IllegalArgumentException(
+          "State needs to be in the reached set in order to change the precision.");
+    }
+  }
+
+  @Override
+  public void remove(AbstractState state) {
+    checkNotNull(state);
+    Partition partition = partitionedReached.get(getPartitionKey(state));
+    if (partition == null) {
+      // state was never added
+      return;
+    }
+
+    partition.lock.lock();
+    try {
+      synchronized (waitlist) {
+        waitlist.remove(state);
+      }
+
+      // unpublish the state first, cf. add()
+      ReachedEntry entry = reached.remove(state);
+      if (entry != null) {
+        orderedReached.remove(entry.sequenceNumber);
+        // empty partitions are kept, they will most likely be filled again
+        partition.states.remove(entry.sequenceNumber);
+        if (state.equals(lastState)) {
+          lastState = null;
+        }
+      }
+    } finally {
+      partition.lock.unlock();
+    }
+  }
+
+  @Override
+  public void removeAll(Iterable<? extends AbstractState> toRemove) {
+    for (AbstractState state : toRemove) {
+      remove(state);
+    }
+  }
+
+  @Override
+  public void removeOnlyFromWaitlist(AbstractState state) {
+    checkNotNull(state);
+    synchronized (waitlist) {
+      waitlist.remove(state);
+    }
+  }
+
+  /**
+   * Clear the reached set. This must not be called concurrently with other changes of the reached
+   * set.
+   */
+  @Override
+  public void clear() {
+    synchronized (waitlist) {
+      waitlist.clear();
+    }
+    reached.clear();
+    orderedReached.clear();
+    partitionedReached.clear();
+    lastState = null;
+  }
+
+  @Override
+  public Set<AbstractState> asCollection() {
+    return unmodifiableReached;
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    return unmodifiableReached.iterator();
+  }
+
+  @Override
+  public Collection<Precision> getPrecisions() {
+    return Collections.unmodifiableCollection(
+        Collections2.transform(reached.values(), entry -> entry.precision));
+  }
+
+  @Override
+  public Collection<AbstractState> getReached(AbstractState state) {
+    return getReachedForKey(getPartitionKey(state));
+  }
+
+  @Override
+  public Collection<AbstractState> getReached(CFANode location) {
+    checkNotNull(location);
+    return asCollection();
+  }
+
+  private Collection<AbstractState> getReachedForKey(Optional<Object> key) {
+    Partition partition = partitionedReached.get(key);
+    if (partition == null) {
+      return ImmutableList.of();
+    }
+    return Collections.unmodifiableCollection(partition.states.values());
+  }
+
+  private Partition getPartition(Optional<Object> key) {
+    return partitionedReached.computeIfAbsent(key, k -> new Partition());
+  }
+
+  /**
+   * Get the lock that guards all changes of the partition of the given state. While holding this
+   * lock, a thread can inspect the partition (e.g., for merge and stop) and add or remove states
+   * of this partition without interference from other threads. The lock is reentrant, so all
+   * methods of this class can be called while holding it.
+   */
+  public Lock getPartitionLock(AbstractState state) {
+    return getPartition(getPartitionKey(state)).lock;
+  }
+
+  private static Optional<Object> getPartitionKey(AbstractState pState) {
+    checkNotNull(pState);
+    assert pState instanceof Partitionable
+        : "Partitionable states necessary for ConcurrentPartitionedReachedSet";
+    return Optional.ofNullable(((Partitionable) pState).getPartitionKey());
+  }
+
+  public int getNumberOfPartitions() {
+    return from(partitionedReached.values()).filter(p -> !p.states.isEmpty()).size();
+  }
+
+  @Override
+  public AbstractState getFirstState() {
+    Entry<Long, AbstractState> first = orderedReached.firstEntry();
+    checkState(first != null);
+    return first.getValue();
+  }
+
+  @Override
+  public @Nullable AbstractState getLastState() {
+    return lastState;
+  }
+
+  @Override
+  public boolean hasWaitingState() {
+    synchronized (waitlist) {
+      return !waitlist.isEmpty();
+    }
+  }
+
+  @Override
+  public Collection<AbstractState> getWaitlist() {
+    return new AbstractCollection<AbstractState>() {
+
+      @Override
+      public Iterator<AbstractState> iterator() {
+        // iterate over a copy, the waitlist may be changed by other threads
+        synchronized (waitlist) {
+          return ImmutableList.copyOf(waitlist.iterator()).iterator();
+        }
+      }
+
+      @Override
+      public boolean contains(Object obj) {
+        if (!(obj instanceof AbstractState)) {
+          return false;
+        }
+        synchronized (waitlist) {
+          return waitlist.contains((AbstractState) obj);
+        }
+      }
+
+      @Override
+      public boolean isEmpty() {
+        return !hasWaitingState();
+      }
+
+      @Override
+      public int size() {
+        synchronized (waitlist) {
+          return waitlist.size();
+        }
+      }
+
+      @Override
+      public String toString() {
+        synchronized (waitlist) {
+          return waitlist.toString();
+        }
+      }
+    };
+  }
+
+  @Override
+  public int getWaitlistSize() {
+    synchronized (waitlist) {
+      return waitlist.size();
+    }
+  }
+
+  @Override
+  public AbstractState popFromWaitlist() {
+    synchronized (waitlist) {
+      return waitlist.pop();
+    }
+  }
+
+  @Override
+  public Precision getPrecision(AbstractState state) {
+    checkNotNull(state);
+    ReachedEntry entry = reached.get(state);
+    checkArgument(entry != null, "State not in reached set:\n%s", state);
+    return entry.precision;
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super AbstractState, ? super Precision> pAction) {
+    checkNotNull(pAction);
+    for (AbstractState state : orderedReached.values()) {
+      ReachedEntry entry = reached.get(state);
+      // states that are currently added or removed have no entry
+      if (entry != null) {
+        pAction.accept(state, entry.precision);
+      }
+    }
+  }
+
+  @Override
+  public boolean contains(AbstractState state) {
+    checkNotNull(state);
+    return reached.containsKey(state);
+  }
+
+  @Override
+  public int size() {
+    return reached.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return reached.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return unmodifiableReached.toString();
+  }
+
+  /**
+   * Create an immutable copy of the current content of this reached set, which can be shared with
+   * other analyses (cf. {@link org.sosy_lab.cpachecker.core.algorithm.ParallelAlgorithm}) while
+   * this reached set is still changed. The copy contains the states in the order of insertion and
+   * is partitioned like this reached set, but its waitlist is empty. Taking a snapshot does not
+   * block other threads, states that are added or removed concurrently may or may not be part of
+   * the snapshot.
+   */
+  public UnmodifiableReachedSet snapshot() {
+    ImmutableMap.Builder<AbstractState, Precision> states = ImmutableMap.builder();
+    ImmutableListMultimap.Builder<Optional<Object>, AbstractState> partitions =
+        ImmutableListMultimap.builder();
+    for (AbstractState state : orderedReached.values()) {
+      ReachedEntry entry = reached.get(state);
+      if (entry != null) {
+        states.put(state, entry.precision);
+        partitions.put(getPartitionKey(state), state);
+      }
+    }
+    return new Snapshot(states.build(), partitions.build());
+  }
+
+  public Map<String, ? extends AbstractStatValue> getStatistics() {
+    synchronized (waitlist) {
+      if (waitlist instanceof AbstractSortedWaitlist) {
+        return ImmutableMap.copyOf(((AbstractSortedWaitlist<?>) waitlist).getDelegationCounts());
+      }
+    }
+    return ImmutableMap.of();
+  }
+
+  @Override
+  public boolean hasViolatedProperties() {
+    return from(unmodifiableReached).anyMatch(IS_TARGET_STATE);
+  }
+
+  @Override
+  public Collection<Property> getViolatedProperties() {
+    return from(unmodifiableReached)
+        .filter(IS_TARGET_STATE)
+        .filter(Targetable.class)
+        .transformAndConcat(Targetable::getViolatedProperties)
+        .toSet();
+  }
+
+  /** Immutable copy of a reached set, created by {@link #snapshot()}. */
+  private static final class Snapshot implements UnmodifiableReachedSet {
+
+    private final ImmutableMap<AbstractState, Precision> states;
+    private final ImmutableListMultimap<Optional<Object>, AbstractState> partitions;
+
+    private Snapshot(
+        ImmutableMap<AbstractState, Precision> pStates,
+        ImmutableListMultimap<Optional<Object>, AbstractState> pPartitions) {
+      states = pStates;
+      partitions = pPartitions;
+    }
+
+    @Override
+    public Collection<AbstractState> asCollection() {
+      return states.keySet();
+    }
+
+    @Override
+    public Iterator<AbstractState> iterator() {
+      return states.keySet().iterator();
+    }
+
+    @Override
+    public Collection<Precision> getPrecisions() {
+      return states.values();
+    }
+
+    @Override
+    public Collection<AbstractState> getReached(AbstractState state) {
+      return partitions.get(getPartitionKey(state));
+    }
+
+    @Override
+    public Collection<AbstractState> getReached(CFANode location) {
+      checkNotNull(location);
+      return asCollection();
+    }
+
+    @Override
+    public AbstractState getFirstState() {
+      checkState(!states.isEmpty());
+      return states.keySet().iterator().next();
+    }
+
+    @Override
+    public @Nullable AbstractState getLastState() {
+      return states.isEmpty() ? null : states.keySet().asList().get(states.size() - 1);
+    }
+
+    @Override
+    public boolean hasWaitingState() {
+      return false;
+    }
+
+    @Override
+    public Collection<AbstractState> getWaitlist() {
+      return ImmutableList.of();
+    }
+
+    @Override
+    public int getWaitlistSize() {
+      return 0;
+    }
+
+    @Override
+    public Precision getPrecision(AbstractState state) {
+      checkNotNull(state);
+      Precision precision = states.get(state);
+      checkArgument(precision != null, "State not in reached set:\n%s", state);
+      return precision;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super AbstractState, ? super Precision> pAction) {
+      states.forEach(pAction);
+    }
+
+    @Override
+    public boolean contains(AbstractState state) {
+      checkNotNull(state);
+      return states.containsKey(state);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return states.isEmpty();
+    }
+
+    @Override
+    public int size() {
+      return states.size();
+    }
+
+    @Override
+    public boolean hasViolatedProperties() {
+      return from(states.keySet()).anyMatch(IS_TARGET_STATE);
+    }
+
+    @Override
+    public Collection<Property> getViolatedProperties() {
+      return from(states.keySet())
+          .filter(IS_TARGET_STATE)
+          .filter(Targetable.class)
+          .transformAndConcat(Targetable::getViolatedProperties)
+          .toSet();
+    }
+
+    @Override
+    public String toString() {
+      return states.keySet().toString();
+    }
+  }
+
+  /** Unmodifiable view of all reached states in the order of insertion. */
+  private class ReachedStatesView extends AbstractSet<AbstractState> {
+
+    @Override
+    public Iterator<AbstractState> iterator() {
+      // skip states that are currently added or removed, such that iteration and contains agree
+      return Iterators.filter(orderedReached.values().iterator(), reached::containsKey);
+    }
+
+    @Override
+    public boolean contains(Object pObj) {
+      return reached.containsKey(pObj);
+    }
+
+    @Override
+    public int size() {
+      return reached.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return reached.isEmpty();
+    }
+  }
+}
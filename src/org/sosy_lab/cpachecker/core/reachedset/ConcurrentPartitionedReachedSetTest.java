@@ -0,0 +1,145 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+import org.sosy_lab.cpachecker.util.test.TestState;
+
+public class ConcurrentPartitionedReachedSetTest {
+
+  private static final int THREADS = 8;
+  private static final int STATES_PER_THREAD = 1000;
+
+  private static final Precision PRECISION = SingletonPrecision.getInstance();
+
+  private ConcurrentPartitionedReachedSet reached;
+
+  @Before
+  public void init() {
+    reached = new ConcurrentPartitionedReachedSet(TraversalMethod.BFS);
+  }
+
+  @Test
+  public void insertionOrder() {
+    List<TestState> states = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      TestState state = TestState.inPartition(i, i % 3);
+      states.add(state);
+      reached.add(state, PRECISION);
+    }
+    reached.remove(states.get(4));
+    states.remove(4);
+
+    assertThat(reached.asCollection()).containsExactlyElementsIn(states).inOrder();
+    assertThat(reached.getReached(states.get(0)))
+        .containsExactly(states.get(0), states.get(3), states.get(5), states.get(8))
+        .inOrder();
+    assertThat(reached.getFirstState()).isEqualTo(states.get(0));
+    assertThat(reached.getLastState()).isEqualTo(states.get(8));
+    assertThat(reached.getNumberOfPartitions()).isEqualTo(3);
+  }
+
+  @Test
+  public void snapshotIsNotChanged() {
+    TestState first = TestState.inPartition(0, 0);
+    TestState second = TestState.inPartition(1, 0);
+    reached.add(first, PRECISION);
+    reached.add(second, PRECISION);
+
+    UnmodifiableReachedSet snapshot = reached.snapshot();
+    reached.remove(first);
+    reached.add(TestState.inPartition(2, 0), PRECISION);
+
+    assertThat(snapshot.asCollection()).containsExactly(first, second).inOrder();
+    assertThat(snapshot.getReached(first)).containsExactly(first, second).inOrder();
+    assertThat(snapshot.getPrecision(first)).isSameAs(PRECISION);
+    assertThat(snapshot.getLastState()).isEqualTo(second);
+    assertThat(snapshot.hasWaitingState()).isFalse();
+  }
+
+  @Test
+  public void concurrentAddAndRemove() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<List<TestState>>> results = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        final int thread = t;
+        results.add(
+            executor.submit(
+                () -> {
+                  // every thread adds states to all partitions and removes every second one
+                  List<TestState> kept = new ArrayList<>();
+                  for (int i = 0; i < STATES_PER_THREAD; i++) {
+                    TestState state = TestState.inPartition(thread * STATES_PER_THREAD + i, i % 4);
+                    reached.add(state, PRECISION);
+                    if (i % 2 == 0) {
+                      reached.remove(state);
+                    } else {
+                      kept.add(state);
+                    }
+                  }
+                  return kept;
+                }));
+      }
+
+      List<TestState> expected = new ArrayList<>();
+      for (Future<List<TestState>> result : results) {
+        expected.addAll(result.get());
+      }
+
+      assertThat(reached.size()).isEqualTo(expected.size());
+      assertThat(reached.asCollection()).containsExactlyElementsIn(expected);
+      assertThat(reached.getWaitlist()).containsExactlyElementsIn(expected);
+      int inPartitions = 0;
+      for (int p = 0; p < 4; p++) {
+        inPartitions += reached.getReached(TestState.inPartition(-1, p)).size();
+      }
+      assertThat(inPartitions).isEqualTo(expected.size());
+
+      // the iteration order is consistent with the order of insertion in each thread
+      List<AbstractState> order = ImmutableList.copyOf(reached);
+      for (Future<List<TestState>> result : results) {
+        List<TestState> kept = result.get();
+        assertThat(order.indexOf(kept.get(0))).isLessThan(order.indexOf(kept.get(1)));
+      }
+    } finally {
+      MoreExecutors.shutdownAndAwaitTermination(executor, 10, TimeUnit.SECONDS);
+    }
+  }
+}
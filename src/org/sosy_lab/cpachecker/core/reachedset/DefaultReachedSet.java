@@ -64,6 +64,9 @@ class DefaultReachedSet implements ReachedSet, Serializable {
   private @Nullable AbstractState firstState = null;
   private final Waitlist waitlist;
 
+  /** size of the waitlist, published for other threads, cf. {@link #getWaitlistSize()} */
+  private volatile int waitlistSize = 0;
+
   DefaultReachedSet(WaitlistFactory waitlistFactory) {
     reached = new LinkedHashMap<>();
     unmodifiableReached = Collections.unmodifiableSet(reached.keySet());
@@ -84,6 +87,7 @@ class DefaultReachedSet implements ReachedSet, Serializable {
     if (previousPrecision == null) {
       // State wasn't already in the reached set.
       waitlist.add(state);
+      waitlistSize++;
       lastState = state;
 
     } else {
@@ -127,6 +131,7 @@ class DefaultReachedSet implements ReachedSet, Serializable {
 
     if (!waitlist.contains(s)) {
       waitlist.add(s);
+      waitlistSize++;
     }
   }
 
@@ -155,7 +160,9 @@ class DefaultReachedSet implements ReachedSet, Serializable {
     if (lastState != null && hc == lastState.hashCode() && state.equals(lastState)) {
       lastState = null;
     }
-    waitlist.remove(state);
+    if (waitlist.remove(state)) {
+      waitlistSize--;
+    }
     reached.remove(state);
   }
 
@@ -169,7 +176,9 @@ class DefaultReachedSet implements ReachedSet, Serializable {
   @Override
   public void removeOnlyFromWaitlist(AbstractState state) {
     checkNotNull(state);
-    waitlist.remove(state);
+    if (waitlist.remove(state)) {
+      waitlistSize--;
+    }
   }
 
   @Override
@@ -177,6 +186,7 @@ class DefaultReachedSet implements ReachedSet, Serializable {
     firstState = null;
     lastState = null;
     waitlist.clear();
+    waitlistSize = 0;
     reached.clear();
   }
 
@@ -257,9 +267,18 @@ class DefaultReachedSet implements ReachedSet, Serializable {
     };
   }
 
+  @Override
+  public int getWaitlistSize() {
+    return waitlistSize;
+  }
+
   @Override
   public AbstractState popFromWaitlist() {
-    return waitlist.pop();
+    AbstractState state = waitlist.pop();
+    if (state != null) {
+      waitlistSize--;
+    }
+    return state;
   }
 
   @Override
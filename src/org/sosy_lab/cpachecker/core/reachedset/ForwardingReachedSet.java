@@ -103,6 +103,11 @@ public class ForwardingReachedSet implements ReachedSet, StatisticsProvider {
     return delegate.getWaitlist();
   }
 
+  @Override
+  public int getWaitlistSize() {
+    return delegate.getWaitlistSize();
+  }
+
   @Override
   public Precision getPrecision(AbstractState pState)
       throws UnsupportedOperationException {
@@ -0,0 +1,160 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
+
+/**
+ * Variant of {@link LocationMappedReachedSet} that stores the states of each location in a flat
+ * array indexed by {@link CFANode#getNodeNumber()} instead of a hash-based multimap. This avoids
+ * hashing of locations for each lookup and the memory overhead of the multimap entries, which is
+ * important for large programs.
+ *
+ * <p>The states of one location are stored in a list in the order of insertion. Removing a state
+ * is linear in the number of states at its location, which is the same effort that is necessary
+ * for merge and stop anyway.
+ */
+public class LocationIndexedReachedSet extends LocationMappedReachedSet {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  /** The states of each location, indexed by the node number, null for unreached locations. */
+  @SuppressFBWarnings("SE_BAD_FIELD")
+  private @Nullable List<AbstractState>[] statesByLocation = newArray(INITIAL_CAPACITY);
+
+  /** The location for each index of {@link #statesByLocation}. */
+  private @Nullable CFANode[] locations = new CFANode[INITIAL_CAPACITY];
+
+  public LocationIndexedReachedSet(WaitlistFactory waitlistFactory) {
+    // all methods accessing the partitions are overridden
+    super(waitlistFactory, false);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<AbstractState>[] newArray(int size) {
+    return new List[size];
+  }
+
+  @Override
+  protected void addToPartition(@Nullable Object pKey, AbstractState pState) {
+    CFANode location = (CFANode) pKey;
+    int index = location.getNodeNumber();
+    if (index >= statesByLocation.length) {
+      int newCapacity = Math.max(index + 1, statesByLocation.length * 2);
+      statesByLocation = Arrays.copyOf(statesByLocation, newCapacity);
+      locations = Arrays.copyOf(locations, newCapacity);
+    }
+
+    List<AbstractState> states = statesByLocation[index];
+    if (states == null) {
+      states = new ArrayList<>(2);
+      statesByLocation[index] = states;
+      locations[index] = location;
+    }
+    states.add(pState);
+  }
+
+  @Override
+  protected void removeFromPartition(@Nullable Object pKey, AbstractState pState) {
+    List<AbstractState> states = getStates((CFANode) pKey);
+    if (states != null) {
+      states.remove(pState);
+    }
+  }
+
+  @Override
+  protected void clearPartitions() {
+    statesByLocation = newArray(INITIAL_CAPACITY);
+    locations = new CFANode[INITIAL_CAPACITY];
+  }
+
+  private @Nullable List<AbstractState> getStates(CFANode pLocation) {
+    int index = pLocation.getNodeNumber();
+    return index < statesByLocation.length ? statesByLocation[index] : null;
+  }
+
+  @Override
+  protected Collection<AbstractState> getReachedForKey(@Nullable Object pKey) {
+    List<AbstractState> states = getStates((CFANode) pKey);
+    if (states == null) {
+      return ImmutableList.of();
+    }
+    return Collections.unmodifiableList(states);
+  }
+
+  @Override
+  protected Set<?> getKeySet() {
+    ImmutableSet.Builder<CFANode> result = ImmutableSet.builder();
+    for (int i = 0; i < statesByLocation.length; i++) {
+      if (statesByLocation[i] != null && !statesByLocation[i].isEmpty()) {
+        result.add(locations[i]);
+      }
+    }
+    return result.build();
+  }
+
+  @Override
+  public int getNumberOfPartitions() {
+    int count = 0;
+    for (List<AbstractState> states : statesByLocation) {
+      if (states != null && !states.isEmpty()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public Map.Entry<Object, Collection<AbstractState>> getMaxPartition() {
+    int max = 0;
+    Map.Entry<Object, Collection<AbstractState>> maxPartition = null;
+
+    for (int i = 0; i < statesByLocation.length; i++) {
+      List<AbstractState> states = statesByLocation[i];
+      if (states != null && states.size() > max) {
+        max = states.size();
+        maxPartition =
+            Maps.<Object, Collection<AbstractState>>immutableEntry(
+                locations[i], Collections.unmodifiableCollection(states));
+      }
+    }
+    return maxPartition;
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+import org.sosy_lab.cpachecker.util.test.TestState;
+
+public class LocationIndexedReachedSetTest {
+
+  private static final Precision PRECISION = SingletonPrecision.getInstance();
+
+  private LocationIndexedReachedSet reached;
+
+  @Before
+  public void init() {
+    reached = new LocationIndexedReachedSet(TraversalMethod.BFS);
+  }
+
+  @Test
+  public void statesAreGroupedByLocation() {
+    CFANode location1 = new CFANode("main");
+    CFANode location2 = new CFANode("main");
+    TestState state1 = TestState.atLocation(location1);
+    TestState state2 = TestState.atLocation(location2);
+    TestState state3 = TestState.atLocation(location1);
+    reached.add(state1, PRECISION);
+    reached.add(state2, PRECISION);
+    reached.add(state3, PRECISION);
+
+    assertThat(reached.getReached(state1)).containsExactly(state1, state3).inOrder();
+    assertThat(reached.getReached(location2)).containsExactly(state2);
+    assertThat(reached.getLocations()).containsExactly(location1, location2);
+    assertThat(reached.getNumberOfPartitions()).isEqualTo(2);
+    assertThat(reached.getMaxPartition().getKey()).isEqualTo(location1);
+
+    reached.remove(state1);
+    assertThat(reached.getReached(state3)).containsExactly(state3);
+    reached.remove(state2);
+    assertThat(reached.getReached(location2)).isEmpty();
+    assertThat(reached.getLocations()).containsExactly(location1);
+    assertThat(reached.asCollection()).containsExactly(state3);
+
+    reached.clear();
+    assertThat(reached.getReached(location1)).isEmpty();
+    assertThat(reached.getNumberOfPartitions()).isEqualTo(0);
+  }
+
+  @Test
+  public void waitlistSizeIsTracked() {
+    CFANode location = new CFANode("main");
+    TestState state1 = TestState.atLocation(location);
+    TestState state2 = TestState.atLocation(location);
+    TestState state3 = TestState.atLocation(location);
+    reached.add(state1, PRECISION);
+    reached.add(state2, PRECISION);
+    reached.add(state3, PRECISION);
+    reached.add(state3, PRECISION);
+    assertThat(reached.getWaitlistSize()).isEqualTo(3);
+
+    assertThat(reached.popFromWaitlist()).isEqualTo(state1);
+    reached.removeOnlyFromWaitlist(state1);
+    reached.remove(state2);
+    assertThat(reached.getWaitlistSize()).isEqualTo(1);
+
+    reached.reAddToWaitlist(state1);
+    reached.reAddToWaitlist(state3);
+    assertThat(reached.getWaitlistSize()).isEqualTo(reached.getWaitlist().size());
+    assertThat(reached.getWaitlistSize()).isEqualTo(2);
+
+    reached.clear();
+    assertThat(reached.getWaitlistSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void largeNodeNumbers() {
+    // allocate enough nodes such that the array needs to grow
+    CFANode location = null;
+    for (int i = 0; i < 2000; i++) {
+      location = new CFANode("main");
+    }
+    TestState state = TestState.atLocation(location);
+    reached.add(state, PRECISION);
+
+    assertThat(reached.getReached(location)).containsExactly(state);
+    assertThat(reached.getReached(new CFANode("main"))).isEmpty();
+  }
+}
@@ -45,6 +45,12 @@ public class LocationMappedReachedSet extends PartitionedReachedSet {
     super(waitlistFactory);
   }
 
+  /** @see PartitionedReachedSet#PartitionedReachedSet(WaitlistFactory, boolean) */
+  protected LocationMappedReachedSet(
+      WaitlistFactory waitlistFactory, boolean pUseDefaultPartitionStorage) {
+    super(waitlistFactory, pUseDefaultPartitionStorage);
+  }
+
   @Override
   public Collection<AbstractState> getReached(CFANode location) {
     checkNotNull(location);
@@ -61,6 +67,6 @@ public class LocationMappedReachedSet extends PartitionedReachedSet {
   @SuppressWarnings("unchecked")
   public Set<CFANode> getLocations() {
     // generic cast is safe because we only put CFANodes into it
-    return (Set<CFANode>)super.getKeySet();
+    return (Set<CFANode>) getKeySet();
   }
 }
@@ -52,36 +52,68 @@ import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
  * for merging and coverage checks), it will return a subset of the set of all
  * reached states. This subset contains exactly those states, whose partition
  * key is equal to the key of the state given as a parameter.
+ *
+ * Sub-classes may also replace how the partitions are stored by overriding
+ * {@link #addToPartition(Object, AbstractState)} and the other methods accessing the partitions.
  */
 public class PartitionedReachedSet extends DefaultReachedSet {
 
   private static final long serialVersionUID = 1L;
 
+  /** The partitions, or null if a sub-class stores the partitions itself. */
   @SuppressFBWarnings("SE_BAD_FIELD")
-  private final Multimap<Object, AbstractState> partitionedReached = LinkedHashMultimap.create(100, 1);
+  private final @Nullable Multimap<Object, AbstractState> partitionedReached;
 
   public PartitionedReachedSet(WaitlistFactory waitlistFactory) {
+    this(waitlistFactory, true);
+  }
+
+  /**
+   * Constructor for sub-classes that override all methods accessing the partitions
+   * and thus do not need the default storage of the partitions.
+   */
+  protected PartitionedReachedSet(
+      WaitlistFactory waitlistFactory, boolean pUseDefaultPartitionStorage) {
     super(waitlistFactory);
+    partitionedReached = pUseDefaultPartitionStorage ? LinkedHashMultimap.create(100, 1) : null;
   }
 
   @Override
   public void add(AbstractState pState, Precision pPrecision) {
+    int previousSize = size();
     super.add(pState, pPrecision);
 
-    partitionedReached.put(getPartitionKey(pState), pState);
+    if (size() > previousSize) {
+      // state was not already contained
+      addToPartition(getPartitionKey(pState), pState);
+    }
   }
 
   @Override
   public void remove(AbstractState pState) {
     super.remove(pState);
 
-    partitionedReached.remove(getPartitionKey(pState), pState);
+    removeFromPartition(getPartitionKey(pState), pState);
   }
 
   @Override
   public void clear() {
     super.clear();
 
+    clearPartitions();
+  }
+
+  /** Store a state that was not yet contained in the reached set in its partition. */
+  protected void addToPartition(@Nullable Object key, AbstractState pState) {
+    partitionedReached.put(key, pState);
+  }
+
+  /** Remove a state from its partition, if it is contained there. */
+  protected void removeFromPartition(@Nullable Object key, AbstractState pState) {
+    partitionedReached.remove(key, pState);
+  }
+
+  protected void clearPartitions() {
     partitionedReached.clear();
   }
 
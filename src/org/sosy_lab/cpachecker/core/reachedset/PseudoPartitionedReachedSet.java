@@ -27,10 +27,15 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
+import java.util.AbstractCollection;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
@@ -40,6 +45,8 @@ import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.PseudoPartitionable;
 import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
+import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 
 /**
  * Special implementation of the partitioned reached set {@link PartitionedReachedSet}.
@@ -53,6 +60,10 @@ import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
  * reached states. This subset contains exactly those states,
  * where the given state might be 'lessOrEqual'.
  *
+ * Additionally, the candidates are filtered with the coverage signatures
+ * ({@link PseudoPartitionable#getCoverageSignature()}) of the states,
+ * such that states that can not cover the given state are not returned.
+ *
  * This type of reached-set might work best in combination with an analysis
  * that uses the operators merge_sep and stop_sep.
  */
@@ -70,6 +81,9 @@ public class PseudoPartitionedReachedSet extends DefaultReachedSet {
   private final HashBasedTable<Optional<Object>, Comparable<?>, SetMultimap<Object, AbstractState>>
       partitionedReached = HashBasedTable.create(1, 1);
 
+  private final StatCounter rejectedBySignature =
+      new StatCounter("Number of candidates rejected by signature");
+
   public PseudoPartitionedReachedSet(WaitlistFactory waitlistFactory) {
     super(waitlistFactory);
   }
@@ -116,7 +130,7 @@ public class PseudoPartitionedReachedSet extends DefaultReachedSet {
 
   @SuppressWarnings({"unchecked", "rawtypes"})
   @Override
-  public Set<AbstractState> getReached(AbstractState pState) {
+  public Collection<AbstractState> getReached(AbstractState pState) {
     Optional<Object> key = getPartitionKey(pState);
     Comparable pseudoKey = getPseudoPartitionKey(pState);
     Object pseudoHash = getPseudoHashCode(pState);
@@ -147,7 +161,68 @@ public class PseudoPartitionedReachedSet extends DefaultReachedSet {
       }
     }
 
-    return Collections.unmodifiableSet(states);
+    return new CandidatesView(states, getCoverageSignature(pState));
+  }
+
+  /**
+   * Unmodifiable view of the states that may cover a state with a given coverage signature.
+   * Rejections by signature are counted only during the first iteration over the view,
+   * such that repeated iterations (e.g., for merge and stop) do not inflate the statistic.
+   */
+  private final class CandidatesView extends AbstractCollection<AbstractState> {
+
+    private final Set<AbstractState> states;
+    private final long signature;
+    private boolean rejectionsCounted = false;
+
+    private CandidatesView(Set<AbstractState> pStates, long pSignature) {
+      states = pStates;
+      signature = pSignature;
+    }
+
+    private boolean mayCover(AbstractState pReachedState) {
+      return PseudoPartitionable.mayBeLessOrEqual(signature, getCoverageSignature(pReachedState));
+    }
+
+    @Override
+    public Iterator<AbstractState> iterator() {
+      if (rejectionsCounted) {
+        return Iterators.filter(states.iterator(), this::mayCover);
+      }
+      rejectionsCounted = true;
+      return Iterators.filter(
+          states.iterator(),
+          reachedState -> {
+            if (mayCover(reachedState)) {
+              return true;
+            }
+            rejectedBySignature.inc();
+            return false;
+          });
+    }
+
+    @Override
+    public boolean contains(Object pObj) {
+      return states.contains(pObj) && mayCover((AbstractState) pObj);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return !Iterators.any(states.iterator(), this::mayCover);
+    }
+
+    @Override
+    public int size() {
+      return Iterators.size(Iterators.filter(states.iterator(), this::mayCover));
+    }
+  }
+
+  @Override
+  public Map<String, ? extends AbstractStatValue> getStatistics() {
+    return ImmutableMap.<String, AbstractStatValue>builder()
+        .putAll(super.getStatistics())
+        .put(rejectedBySignature.getTitle(), rejectedBySignature)
+        .build();
   }
 
   private static Comparable<?> getPseudoPartitionKey(AbstractState pState) {
@@ -164,6 +239,10 @@ public class PseudoPartitionedReachedSet extends DefaultReachedSet {
     return ((PseudoPartitionable) pState).getPseudoHashCode();
   }
 
+  private static long getCoverageSignature(AbstractState pState) {
+    return ((PseudoPartitionable) pState).getCoverageSignature();
+  }
+
   private static Optional<Object> getPartitionKey(AbstractState pState) {
     checkNotNull(pState);
     assert pState instanceof Partitionable
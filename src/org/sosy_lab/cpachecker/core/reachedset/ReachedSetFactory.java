@@ -25,6 +25,7 @@ package org.sosy_lab.cpachecker.core.reachedset;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.collect.ImmutableList;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -39,6 +40,8 @@ import org.sosy_lab.cpachecker.core.waitlist.BranchBasedWeightedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.CallstackSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.DepthBasedWeightedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.ExplicitSortedWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.IndexedHeapWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.IndexedHeapWaitlist.Priority;
 import org.sosy_lab.cpachecker.core.waitlist.LoopIterationSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.LoopstackSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.PostorderSortedWaitlist;
@@ -53,7 +56,13 @@ import org.sosy_lab.cpachecker.cpa.usage.UsageReachedSet;
 public class ReachedSetFactory {
 
   private static enum ReachedSetType {
-    NORMAL, LOCATIONMAPPED, PARTITIONED, PSEUDOPARTITIONED, USAGE
+    NORMAL,
+    LOCATIONMAPPED,
+    LOCATIONINDEXED,
+    PARTITIONED,
+    PSEUDOPARTITIONED,
+    CONCURRENTPARTITIONED,
+    USAGE
   }
 
   @Option(
@@ -172,6 +181,18 @@ public class ReachedSetFactory {
   )
   private boolean useBlocks = false;
 
+  @Option(
+    secure = true,
+    name = "traversal.useHeap",
+    description =
+        "use a waitlist that is backed by an indexed heap, "
+            + "such that removing and re-prioritizing states is possible in O(log n). "
+            + "This supports only the traversal orders DFS and BFS "
+            + "in combination with the options useReversePostorder, usePostorder, "
+            + "useLoopstack, useReverseLoopstack, and useCallstack."
+  )
+  private boolean useHeap = false;
+
   @Option(
     secure = true,
     name = "reachedSet",
@@ -180,9 +201,13 @@ public class ReachedSetFactory {
             + "\nNORMAL: just a simple set"
             + "\nLOCATIONMAPPED: a different set per location "
             + "(faster, states with different locations cannot be merged)"
+            + "\nLOCATIONINDEXED: like LOCATIONMAPPED, but stores the states in an array "
+            + "indexed by the location's node number (faster and smaller for large programs)"
             + "\nPARTITIONED: partitioning depending on CPAs (e.g Location, Callstack etc.)"
             + "\nPSEUDOPARTITIONED: based on PARTITIONED, uses additional info about the states' lattice "
             + "(maybe faster for some special analyses which use merge_sep and stop_sep"
+            + "\nCONCURRENTPARTITIONED: like PARTITIONED, but thread-safe "
+            + "(for analyses that access the reached set from several threads)"
   )
   private ReachedSetType reachedSet = ReachedSetType.PARTITIONED;
 
@@ -201,9 +226,85 @@ public class ReachedSetFactory {
     } else {
       blockConfig = null;
     }
+
+    if (useHeap) {
+      if (traversalMethod != Waitlist.TraversalMethod.DFS
+          && traversalMethod != Waitlist.TraversalMethod.BFS) {
+        throw new InvalidConfigurationException(
+            "Option analysis.traversal.useHeap supports only the traversal orders DFS and BFS.");
+      }
+      if (useWeightedDepthOrder
+          || useWeightedBranchOrder
+          || useAutomatonInformation
+          || useLoopIterationCount
+          || useReverseLoopIterationCount
+          || useExplicitInformation
+          || byAutomatonVariable != null
+          || useNumberOfThreads
+          || useBlocks) {
+        throw new InvalidConfigurationException(
+            "Option analysis.traversal.useHeap supports only the traversal options "
+                + "useReversePostorder, usePostorder, useLoopstack, useReverseLoopstack, "
+                + "and useCallstack.");
+      }
+    }
   }
 
   public ReachedSet create() {
+    WaitlistFactory waitlistFactory =
+        useHeap ? createIndexedHeapWaitlistFactory() : createSortedWaitlistFactory();
+
+    switch (reachedSet) {
+    case PARTITIONED:
+      return new PartitionedReachedSet(waitlistFactory);
+
+    case PSEUDOPARTITIONED:
+      return new PseudoPartitionedReachedSet(waitlistFactory);
+
+    case CONCURRENTPARTITIONED:
+      return new ConcurrentPartitionedReachedSet(waitlistFactory);
+
+    case LOCATIONMAPPED:
+      return new LocationMappedReachedSet(waitlistFactory);
+
+    case LOCATIONINDEXED:
+      return new LocationIndexedReachedSet(waitlistFactory);
+
+    case USAGE:
+      return new UsageReachedSet(waitlistFactory, config, logger);
+
+    case NORMAL:
+    default:
+      return new DefaultReachedSet(waitlistFactory);
+    }
+  }
+
+  /**
+   * Create a factory for a heap-based waitlist with the same order as the waitlists created by
+   * {@link #createSortedWaitlistFactory()}: the priorities are listed in the reverse order of
+   * the nesting of the sorted waitlists, i.e., the outermost waitlist comes first.
+   */
+  private WaitlistFactory createIndexedHeapWaitlistFactory() {
+    ImmutableList.Builder<Priority> priorities = ImmutableList.builder();
+    if (useCallstack) {
+      priorities.add(Priority.CALLSTACK);
+    }
+    if (useReverseLoopstack) {
+      priorities.add(Priority.REVERSE_LOOPSTACK);
+    }
+    if (useLoopstack) {
+      priorities.add(Priority.LOOPSTACK);
+    }
+    if (usePostorder) {
+      priorities.add(Priority.POSTORDER);
+    }
+    if (useReversePostorder) {
+      priorities.add(Priority.REVERSE_POSTORDER);
+    }
+    return IndexedHeapWaitlist.factory(priorities.build(), traversalMethod);
+  }
+
+  private WaitlistFactory createSortedWaitlistFactory() {
     WaitlistFactory waitlistFactory = traversalMethod;
 
     if (useWeightedDepthOrder) {
@@ -251,23 +352,6 @@ public class ReachedSetFactory {
     if (useBlocks) {
       waitlistFactory = BlockWaitlist.factory(waitlistFactory, blockConfig, logger);
     }
-
-    switch (reachedSet) {
-    case PARTITIONED:
-      return new PartitionedReachedSet(waitlistFactory);
-
-    case PSEUDOPARTITIONED:
-      return new PseudoPartitionedReachedSet(waitlistFactory);
-
-    case LOCATIONMAPPED:
-      return new LocationMappedReachedSet(waitlistFactory);
-
-    case USAGE:
-      return new UsageReachedSet(waitlistFactory, config, logger);
-
-    case NORMAL:
-    default:
-      return new DefaultReachedSet(waitlistFactory);
-    }
+    return waitlistFactory;
   }
 }
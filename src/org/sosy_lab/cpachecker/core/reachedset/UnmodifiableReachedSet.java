@@ -100,6 +100,14 @@ public interface UnmodifiableReachedSet extends Iterable<AbstractState> {
    */
   public Collection<AbstractState> getWaitlist();
 
+  /**
+   * Returns the number of states in the waitlist, like {@code getWaitlist().size()}.
+   * In contrast to the waitlist itself, this may also be called by other threads
+   * than the one that runs the analysis (e.g., for observing its progress),
+   * but then the result may be slightly outdated.
+   */
+  public int getWaitlistSize();
+
   /**
    * Returns the precision for a state.
    * @param state The state to look for. Has to be in the reached set.
@@ -99,6 +99,11 @@ public class UnmodifiableReachedSetView
     return Collections2.transform(underlying.getWaitlist(), mapStateFunction);
   }
 
+  @Override
+  public int getWaitlistSize() {
+    return underlying.getWaitlistSize();
+  }
+
   @Override
   public boolean hasWaitingState() {
     return underlying.hasWaitingState();
@@ -88,6 +88,11 @@ public class UnmodifiableReachedSetWrapper implements UnmodifiableReachedSet {
     return Collections.unmodifiableCollection(delegate.getWaitlist());
   }
 
+  @Override
+  public int getWaitlistSize() {
+    return delegate.getWaitlistSize();
+  }
+
   @Override
   public Precision getPrecision(AbstractState pState)
       throws UnsupportedOperationException {
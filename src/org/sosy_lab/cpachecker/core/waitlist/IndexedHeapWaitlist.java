@@ -0,0 +1,312 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntFunction;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.cpa.callstack.CallstackState;
+import org.sosy_lab.cpachecker.cpa.loopbound.LoopBoundState;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+
+/**
+ * Waitlist implementation that sorts the abstract states with an indexed binary heap.
+ *
+ * The order is defined by a list of {@link Priority priorities} that are compared
+ * lexicographically (states with larger values are considered first), which is the same order
+ * as nesting the respective implementations of {@link AbstractSortedWaitlist}.
+ * States with the same priorities are handled in DFS or BFS order.
+ *
+ * In contrast to {@link AbstractSortedWaitlist}, this waitlist keeps an index from the states
+ * to their position in the heap, such that not only {@link #add(AbstractState)} and
+ * {@link #pop()}, but also {@link #contains(AbstractState)} and {@link #remove(AbstractState)}
+ * run in O(log n).
+ *
+ * The iterators created by this class are unmodifiable and do not return the states in order.
+ */
+public class IndexedHeapWaitlist implements Waitlist {
+
+  /**
+   * Enum containing the supported priorities.
+   * Each of them corresponds to one of the sorted waitlists.
+   */
+  public enum Priority implements ToIntFunction<AbstractState> {
+
+    /** see {@link ReversePostorderSortedWaitlist} */
+    REVERSE_POSTORDER {
+      @Override
+      public int applyAsInt(AbstractState pState) {
+        return AbstractStates.extractLocation(pState).getReversePostorderId();
+      }
+    },
+
+    /** see {@link PostorderSortedWaitlist} */
+    POSTORDER {
+      @Override
+      public int applyAsInt(AbstractState pState) {
+        return 0 - AbstractStates.extractLocation(pState).getReversePostorderId();
+      }
+    },
+
+    /** see {@link LoopstackSortedWaitlist#factory(WaitlistFactory)} */
+    LOOPSTACK {
+      @Override
+      public int applyAsInt(AbstractState pState) {
+        LoopBoundState loopstackState =
+            AbstractStates.extractStateByType(pState, LoopBoundState.class);
+        return (loopstackState != null) ? loopstackState.getDepth() : 0;
+      }
+    },
+
+    /** see {@link LoopstackSortedWaitlist#reversedFactory(WaitlistFactory)} */
+    REVERSE_LOOPSTACK {
+      @Override
+      public int applyAsInt(AbstractState pState) {
+        return 0 - LOOPSTACK.applyAsInt(pState);
+      }
+    },
+
+    /** see {@link CallstackSortedWaitlist} */
+    CALLSTACK {
+      @Override
+      public int applyAsInt(AbstractState pState) {
+        CallstackState callstackState =
+            AbstractStates.extractStateByType(pState, CallstackState.class);
+        return (callstackState != null) ? callstackState.getDepth() : 0;
+      }
+    },
+  }
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** One node of the heap. */
+  private static final class Node {
+
+    private final AbstractState state;
+
+    /** the values of all priorities, in the order of {@link IndexedHeapWaitlist#priorities} */
+    private final int[] key;
+
+    /** the insertion order of the states, used for tie-breaking */
+    private final long sequenceNumber;
+
+    /** the current index of this node in {@link IndexedHeapWaitlist#heap} */
+    private int position;
+
+    private Node(AbstractState pState, int[] pKey, long pSequenceNumber) {
+      state = pState;
+      key = pKey;
+      sequenceNumber = pSequenceNumber;
+    }
+
+    @Override
+    public String toString() {
+      return state + " " + Arrays.toString(key);
+    }
+  }
+
+  private final ImmutableList<Priority> priorities;
+  private final boolean preferNewerStates;
+
+  // invariant: for all i > 0, heap[i] does not have a higher priority than heap[(i - 1) / 2]
+  private Node[] heap = new Node[INITIAL_CAPACITY];
+  private int size = 0;
+
+  // invariant: index.get(s).state == s and heap[index.get(s).position] == index.get(s)
+  private final Map<AbstractState, Node> index = new HashMap<>();
+
+  private long nextSequenceNumber = 0;
+
+  private IndexedHeapWaitlist(ImmutableList<Priority> pPriorities, TraversalMethod pTraversal) {
+    checkArgument(
+        pTraversal == TraversalMethod.DFS || pTraversal == TraversalMethod.BFS,
+        "Unsupported secondary strategy %s",
+        pTraversal);
+    priorities = pPriorities;
+    preferNewerStates = (pTraversal == TraversalMethod.DFS);
+  }
+
+  private int[] computeKey(AbstractState pState) {
+    int[] key = new int[priorities.size()];
+    for (int i = 0; i < key.length; i++) {
+      key[i] = priorities.get(i).applyAsInt(pState);
+    }
+    return key;
+  }
+
+  /** Returns whether the first node should be handled before the second one. */
+  private boolean isBefore(Node pNode1, Node pNode2) {
+    for (int i = 0; i < pNode1.key.length; i++) {
+      int comp = Integer.compare(pNode1.key[i], pNode2.key[i]);
+      if (comp != 0) {
+        return comp > 0;
+      }
+    }
+    if (preferNewerStates) {
+      return pNode1.sequenceNumber > pNode2.sequenceNumber;
+    } else {
+      return pNode1.sequenceNumber < pNode2.sequenceNumber;
+    }
+  }
+
+  private void place(Node pNode, int pPosition) {
+    heap[pPosition] = pNode;
+    pNode.position = pPosition;
+  }
+
+  private void siftUp(Node pNode) {
+    int position = pNode.position;
+    while (position > 0) {
+      int parentPosition = (position - 1) / 2;
+      Node parent = heap[parentPosition];
+      if (!isBefore(pNode, parent)) {
+        break;
+      }
+      place(parent, position);
+      position = parentPosition;
+    }
+    place(pNode, position);
+  }
+
+  private void siftDown(Node pNode) {
+    int position = pNode.position;
+    while (true) {
+      int childPosition = 2 * position + 1;
+      if (childPosition >= size) {
+        break;
+      }
+      Node child = heap[childPosition];
+      if (childPosition + 1 < size && isBefore(heap[childPosition + 1], child)) {
+        childPosition++;
+        child = heap[childPosition];
+      }
+      if (!isBefore(child, pNode)) {
+        break;
+      }
+      place(child, position);
+      position = childPosition;
+    }
+    place(pNode, position);
+  }
+
+  /** Removes the node at the given position and restores the heap invariant. */
+  private void removeAt(int pPosition) {
+    size--;
+    Node last = heap[size];
+    heap[size] = null;
+    if (pPosition < size) {
+      place(last, pPosition);
+      siftDown(last);
+      siftUp(last);
+    }
+  }
+
+  @Override
+  public void add(AbstractState pState) {
+    checkNotNull(pState);
+    assert !index.containsKey(pState) : "State is already in the waitlist";
+    if (size == heap.length) {
+      heap = Arrays.copyOf(heap, 2 * heap.length);
+    }
+    Node node = new Node(pState, computeKey(pState), nextSequenceNumber++);
+    index.put(pState, node);
+    node.position = size;
+    size++;
+    siftUp(node);
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(heap, 0, size, null);
+    size = 0;
+    index.clear();
+  }
+
+  @Override
+  public boolean contains(AbstractState pState) {
+    return index.containsKey(pState);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    assert index.isEmpty() == (size == 0);
+    return size == 0;
+  }
+
+  @Override
+  public AbstractState pop() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    Node result = heap[0];
+    index.remove(result.state);
+    removeAt(0);
+    return result.state;
+  }
+
+  @Override
+  public boolean remove(AbstractState pState) {
+    Node node = index.remove(pState);
+    if (node == null) {
+      return false;
+    }
+    removeAt(node.position);
+    return true;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    return Iterators.transform(
+        Iterators.forArray(Arrays.copyOf(heap, size)), node -> node.state);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(Arrays.copyOf(heap, size));
+  }
+
+  /**
+   * Create a factory for waitlists that use the given priorities (the first one is the most
+   * important one) and the given secondary strategy (either DFS or BFS) for states
+   * with equal priorities.
+   */
+  public static WaitlistFactory factory(
+      final ImmutableList<Priority> pPriorities, final TraversalMethod pSecondaryStrategy) {
+    return () -> new IndexedHeapWaitlist(pPriorities, pSecondaryStrategy);
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.waitlist.IndexedHeapWaitlist.Priority;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+import org.sosy_lab.cpachecker.util.test.TestState;
+
+public class IndexedHeapWaitlistTest {
+
+  private static Waitlist create(TraversalMethod pTraversal, Priority... pPriorities) {
+    return IndexedHeapWaitlist.factory(ImmutableList.copyOf(pPriorities), pTraversal)
+        .createWaitlistInstance();
+  }
+
+  private static List<AbstractState> popAll(Waitlist pWaitlist) {
+    List<AbstractState> result = new ArrayList<>();
+    while (!pWaitlist.isEmpty()) {
+      result.add(pWaitlist.pop());
+    }
+    return result;
+  }
+
+  @Test
+  public void secondaryStrategy() {
+    TestState s1 = TestState.withReversePostorderId(0);
+    TestState s2 = TestState.withReversePostorderId(0);
+    TestState s3 = TestState.withReversePostorderId(0);
+
+    Waitlist dfs = create(TraversalMethod.DFS);
+    Waitlist bfs = create(TraversalMethod.BFS);
+    for (TestState state : ImmutableList.of(s1, s2, s3)) {
+      dfs.add(state);
+      bfs.add(state);
+    }
+
+    assertThat(popAll(dfs)).containsExactly(s3, s2, s1).inOrder();
+    assertThat(popAll(bfs)).containsExactly(s1, s2, s3).inOrder();
+  }
+
+  @Test
+  public void orderByPriority() {
+    Random random = new Random(0);
+    List<TestState> states = new ArrayList<>();
+    Waitlist waitlist = create(TraversalMethod.BFS, Priority.REVERSE_POSTORDER);
+    for (int i = 0; i < 100; i++) {
+      TestState state = TestState.withReversePostorderId(random.nextInt(20));
+      states.add(state);
+      waitlist.add(state);
+    }
+    assertThat(waitlist.size()).isEqualTo(100);
+
+    int previousId = Integer.MAX_VALUE;
+    for (AbstractState state : popAll(waitlist)) {
+      int id = ((TestState) state).getLocationNode().getReversePostorderId();
+      // larger values are handled first
+      assertThat(id).isAtMost(previousId);
+      previousId = id;
+    }
+  }
+
+  @Test
+  public void removeKeepsOrder() {
+    Random random = new Random(1);
+    List<TestState> states = new ArrayList<>();
+    Waitlist waitlist = create(TraversalMethod.DFS, Priority.POSTORDER);
+    for (int i = 0; i < 100; i++) {
+      TestState state = TestState.withReversePostorderId(random.nextInt(20));
+      states.add(state);
+      waitlist.add(state);
+    }
+
+    List<TestState> removed = new ArrayList<>();
+    for (int i = 0; i < states.size(); i += 3) {
+      assertThat(waitlist.remove(states.get(i))).isTrue();
+      removed.add(states.get(i));
+    }
+    assertThat(waitlist.remove(removed.get(0))).isFalse();
+    assertThat(waitlist.contains(removed.get(1))).isFalse();
+    assertThat(waitlist.contains(states.get(1))).isTrue();
+    assertThat(waitlist.size()).isEqualTo(states.size() - removed.size());
+
+    List<AbstractState> popped = popAll(waitlist);
+    assertThat(popped).containsNoneIn(removed);
+    assertThat(popped).hasSize(states.size() - removed.size());
+    int previousId = Integer.MIN_VALUE;
+    for (AbstractState state : popped) {
+      int id = ((TestState) state).getLocationNode().getReversePostorderId();
+      // POSTORDER handles smaller reverse-postorder ids first
+      assertThat(id).isAtLeast(previousId);
+      previousId = id;
+    }
+  }
+}
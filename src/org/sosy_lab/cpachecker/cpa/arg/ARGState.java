@@ -29,11 +29,16 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.FluentIterable.from;
 import static org.sosy_lab.cpachecker.util.AbstractStates.extractStateByType;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Sets;
 import com.google.common.graph.Traverser;
+import java.io.Serializable;
+import java.util.AbstractCollection;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
@@ -54,17 +59,18 @@ import org.sosy_lab.cpachecker.util.AbstractStates;
 public class ARGState extends AbstractSingleWrapperState
     implements Comparable<ARGState>, Graphable, Splitable{
 
-  private static final long serialVersionUID = 2608287648397165040L;
+  private static final long serialVersionUID = 7285364527843911063L;
 
+  // There are millions of ARG states in large analyses, but most of them have exactly one parent
+  // and few children. Thus we do not use a collection object for them,
+  // but store either null (no state), a single ARGState, or an ArrayList<ARGState> with at least
+  // two elements (see the static helper methods below).
   // We use a List here although we would like to have a Set
   // because ArrayList is much more memory efficient than e.g. LinkedHashSet.
   // Also these collections are small and so a slow contains() method won't hurt.
   // To enforce set semantics, do not add elements except through addparent()!
-  private final Collection<ARGState> children = new ArrayList<>(1);
-  private final Collection<ARGState> parents = new ArrayList<>(1);
-
-  private ARGState mCoveredBy = null;
-  private Set<ARGState> mCoveredByThis = null; // lazy initialization because rarely needed
+  private @Nullable Object children = null;
+  private @Nullable Object parents = null;
 
   // boolean which keeps track of which elements have already had their successors computed
   private boolean wasExpanded = false;
@@ -72,12 +78,23 @@ public class ARGState extends AbstractSingleWrapperState
   private boolean destroyed = false;
   private boolean hasCoveredParent = false;
 
-  private ARGState mergedWith = null;
-
   private final int stateId;
 
-  // If this is a target state, we may store additional information here.
-  private transient CounterexampleInfo counterexample;
+  /** Fields that are only needed for few states, allocated lazily to save memory. */
+  private static final class ExtraInfo implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private @Nullable ARGState coveredBy = null;
+    private @Nullable Set<ARGState> coveredByThis = null; // lazy initialization
+
+    private @Nullable ARGState mergedWith = null;
+
+    // If this is a target state, we may store additional information here.
+    private transient @Nullable CounterexampleInfo counterexample = null;
+  }
+
+  private @Nullable ExtraInfo extra = null;
 
   private static final UniqueIdGenerator idGenerator = new UniqueIdGenerator();
 
@@ -89,6 +106,117 @@ public class ARGState extends AbstractSingleWrapperState
     }
   }
 
+  private ExtraInfo getOrCreateExtra() {
+    if (extra == null) {
+      extra = new ExtraInfo();
+    }
+    return extra;
+  }
+
+  private @Nullable ARGState coveredBy() {
+    return extra == null ? null : extra.coveredBy;
+  }
+
+  private @Nullable Set<ARGState> coveredByThis() {
+    return extra == null ? null : extra.coveredByThis;
+  }
+
+  // compact sets of states (null, a single ARGState, or an ArrayList<ARGState>)
+
+  @SuppressWarnings("unchecked")
+  private static List<ARGState> castToList(Object pStates) {
+    return (List<ARGState>) pStates;
+  }
+
+  private static int sizeOf(@Nullable Object pStates) {
+    if (pStates == null) {
+      return 0;
+    } else if (pStates instanceof ARGState) {
+      return 1;
+    } else {
+      return castToList(pStates).size();
+    }
+  }
+
+  private static boolean contains(@Nullable Object pStates, ARGState pState) {
+    if (pStates == null || pStates instanceof ARGState) {
+      return pStates == pState;
+    }
+    return castToList(pStates).contains(pState);
+  }
+
+  /** Returns the given states with the new state appended (which must not be contained). */
+  private static Object with(@Nullable Object pStates, ARGState pState) {
+    if (pStates == null) {
+      return pState;
+    } else if (pStates instanceof ARGState) {
+      List<ARGState> states = new ArrayList<>(2);
+      states.add((ARGState) pStates);
+      states.add(pState);
+      return states;
+    } else {
+      castToList(pStates).add(pState);
+      return pStates;
+    }
+  }
+
+  /** Returns the given states without the given state. */
+  private static @Nullable Object without(@Nullable Object pStates, ARGState pState) {
+    if (pStates == null || pStates instanceof ARGState) {
+      return pStates == pState ? null : pStates;
+    }
+    List<ARGState> states = castToList(pStates);
+    states.remove(pState);
+    return states.size() == 1 ? states.get(0) : states;
+  }
+
+  /** Returns the given states as list, which must not be modified. */
+  private static List<ARGState> asList(@Nullable Object pStates) {
+    if (pStates == null) {
+      return ImmutableList.of();
+    } else if (pStates instanceof ARGState) {
+      return ImmutableList.of((ARGState) pStates);
+    } else {
+      return castToList(pStates);
+    }
+  }
+
+  /**
+   * An unmodifiable view on the parents or children of a state.
+   * Like for the iterators of an ArrayList, the state must not be changed while iterating.
+   */
+  private abstract static class StatesView extends AbstractCollection<ARGState> {
+
+    abstract @Nullable Object states();
+
+    @Override
+    public Iterator<ARGState> iterator() {
+      Object states = states();
+      if (states == null) {
+        return Collections.emptyIterator();
+      } else if (states instanceof ARGState) {
+        return Iterators.singletonIterator((ARGState) states);
+      } else {
+        return Iterators.unmodifiableIterator(castToList(states).iterator());
+      }
+    }
+
+    @Override
+    public int size() {
+      return sizeOf(states());
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return states() == null;
+    }
+
+    @Override
+    public boolean contains(Object pObj) {
+      return pObj instanceof ARGState && ARGState.contains(states(), (ARGState) pObj);
+    }
+  }
+
   // parent & child relations
 
   /**
@@ -96,7 +224,12 @@ public class ARGState extends AbstractSingleWrapperState
    * @return A unmodifiable collection of ARGStates without duplicates.
    */
   public Collection<ARGState> getParents() {
-    return Collections.unmodifiableCollection(parents);
+    return new StatesView() {
+      @Override
+      @Nullable Object states() {
+        return parents;
+      }
+    };
   }
 
   public void addParent(ARGState pOtherParent) {
@@ -104,12 +237,12 @@ public class ARGState extends AbstractSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // Manually enforce set semantics.
-    if (!parents.contains(pOtherParent)) {
-      assert !pOtherParent.children.contains(this);
-      parents.add(pOtherParent);
-      pOtherParent.children.add(this);
+    if (!contains(parents, pOtherParent)) {
+      assert !contains(pOtherParent.children, this);
+      parents = with(parents, pOtherParent);
+      pOtherParent.children = with(pOtherParent.children, this);
     } else {
-      assert pOtherParent.children.contains(this);
+      assert contains(pOtherParent.children, this);
     }
   }
 
@@ -119,7 +252,12 @@ public class ARGState extends AbstractSingleWrapperState
    */
   public Collection<ARGState> getChildren() {
     assert !destroyed : "Don't use destroyed ARGState " + this;
-    return Collections.unmodifiableCollection(children);
+    return new StatesView() {
+      @Override
+      @Nullable Object states() {
+        return children;
+      }
+    };
   }
 
   /**
@@ -224,38 +362,41 @@ public class ARGState extends AbstractSingleWrapperState
     checkNotNull(pCoveredBy);
     checkArgument(pCoveredBy.mayCover, "Trying to cover with non-covering element %s", pCoveredBy);
 
-    mCoveredBy = pCoveredBy;
-    if (pCoveredBy.mCoveredByThis == null) {
+    getOrCreateExtra().coveredBy = pCoveredBy;
+    ExtraInfo coveringExtra = pCoveredBy.getOrCreateExtra();
+    if (coveringExtra.coveredByThis == null) {
       // lazy initialization because rarely needed
-      pCoveredBy.mCoveredByThis = new LinkedHashSet<>(2);
+      coveringExtra.coveredByThis = new LinkedHashSet<>(2);
     }
-    pCoveredBy.mCoveredByThis.add(this);
+    coveringExtra.coveredByThis.add(this);
   }
 
   public void uncover() {
     assert isCovered();
-    assert mCoveredBy.mCoveredByThis.contains(this);
+    ARGState coveringState = extra.coveredBy;
+    assert coveringState.coveredByThis().contains(this);
 
-    mCoveredBy.mCoveredByThis.remove(this);
-    mCoveredBy = null;
+    coveringState.extra.coveredByThis.remove(this);
+    extra.coveredBy = null;
   }
 
   public boolean isCovered() {
     assert !destroyed : "Don't use destroyed ARGState " + this;
-    return mCoveredBy != null;
+    return coveredBy() != null;
   }
 
   public ARGState getCoveringState() {
     checkState(isCovered());
-    return mCoveredBy;
+    return extra.coveredBy;
   }
 
   public Set<ARGState> getCoveredByThis() {
     assert !destroyed : "Don't use destroyed ARGState " + this;
-    if (mCoveredByThis == null) {
+    Set<ARGState> covered = coveredByThis();
+    if (covered == null) {
       return Collections.emptySet();
     } else {
-      return Collections.unmodifiableSet(mCoveredByThis);
+      return Collections.unmodifiableSet(covered);
     }
   }
 
@@ -277,13 +418,13 @@ public class ARGState extends AbstractSingleWrapperState
 
   void setMergedWith(ARGState pMergedWith) {
     assert !destroyed : "Don't use destroyed ARGState " + this;
-    assert mergedWith == null : "Second merging of element " + this;
+    assert getMergedWith() == null : "Second merging of element " + this;
 
-    mergedWith = pMergedWith;
+    getOrCreateExtra().mergedWith = pMergedWith;
   }
 
   public ARGState getMergedWith() {
-    return mergedWith;
+    return extra == null ? null : extra.mergedWith;
   }
 
   // was-expanded marker so we can identify open leafs
@@ -297,10 +438,10 @@ public class ARGState extends AbstractSingleWrapperState
   }
 
   void deleteChild(ARGState child) {
-    assert (children.contains(child));
-    assert (child.parents.contains(this));
-    children.remove(child);
-    child.parents.remove(this);
+    assert contains(children, child);
+    assert contains(child.parents, this);
+    children = without(children, child);
+    child.parents = without(child.parents, this);
   }
 
   // counterexample
@@ -309,20 +450,20 @@ public class ARGState extends AbstractSingleWrapperState
    * Store additional information about the counterexample that leads to this target state.
    */
   public void addCounterexampleInformation(CounterexampleInfo pCounterexample) {
-    checkState(counterexample == null);
+    checkState(extra == null || extra.counterexample == null);
     checkArgument(isTarget());
     checkArgument(!pCounterexample.isSpurious());
     // With BAM, the targetState and the last state of the path
     // may actually be not identical.
     checkArgument(pCounterexample.getTargetState().isTarget());
-    counterexample = pCounterexample;
+    getOrCreateExtra().counterexample = pCounterexample;
   }
 
   public void replaceCounterexampleInformation(CounterexampleInfo pCounterexample) {
     checkArgument(isTarget());
     checkArgument(!pCounterexample.isSpurious());
     checkArgument(pCounterexample.getTargetState().isTarget());
-    counterexample = pCounterexample;
+    getOrCreateExtra().counterexample = pCounterexample;
   }
 
   /**
@@ -331,7 +472,7 @@ public class ARGState extends AbstractSingleWrapperState
    */
   public Optional<CounterexampleInfo> getCounterexampleInformation() {
     checkState(isTarget());
-    return Optional.ofNullable(counterexample);
+    return Optional.ofNullable(extra == null ? null : extra.counterexample);
   }
 
   // small and less important stuff
@@ -381,20 +522,20 @@ public class ARGState extends AbstractSingleWrapperState
     if (destroyed) {
       sb.append("Destroyed ");
     }
-    if (mCoveredBy != null) {
+    if (coveredBy() != null) {
       sb.append("Covered ");
     }
     sb.append("ARG State (Id: ");
     sb.append(stateId);
     if (!destroyed) {
       sb.append(", Parents: ");
-      sb.append(stateIdsOf(parents));
+      sb.append(stateIdsOf(asList(parents)));
       sb.append(", Children: ");
-      sb.append(stateIdsOf(children));
+      sb.append(stateIdsOf(asList(children)));
 
-      if (mCoveredBy != null) {
+      if (coveredBy() != null) {
         sb.append(", Covered by: ");
-        sb.append(mCoveredBy.stateId);
+        sb.append(coveredBy().stateId);
       } else {
         sb.append(", Covering: ");
         sb.append(stateIdsOf(getCoveredByThis()));
@@ -452,18 +593,16 @@ public class ARGState extends AbstractSingleWrapperState
    */
   private void clearCoverageRelation() {
     if (isCovered()) {
-      assert mCoveredBy.mCoveredByThis.contains(this);
-
-      mCoveredBy.mCoveredByThis.remove(this);
-      mCoveredBy = null;
+      uncover();
     }
 
-    if (mCoveredByThis != null) {
-      for (ARGState covered : mCoveredByThis) {
-        covered.mCoveredBy = null;
+    Set<ARGState> covered = coveredByThis();
+    if (covered != null) {
+      for (ARGState coveredState : covered) {
+        coveredState.extra.coveredBy = null;
       }
-      mCoveredByThis.clear();
-      mCoveredByThis = null;
+      covered.clear();
+      extra.coveredByThis = null;
     }
   }
 
@@ -475,18 +614,18 @@ public class ARGState extends AbstractSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // clear children
-    for (ARGState child : children) {
-      assert (child.parents.contains(this));
-      child.parents.remove(this);
+    for (ARGState child : asList(children)) {
+      assert contains(child.parents, this);
+      child.parents = without(child.parents, this);
     }
-    children.clear();
+    children = null;
 
     // clear parents
-    for (ARGState parent : parents) {
-      assert (parent.children.contains(this));
-      parent.children.remove(this);
+    for (ARGState parent : asList(parents)) {
+      assert contains(parent.children, this);
+      parent.children = without(parent.children, this);
     }
-    parents.clear();
+    parents = null;
   }
 
   /**
@@ -506,34 +645,36 @@ public class ARGState extends AbstractSingleWrapperState
     assert !(this==replacement) : "Don't replace ARGState " + this + " with itself";
 
     // copy children
-    for (ARGState child : children) {
-      assert (child.parents.contains(this)) : "Inconsistent ARG at " + this;
-      child.parents.remove(this);
+    for (ARGState child : asList(children)) {
+      assert contains(child.parents, this) : "Inconsistent ARG at " + this;
+      child.parents = without(child.parents, this);
       child.addParent(replacement);
     }
-    children.clear();
+    children = null;
 
-    for (ARGState parent : parents) {
-      assert (parent.children.contains(this)) : "Inconsistent ARG at " + this;
-      parent.children.remove(this);
+    for (ARGState parent : asList(parents)) {
+      assert contains(parent.children, this) : "Inconsistent ARG at " + this;
+      parent.children = without(parent.children, this);
       replacement.addParent(parent);
     }
-    parents.clear();
+    parents = null;
 
-    if (mCoveredByThis != null) {
-      if (replacement.mCoveredByThis == null) {
+    Set<ARGState> covered = coveredByThis();
+    if (covered != null) {
+      ExtraInfo replacementExtra = replacement.getOrCreateExtra();
+      if (replacementExtra.coveredByThis == null) {
         // lazy initialization because rarely needed
-        replacement.mCoveredByThis = Sets.newHashSetWithExpectedSize(mCoveredByThis.size());
+        replacementExtra.coveredByThis = Sets.newHashSetWithExpectedSize(covered.size());
       }
 
-      for (ARGState covered : mCoveredByThis) {
-        assert covered.mCoveredBy == this : "Inconsistent coverage relation at " + this;
-        covered.mCoveredBy = replacement;
-        replacement.mCoveredByThis.add(covered);
+      for (ARGState coveredState : covered) {
+        assert coveredState.extra.coveredBy == this : "Inconsistent coverage relation at " + this;
+        coveredState.extra.coveredBy = replacement;
+        replacementExtra.coveredByThis.add(coveredState);
       }
 
-      mCoveredByThis.clear();
-      mCoveredByThis = null;
+      covered.clear();
+      extra.coveredByThis = null;
     }
 
     destroyed = true;
@@ -570,7 +711,7 @@ public class ARGState extends AbstractSingleWrapperState
 
     checkState(this.stateId != pTemplateState.stateId);
     checkState(pTemplateState.destroyed != true);
-    checkState(pTemplateState.counterexample == null);
+    checkState(pTemplateState.extra == null || pTemplateState.extra.counterexample == null);
 
     this.wasExpanded = pTemplateState.wasExpanded;
     this.mayCover = pTemplateState.mayCover;
@@ -583,12 +724,12 @@ public class ARGState extends AbstractSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // Manually enforce set semantics.
-    if (parents.contains(pOtherParent)) {
-      assert pOtherParent.children.contains(this);
-      parents.remove(pOtherParent);
-      pOtherParent.children.remove(this);
+    if (contains(parents, pOtherParent)) {
+      assert contains(pOtherParent.children, this);
+      parents = without(parents, pOtherParent);
+      pOtherParent.children = without(pOtherParent.children, this);
     } else {
-      assert !pOtherParent.children.contains(this) : "Problem detected!";
+      assert !contains(pOtherParent.children, this) : "Problem detected!";
     }
   }
 }
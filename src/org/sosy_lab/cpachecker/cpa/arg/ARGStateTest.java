@@ -0,0 +1,202 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+
+public class ARGStateTest {
+
+  private static final int MANY = 1000;
+
+  @Test
+  public void chain() {
+    ARGState root = new ARGState(null, null);
+    ARGState child = new ARGState(null, root);
+    ARGState grandChild = new ARGState(null, child);
+
+    assertThat(root.getParents()).isEmpty();
+    assertThat(root.getChildren()).containsExactly(child);
+    assertThat(child.getParents()).containsExactly(root);
+    assertThat(child.getChildren()).containsExactly(grandChild);
+    assertThat(grandChild.getParents()).containsExactly(child);
+    assertThat(grandChild.getChildren()).isEmpty();
+  }
+
+  @Test
+  public void addParentTwice() {
+    ARGState parent = new ARGState(null, null);
+    ARGState child = new ARGState(null, parent);
+    child.addParent(parent);
+
+    assertThat(child.getParents()).hasSize(1);
+    assertThat(parent.getChildren()).hasSize(1);
+  }
+
+  @Test
+  public void manyChildren() {
+    ARGState parent = new ARGState(null, null);
+    List<ARGState> children = new ArrayList<>();
+    for (int i = 0; i < MANY; i++) {
+      children.add(new ARGState(null, parent));
+    }
+    assertThat(parent.getChildren()).containsExactlyElementsIn(children).inOrder();
+
+    // remove all but one child, the remaining child is still found
+    for (int i = 1; i < MANY; i++) {
+      children.get(i).removeFromARG();
+    }
+    assertThat(parent.getChildren()).containsExactly(children.get(0));
+    assertThat(children.get(0).getParents()).containsExactly(parent);
+
+    children.get(0).removeFromARG();
+    assertThat(parent.getChildren()).isEmpty();
+  }
+
+  @Test
+  public void manyParents() {
+    List<ARGState> parents = new ArrayList<>();
+    ARGState child = new ARGState(null, null);
+    for (int i = 0; i < MANY; i++) {
+      ARGState parent = new ARGState(null, null);
+      parents.add(parent);
+      child.addParent(parent);
+    }
+    assertThat(child.getParents()).containsExactlyElementsIn(parents).inOrder();
+    for (ARGState parent : parents) {
+      assertThat(parent.getChildren()).containsExactly(child);
+    }
+
+    child.removeParent(parents.get(0));
+    assertThat(child.getParents()).doesNotContain(parents.get(0));
+    assertThat(child.getParents()).hasSize(MANY - 1);
+    assertThat(parents.get(0).getChildren()).isEmpty();
+  }
+
+  @Test
+  public void viewsReflectChanges() {
+    ARGState parent = new ARGState(null, null);
+    Collection<ARGState> children = parent.getChildren();
+    assertThat(children).isEmpty();
+
+    ARGState first = new ARGState(null, parent);
+    assertThat(children).containsExactly(first);
+    ARGState second = new ARGState(null, parent);
+    assertThat(children).containsExactly(first, second).inOrder();
+    assertThat(children.contains(second)).isTrue();
+
+    second.removeFromARG();
+    assertThat(children).containsExactly(first);
+    assertThat(children.contains(second)).isFalse();
+  }
+
+  @Test
+  public void removeFromARGClearsCoverage() {
+    ARGState root = new ARGState(null, null);
+    ARGState covering = new ARGState(null, root);
+    ARGState covered1 = new ARGState(null, root);
+    ARGState covered2 = new ARGState(null, root);
+    covered1.setCovered(covering);
+    covered2.setCovered(covering);
+
+    Set<ARGState> coveredByThis = covering.getCoveredByThis();
+    assertThat(coveredByThis).containsExactly(covered1, covered2).inOrder();
+    assertThat(covered1.getCoveringState()).isSameAs(covering);
+
+    covering.removeFromARG();
+    assertThat(covering.isDestroyed()).isTrue();
+    assertThat(covered1.isCovered()).isFalse();
+    assertThat(covered2.isCovered()).isFalse();
+    assertThat(coveredByThis).isEmpty();
+    assertThat(root.getChildren()).containsExactly(covered1, covered2).inOrder();
+  }
+
+  @Test
+  public void removeCoveredState() {
+    ARGState root = new ARGState(null, null);
+    ARGState covering = new ARGState(null, root);
+    ARGState covered = new ARGState(null, root);
+    covered.setCovered(covering);
+
+    covered.removeFromARG();
+    assertThat(covering.getCoveredByThis()).isEmpty();
+    assertThat(root.getChildren()).containsExactly(covering);
+  }
+
+  @Test
+  public void uncover() {
+    ARGState covering = new ARGState(null, null);
+    ARGState covered = new ARGState(null, null);
+    covered.setCovered(covering);
+    assertThat(covered.mayCover()).isFalse();
+
+    covered.uncover();
+    assertThat(covered.isCovered()).isFalse();
+    assertThat(covering.getCoveredByThis()).isEmpty();
+  }
+
+  @Test
+  public void replaceInARGWith() {
+    ARGState parent1 = new ARGState(null, null);
+    ARGState parent2 = new ARGState(null, null);
+    ARGState state = new ARGState(null, parent1);
+    state.addParent(parent2);
+    ARGState child1 = new ARGState(null, state);
+    ARGState child2 = new ARGState(null, state);
+    ARGState covered = new ARGState(null, null);
+    covered.setCovered(state);
+    Set<ARGState> coveredByState = state.getCoveredByThis();
+
+    ARGState replacement = new ARGState(null, null);
+    state.replaceInARGWith(replacement);
+
+    assertThat(state.isDestroyed()).isTrue();
+    assertThat(replacement.getParents()).containsExactly(parent1, parent2).inOrder();
+    assertThat(replacement.getChildren()).containsExactly(child1, child2).inOrder();
+    assertThat(parent1.getChildren()).containsExactly(replacement);
+    assertThat(parent2.getChildren()).containsExactly(replacement);
+    assertThat(child1.getParents()).containsExactly(replacement);
+    assertThat(child2.getParents()).containsExactly(replacement);
+
+    assertThat(covered.getCoveringState()).isSameAs(replacement);
+    assertThat(replacement.getCoveredByThis()).containsExactly(covered);
+    assertThat(coveredByState).isEmpty();
+  }
+
+  @Test
+  public void mergedWith() {
+    ARGState state = new ARGState(null, null);
+    ARGState mergedState = new ARGState(null, null);
+    assertThat(state.getMergedWith()).isNull();
+
+    state.setMergedWith(mergedState);
+    assertThat(state.getMergedWith()).isSameAs(mergedState);
+    assertThat(state.isCovered()).isFalse();
+  }
+}
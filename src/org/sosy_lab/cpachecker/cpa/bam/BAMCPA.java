@@ -25,9 +25,12 @@ package org.sosy_lab.cpachecker.cpa.bam;
 
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
+import java.nio.file.Path;
 import java.util.Collection;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -48,6 +51,7 @@ import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheAggressiveImpl;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheImpl;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCachePersistent;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManager;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManagerImpl;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
@@ -77,6 +81,19 @@ public class BAMCPA extends AbstractBAMCPA implements StatisticsProvider, ProofC
   )
   private boolean aggressiveCaching = true;
 
+  @Option(
+    secure = true,
+    name = "persistentCache.directory",
+    description =
+        "Directory in which summaries of blocks are stored, such that later runs "
+            + "with the same configuration on the same program can reuse them. "
+            + "Summaries are only stored if all abstract states and precisions "
+            + "of the analysis can be serialized."
+  )
+  // read and written, and independent of the output directory
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private @Nullable Path persistentCacheDirectory = null;
+
   public BAMCPA(
       ConfigurableProgramAnalysis pCpa,
       Configuration config,
@@ -95,12 +112,23 @@ public class BAMCPA extends AbstractBAMCPA implements StatisticsProvider, ProofC
       this.wrappedProofChecker = null;
     }
 
-    final BAMCache cache;
+    BAMCache cache;
     if (aggressiveCaching) {
       cache = new BAMCacheAggressiveImpl(config, getReducer(), logger);
     } else {
       cache = new BAMCacheImpl(config, getReducer(), logger);
     }
+    if (persistentCacheDirectory != null) {
+      cache =
+          new BAMCachePersistent(
+              config,
+              cache,
+              persistentCacheDirectory,
+              blockPartitioning,
+              pReachedSetFactory,
+              pCfa,
+              logger);
+    }
     data = new BAMDataManagerImpl(cache, pReachedSetFactory, pLogger);
 
     bamPccManager = new BAMPCCManager(
@@ -102,6 +102,11 @@ final class BAMReachedSetView implements UnmodifiableReachedSet {
     return Collections.emptySet();
   }
 
+  @Override
+  public int getWaitlistSize() {
+    return 0;
+  }
+
   @Override
   public Precision getPrecision(AbstractState state) {
     return checkNotNull(precisionGetter.apply(state));
@@ -76,8 +76,9 @@ public interface BAMCache extends Statistics {
 
   public class BAMCacheEntry {
     private final ReachedSet rs;
-    private Collection<AbstractState> exitStates;
-    private ARGState rootOfBlock;
+    // volatile, such that completed entries can be read without locking in parallel BAM
+    private volatile Collection<AbstractState> exitStates;
+    private volatile ARGState rootOfBlock;
 
     protected BAMCacheEntry(ReachedSet pRs) {
       rs = Preconditions.checkNotNull(pRs);
@@ -0,0 +1,258 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
+
+import com.google.common.collect.Collections2;
+import com.google.common.util.concurrent.Striped;
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Reducer;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatHist;
+
+/**
+ * A thread-safe implementation of {@link BAMCache} without a global lock.
+ *
+ * <p>Entries are stored in a {@link ConcurrentHashMap}, such that lookups (which are much more
+ * frequent than insertions) never block. The creation of a new entry for a block entry is guarded
+ * by one of several locks that are selected by the hash of the key, such that no two threads create
+ * a reached-set for the same block entry, but threads for different block entries rarely wait for
+ * each other.
+ *
+ * <p>In contrast to {@link BAMCacheImpl}, this cache does not support aggressive caching and does
+ * not gather statistics about the causes of cache misses.
+ */
+public class BAMCacheConcurrent implements BAMCache {
+
+  private static final int LOCK_STRIPES = 64;
+
+  private final Reducer reducer;
+
+  private final ConcurrentMap<CacheKey, BAMCacheEntry> preciseReachedCache =
+      new ConcurrentHashMap<>();
+
+  private final Striped<Lock> creationLocks = Striped.lock(LOCK_STRIPES);
+
+  /** deprecated, only kept for the interface, not deterministic with several threads */
+  private volatile @Nullable BAMCacheEntry lastAnalyzedEntry = null;
+
+  private final StatCounter cacheMisses = new StatCounter("Number of cache misses");
+  private final StatCounter partialCacheHits = new StatCounter("Number of partial cache hits");
+  private final StatCounter fullCacheHits = new StatCounter("Number of full cache hits");
+  private final StatCounter lockAcquisitions = new StatCounter("Number of entry creations");
+  private final StatCounter contendedLocks = new StatCounter("Number of contended locks");
+  private final LongAdder lockWaitingNanos = new LongAdder();
+
+  public BAMCacheConcurrent(Reducer pReducer) {
+    reducer = pReducer;
+  }
+
+  /** Key of the cache, the hash code is computed only once, outside of the map. */
+  private final class CacheKey {
+
+    private final Object wrappedHash;
+    private final Block context;
+    private final int hashCode;
+
+    private CacheKey(AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+      wrappedHash = reducer.getHashCodeForState(pStateKey, pPrecisionKey);
+      context = checkNotNull(pContext);
+      hashCode = wrappedHash.hashCode() * 17 + context.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (pObj == this) {
+        return true;
+      }
+      if (!(pObj instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey other = (CacheKey) pObj;
+      return hashCode == other.hashCode
+          && context.equals(other.context)
+          && wrappedHash.equals(other.wrappedHash);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public String toString() {
+      return "CacheKey [hash=" + hashCode + ", wrappedHash=" + wrappedHash + ", context="
+          + context + "]";
+    }
+  }
+
+  @Override
+  public BAMCacheEntry put(
+      AbstractState pStateKey, Precision pPrecisionKey, Block pContext, ReachedSet pItem) {
+    BAMCacheEntry entry = new BAMCacheEntry(pItem);
+    preciseReachedCache.put(new CacheKey(pStateKey, pPrecisionKey, pContext), entry);
+    return entry;
+  }
+
+  /**
+   * Return the entry for the given key, or create a new entry with a reached-set from the given
+   * supplier if there is none. No two threads create an entry for the same key.
+   */
+  BAMCacheEntry getOrCreate(
+      AbstractState pStateKey,
+      Precision pPrecisionKey,
+      Block pContext,
+      Supplier<ReachedSet> pReachedSetSupplier) {
+    CacheKey key = new CacheKey(pStateKey, pPrecisionKey, pContext);
+    BAMCacheEntry entry = preciseReachedCache.get(key);
+    if (entry != null) {
+      return entry;
+    }
+
+    Lock lock = creationLocks.get(key);
+    lockAcquisitions.inc();
+    if (!lock.tryLock()) {
+      contendedLocks.inc();
+      long start = System.nanoTime();
+      lock.lock();
+      lockWaitingNanos.add(System.nanoTime() - start);
+    }
+    try {
+      // check again, another thread might have created the entry in the meantime
+      entry = preciseReachedCache.get(key);
+      if (entry == null) {
+        entry = new BAMCacheEntry(pReachedSetSupplier.get());
+        preciseReachedCache.put(key, entry);
+      }
+      return entry;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public BAMCacheEntry get(AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+    BAMCacheEntry entry =
+        preciseReachedCache.get(new CacheKey(pStateKey, pPrecisionKey, pContext));
+    if (entry == null) {
+      cacheMisses.inc();
+    } else {
+      lastAnalyzedEntry = entry;
+      if (entry.getExitStates() == null) {
+        partialCacheHits.inc();
+      } else {
+        fullCacheHits.inc();
+      }
+    }
+    return entry;
+  }
+
+  @Override
+  @Deprecated
+  public ARGState getLastAnalyzedBlock() {
+    return lastAnalyzedEntry.getRootOfBlock();
+  }
+
+  @Override
+  public boolean containsPreciseKey(
+      AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+    return preciseReachedCache.containsKey(new CacheKey(pStateKey, pPrecisionKey, pContext));
+  }
+
+  @Override
+  public Collection<ReachedSet> getAllCachedReachedStates() {
+    return Collections2.transform(preciseReachedCache.values(), BAMCacheEntry::getReachedSet);
+  }
+
+  @Override
+  public void clear() {
+    preciseReachedCache.clear();
+    lastAnalyzedEntry = null;
+  }
+
+  @Override
+  public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
+    long misses = cacheMisses.getValue();
+    long partialHits = partialCacheHits.getValue();
+    long fullHits = fullCacheHits.getValue();
+    long sumCalls = misses + partialHits + fullHits;
+
+    StatHist argStats = new StatHist("") {
+          @Override
+          public String toString() {
+            // overriding, because printing all sizes is not that interesting
+            return String.format("%.0f (#=%d, avg=%.2f, dev=%.2f, min=%d, max=%d)",
+                getSum(), getUpdateCount(), getAvg(), getStdDeviation(), getMin(), getMax());
+          }
+        };
+    for (UnmodifiableReachedSet subreached : getAllCachedReachedStates()) {
+      argStats.insertValue(subreached.size());
+    }
+
+    long creations = lockAcquisitions.getValue();
+    long contended = contendedLocks.getValue();
+    TimeSpan waiting = TimeSpan.ofNanos(lockWaitingNanos.sum());
+
+    out.println("Total size of all ARGs:                              " + argStats);
+    out.println("Total number of recursive CPA calls:                 " + sumCalls);
+    out.println("  Number of cache misses:                            " + misses + " (" + toPercent(misses, sumCalls) + " of all calls)");
+    out.println("  Number of partial cache hits:                      " + partialHits + " (" + toPercent(partialHits, sumCalls) + " of all calls)");
+    out.println("  Number of full cache hits:                         " + fullHits + " (" + toPercent(fullHits, sumCalls) + " of all calls)");
+    out.println("Number of locked entry creations:                    " + creations);
+    out.println("  Number of contended locks:                         " + contended + " (" + toPercent(contended, creations) + " of all creations)");
+    out.println("  Time waiting for locks:                            " + waiting.formatAs(TimeUnit.SECONDS));
+  }
+
+  @Override
+  public String getName() {
+    return "BAMCache";
+  }
+
+  @Override
+  public void collectLiveValues(Map<String, Number> pValues) {
+    pValues.put(cacheMisses.getTitle(), cacheMisses.getValue());
+    pValues.put(partialCacheHits.getTitle(), partialCacheHits.getValue());
+    pValues.put(fullCacheHits.getTitle(), fullCacheHits.getValue());
+    pValues.put(contendedLocks.getTitle(), contendedLocks.getValue());
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.defaults.NoOpReducer;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.sosy_lab.cpachecker.util.test.TestState;
+
+public class BAMCacheConcurrentTest {
+
+  private static final int THREADS = 8;
+  private static final int KEYS = 100;
+
+  private static final Precision PRECISION = SingletonPrecision.getInstance();
+
+  private static final Block BLOCK =
+      new Block(ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.of());
+
+  private BAMCacheConcurrent cache;
+  private ReachedSetFactory reachedSetFactory;
+
+  @Before
+  public void init() throws Exception {
+    cache = new BAMCacheConcurrent(NoOpReducer.getInstance());
+    reachedSetFactory =
+        new ReachedSetFactory(
+            TestDataTools.configurationForTest().setOption("analysis.reachedSet", "NORMAL").build(),
+            LogManager.createTestLogManager());
+  }
+
+  @Test
+  public void putAndGet() {
+    TestState state = TestState.withId(0);
+    assertThat(cache.get(state, PRECISION, BLOCK)).isNull();
+    assertThat(cache.containsPreciseKey(state, PRECISION, BLOCK)).isFalse();
+
+    ReachedSet reached = reachedSetFactory.create();
+    BAMCacheEntry entry = cache.put(state, PRECISION, BLOCK, reached);
+
+    // an equal state is found, too
+    assertThat(cache.get(TestState.withId(0), PRECISION, BLOCK)).isSameAs(entry);
+    assertThat(cache.containsPreciseKey(state, PRECISION, BLOCK)).isTrue();
+    assertThat(cache.get(TestState.withId(1), PRECISION, BLOCK)).isNull();
+    assertThat(cache.getAllCachedReachedStates()).containsExactly(reached);
+
+    Map<String, Number> values = new HashMap<>();
+    cache.collectLiveValues(values);
+    assertThat(values).containsEntry("Number of cache misses", 2L);
+    assertThat(values).containsEntry("Number of partial cache hits", 1L);
+
+    cache.clear();
+    assertThat(cache.get(state, PRECISION, BLOCK)).isNull();
+  }
+
+  @Test
+  public void concurrentGetOrCreate() throws Exception {
+    AtomicInteger createdReachedSets = new AtomicInteger();
+    CyclicBarrier barrier = new CyclicBarrier(THREADS);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<List<BAMCacheEntry>>> results = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        results.add(
+            executor.submit(
+                () -> {
+                  // all threads request the same keys at the same time
+                  barrier.await();
+                  List<BAMCacheEntry> entries = new ArrayList<>();
+                  for (int i = 0; i < KEYS; i++) {
+                    entries.add(
+                        cache.getOrCreate(
+                            TestState.withId(i),
+                            PRECISION,
+                            BLOCK,
+                            () -> {
+                              createdReachedSets.incrementAndGet();
+                              return reachedSetFactory.create();
+                            }));
+                  }
+                  return entries;
+                }));
+      }
+
+      List<BAMCacheEntry> expected = results.get(0).get();
+      for (Future<List<BAMCacheEntry>> result : results) {
+        List<BAMCacheEntry> entries = result.get();
+        for (int i = 0; i < KEYS; i++) {
+          assertThat(entries.get(i)).isSameAs(expected.get(i));
+        }
+      }
+      assertThat(createdReachedSets.get()).isEqualTo(KEYS);
+      assertThat(cache.getAllCachedReachedStates()).hasSize(KEYS);
+      for (int i = 0; i < KEYS; i++) {
+        assertThat(cache.get(TestState.withId(i), PRECISION, BLOCK)).isSameAs(expected.get(i));
+      }
+    } finally {
+      MoreExecutors.shutdownAndAwaitTermination(executor, 10, TimeUnit.SECONDS);
+    }
+  }
+}
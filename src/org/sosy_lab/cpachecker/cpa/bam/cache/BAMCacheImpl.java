@@ -276,6 +276,13 @@ public class BAMCacheImpl implements BAMCache {
     return "BAMCache";
   }
 
+  @Override
+  public void collectLiveValues(Map<String, Number> pValues) {
+    pValues.put("Number of cache misses", cacheMisses);
+    pValues.put("Number of partial cache hits", partialCacheHits);
+    pValues.put("Number of full cache hits", fullCacheHits);
+  }
+
   @Override
   public void clear() {
     preciseReachedCache.clear();
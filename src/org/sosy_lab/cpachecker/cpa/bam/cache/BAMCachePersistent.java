@@ -0,0 +1,688 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.collect.FluentIterable.from;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.io.StreamCorruptedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.cfa.blocks.BlockPartitioning;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+
+/**
+ * A wrapper around another {@link BAMCache} that additionally stores the summaries of blocks
+ * in a directory, such that later runs can reuse them (e.g., for library functions that are
+ * shared by several programs that are verified one after another).
+ *
+ * <p>The key of a summary is a hash of the configuration (without options for output and
+ * resource limits), of the whole program, of the block (its nodes, edges, and referenced
+ * variables), of the serialized reduced entry state (without the ARG), and of the serialized
+ * precision. Thus a summary is only found again by a run with the same configuration on the same
+ * program, which is necessary because abstract states refer to CFA nodes by their number
+ * and the states of a block may depend on options and on parts of the program outside the block.
+ * The summary contains the ARG of the reached-set of the block with the serialized states
+ * and the indices of the exit states. If the states or precisions of the analysis can not be
+ * serialized (e.g., for predicate analysis), the persistent cache is disabled.
+ *
+ * <p>Only finished summaries without target states are stored, and only for blocks that do not
+ * contain other blocks, because BAM needs additional information about the reached-sets of inner
+ * blocks for reconstructing counterexamples, and this information is not stored.
+ *
+ * <p>Each summary is stored in its own file, together with a checksum of its content.
+ * Files that can not be read or have a wrong checksum are deleted. The total size of the files
+ * is bounded, and the least-recently used files (by their modification time, which is updated
+ * on each hit) are deleted if it is exceeded.
+ */
+@Options(prefix = "cpa.bam.persistentCache")
+public class BAMCachePersistent implements BAMCache {
+
+  @Option(
+    secure = true,
+    description =
+        "Maximum total size in bytes of the files of the persistent BAM cache. "
+            + "If this is exceeded, the least-recently used summaries are deleted. "
+            + "0 for no limit."
+  )
+  @IntegerOption(min = 0)
+  private long maxSize = 1024L * 1024L * 1024L;
+
+  /** Prefixes of options that do not influence the summaries and are not part of the key. */
+  private static final ImmutableList<String> IGNORED_OPTION_PREFIXES =
+      ImmutableList.of(
+          "cpa.bam.persistentCache.", "limits.", "log.", "output.", "report.", "statistics.");
+
+  private static final Splitter LINE_SPLITTER = Splitter.on('\n').omitEmptyStrings();
+
+  private static final String FILE_SUFFIX = ".bamsummary";
+  private static final int MAGIC = 0x42414d43; // "BAMC"
+  private static final int FORMAT_VERSION = 1;
+
+  private final BAMCache cache;
+  private final Path directory;
+  private final BlockPartitioning partitioning;
+  private final ReachedSetFactory reachedSetFactory;
+  private final LogManager logger;
+
+  /** hash of the configuration and the program, which is part of all keys */
+  private final String contextHash;
+
+  /** set when states or precisions of the analysis can not be stored */
+  private boolean disabled = false;
+
+  // Blocks do not override equals, thus these maps are effectively identity-based.
+  private final Map<Block, String> blockHashes = new HashMap<>();
+  private final Map<Block, Boolean> leafBlocks = new HashMap<>();
+
+  /** entries of leaf blocks that were not yet finished when they were put into the cache */
+  private final List<PendingEntry> pendingEntries = new ArrayList<>();
+
+  /** total size of all files in the directory */
+  private long diskSize = 0;
+
+  private @Nullable BAMCacheEntry lastLoadedEntry = null;
+
+  private final Timer loadTimer = new Timer();
+  private final Timer storeTimer = new Timer();
+  private int diskHits = 0;
+  private int diskMisses = 0;
+  private int storedEntries = 0;
+  private int evictedEntries = 0;
+  private int corruptEntries = 0;
+
+  public BAMCachePersistent(
+      Configuration pConfig,
+      BAMCache pCache,
+      Path pDirectory,
+      BlockPartitioning pPartitioning,
+      ReachedSetFactory pReachedSetFactory,
+      CFA pCfa,
+      LogManager pLogger)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    cache = pCache;
+    directory = pDirectory;
+    partitioning = pPartitioning;
+    reachedSetFactory = pReachedSetFactory;
+    logger = pLogger;
+    contextHash = computeContextHash(pConfig, pCfa);
+
+    try {
+      Files.createDirectories(directory);
+      for (Path file : listCacheFiles()) {
+        diskSize += Files.size(file);
+      }
+    } catch (IOException e) {
+      logger.logUserException(
+          Level.WARNING, e, "Could not access directory of persistent BAM cache, disabling it");
+      disabled = true;
+    }
+  }
+
+  private static class PendingEntry {
+    private final AbstractState stateKey;
+    private final Precision precisionKey;
+    private final Block context;
+    private final BAMCacheEntry entry;
+
+    private PendingEntry(
+        AbstractState pStateKey, Precision pPrecisionKey, Block pContext, BAMCacheEntry pEntry) {
+      stateKey = pStateKey;
+      precisionKey = pPrecisionKey;
+      context = pContext;
+      entry = pEntry;
+    }
+  }
+
+  /** The content of one file, i.e., the ARG of a reached-set with its exit states. */
+  private static class Summary {
+    private final List<ARGState> reachedStates = new ArrayList<>();
+    private final List<AbstractState> exitStates = new ArrayList<>();
+  }
+
+  @Override
+  public BAMCacheEntry put(
+      AbstractState pStateKey, Precision pPrecisionKey, Block pContext, ReachedSet pItem) {
+    storePendingEntries();
+    BAMCacheEntry entry = cache.put(pStateKey, pPrecisionKey, pContext, pItem);
+    if (isPersistable(pStateKey, pContext)) {
+      pendingEntries.add(new PendingEntry(pStateKey, pPrecisionKey, pContext, entry));
+    }
+    return entry;
+  }
+
+  @Override
+  public BAMCacheEntry get(AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+    storePendingEntries();
+    lastLoadedEntry = null;
+    BAMCacheEntry entry = cache.get(pStateKey, pPrecisionKey, pContext);
+    if (entry == null && isPersistable(pStateKey, pContext)) {
+      loadTimer.start();
+      try {
+        entry = load(pStateKey, pPrecisionKey, pContext);
+      } finally {
+        loadTimer.stop();
+      }
+      lastLoadedEntry = entry;
+    }
+    return entry;
+  }
+
+  private boolean isPersistable(AbstractState pStateKey, Block pContext) {
+    return !disabled && pStateKey instanceof ARGState && isLeafBlock(pContext);
+  }
+
+  private boolean isLeafBlock(Block pBlock) {
+    return leafBlocks.computeIfAbsent(
+        pBlock,
+        block ->
+            from(block.getNodes())
+                .noneMatch(node -> partitioning.isCallNode(node) && !block.isCallNode(node)));
+  }
+
+  private @Nullable BAMCacheEntry load(
+      AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+    String key = computeKey(pStateKey, pPrecisionKey, pContext);
+    if (key == null) {
+      return null;
+    }
+    Path file = directory.resolve(key + FILE_SUFFIX);
+    if (!Files.isRegularFile(file)) {
+      diskMisses++;
+      return null;
+    }
+
+    Summary summary;
+    try {
+      summary = readSummary(file, key);
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      // the file is corrupt or was written by an incompatible version of the analysis
+      logger.logDebugException(e, "Deleting unreadable entry of persistent BAM cache");
+      corruptEntries++;
+      deleteFile(file);
+      diskMisses++;
+      return null;
+    }
+
+    ReachedSet reached = reachedSetFactory.create();
+    for (ARGState state : summary.reachedStates) {
+      // the precisions of the inner states are not stored,
+      // which is irrelevant because the reached-set is finished
+      reached.add(state, pPrecisionKey);
+      reached.removeOnlyFromWaitlist(state);
+    }
+    BAMCacheEntry entry = cache.put(pStateKey, pPrecisionKey, pContext, reached);
+    entry.setExitStates(summary.exitStates);
+
+    try {
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (IOException e) {
+      logger.logDebugException(e, "Could not update modification time of persistent BAM cache");
+    }
+    diskHits++;
+    return entry;
+  }
+
+  /** Store all pending entries that are finished since they were put into the cache. */
+  private void storePendingEntries() {
+    if (pendingEntries.isEmpty()) {
+      return;
+    }
+    storeTimer.start();
+    try {
+      Iterator<PendingEntry> it = pendingEntries.iterator();
+      while (it.hasNext()) {
+        PendingEntry pending = it.next();
+        if (pending.entry.getExitStates() == null) {
+          continue; // block is still analyzed
+        }
+        it.remove();
+        if (!disabled && isFinishedWithoutTarget(pending.entry)) {
+          store(pending);
+        }
+      }
+    } finally {
+      storeTimer.stop();
+    }
+  }
+
+  private static boolean isFinishedWithoutTarget(BAMCacheEntry pEntry) {
+    ReachedSet reached = pEntry.getReachedSet();
+    return !reached.hasWaitingState()
+        && reached.getFirstState() instanceof ARGState
+        && from(reached).noneMatch(AbstractStates::isTargetState)
+        && from(pEntry.getExitStates()).allMatch(s -> !((ARGState) s).isDestroyed());
+  }
+
+  private void store(PendingEntry pPending) {
+    String key = computeKey(pPending.stateKey, pPending.precisionKey, pPending.context);
+    if (key == null) {
+      return;
+    }
+    byte[] payload = serializeSummary(pPending.entry);
+    if (payload == null) {
+      return;
+    }
+
+    Path file = directory.resolve(key + FILE_SUFFIX);
+    try {
+      long oldSize = Files.exists(file) ? Files.size(file) : 0;
+      // write to a temporary file first, such that concurrent runs never see partial files
+      Path tmpFile = Files.createTempFile(directory, key, ".tmp");
+      try {
+        try (DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+          out.writeInt(MAGIC);
+          out.writeInt(FORMAT_VERSION);
+          out.writeUTF(key);
+          out.write(Hashing.sha256().hashBytes(payload).asBytes());
+          out.writeInt(payload.length);
+          out.write(payload);
+        }
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+      } finally {
+        Files.deleteIfExists(tmpFile);
+      }
+      diskSize += Files.size(file) - oldSize;
+      storedEntries++;
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write to persistent BAM cache");
+      return;
+    }
+
+    if (maxSize > 0 && diskSize > maxSize) {
+      evictLeastRecentlyUsed();
+    }
+  }
+
+  private void evictLeastRecentlyUsed() {
+    Map<Path, FileTime> files = new LinkedHashMap<>();
+    try {
+      for (Path file : listCacheFiles()) {
+        files.put(file, Files.getLastModifiedTime(file));
+      }
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not access persistent BAM cache");
+      return;
+    }
+    List<Path> sortedFiles = new ArrayList<>(files.keySet());
+    sortedFiles.sort(Comparator.comparing(files::get));
+    for (Path file : sortedFiles) {
+      if (diskSize <= maxSize) {
+        break;
+      }
+      deleteFile(file);
+      evictedEntries++;
+    }
+  }
+
+  private void deleteFile(Path pFile) {
+    try {
+      long size = Files.size(pFile);
+      Files.delete(pFile);
+      diskSize -= size;
+    } catch (IOException e) {
+      logger.logDebugException(e, "Could not delete entry of persistent BAM cache");
+    }
+  }
+
+  private List<Path> listCacheFiles() throws IOException {
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+      stream.forEach(files::add);
+    }
+    return files;
+  }
+
+  private @Nullable String computeKey(
+      AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putInt(FORMAT_VERSION);
+    hasher.putString(contextHash, UTF_8);
+    hasher.putString(getBlockHash(pContext), UTF_8);
+    try {
+      // the ARG state itself contains a fresh id
+      hasher.putBytes(serialize(((ARGState) pStateKey).getWrappedState()));
+      hasher.putBytes(serialize(pPrecisionKey));
+    } catch (IOException e) {
+      disable(e);
+      return null;
+    }
+    return hasher.hash().toString();
+  }
+
+  private String getBlockHash(Block pBlock) {
+    return blockHashes.computeIfAbsent(pBlock, BAMCachePersistent::computeBlockHash);
+  }
+
+  private static String computeBlockHash(Block pBlock) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    for (CFANode node : pBlock.getNodes()) {
+      putNode(hasher, node);
+      hasher.putBoolean(pBlock.isCallNode(node));
+      hasher.putBoolean(pBlock.isReturnNode(node));
+    }
+    for (String variable : ImmutableSortedSet.copyOf(pBlock.getVariables())) {
+      hasher.putString(variable, UTF_8).putChar('\0');
+    }
+    return hasher.hash().toString();
+  }
+
+  private static String computeContextHash(Configuration pConfig, CFA pCfa) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    // sorted, such that the order in which the options were set is irrelevant
+    Iterable<String> options = LINE_SPLITTER.split(pConfig.asPropertiesString());
+    for (String option : ImmutableSortedSet.copyOf(options)) {
+      if (IGNORED_OPTION_PREFIXES.stream().noneMatch(option::startsWith)) {
+        hasher.putString(option, UTF_8).putChar('\0');
+      }
+    }
+    hasher.putString(pCfa.getLanguage().name(), UTF_8).putChar('\0');
+    hasher.putString(pCfa.getMachineModel().name(), UTF_8).putChar('\0');
+    for (CFANode node : ImmutableSortedSet.copyOf(pCfa.getAllNodes())) {
+      putNode(hasher, node);
+    }
+    return hasher.hash().toString();
+  }
+
+  private static void putNode(Hasher pHasher, CFANode pNode) {
+    pHasher.putInt(pNode.getNodeNumber());
+    pHasher.putString(pNode.getFunctionName(), UTF_8).putChar('\0');
+    for (CFAEdge edge : CFAUtils.allLeavingEdges(pNode)) {
+      pHasher.putInt(edge.getSuccessor().getNodeNumber());
+      pHasher.putString(edge.getDescription(), UTF_8).putChar('\0');
+    }
+  }
+
+  private static byte[] serialize(Object pObject) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(pObject);
+    }
+    return bytes.toByteArray();
+  }
+
+  private void disable(IOException e) {
+    if (e instanceof NotSerializableException) {
+      logger.log(
+          Level.INFO,
+          "Disabling persistent BAM cache, because the analysis uses a class that can not be"
+              + " serialized:",
+          e.getMessage());
+    } else {
+      logger.logUserException(Level.WARNING, e, "Disabling persistent BAM cache");
+    }
+    disabled = true;
+  }
+
+  /**
+   * Serialize the ARG of the reached-set of the given entry,
+   * or return null if the ARG is not self-contained or can not be serialized.
+   */
+  private @Nullable byte[] serializeSummary(BAMCacheEntry pEntry) {
+    ReachedSet reached = pEntry.getReachedSet();
+    ARGState root = (ARGState) reached.getFirstState();
+
+    // all states of the ARG, including covered states, in BFS order
+    Map<ARGState, Integer> indices = new LinkedHashMap<>();
+    Deque<ARGState> waitlist = new ArrayDeque<>();
+    indices.put(root, 0);
+    waitlist.add(root);
+    while (!waitlist.isEmpty()) {
+      for (ARGState child : waitlist.poll().getChildren()) {
+        if (!indices.containsKey(child)) {
+          indices.put(child, indices.size());
+          waitlist.add(child);
+        }
+      }
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(bytes))) {
+      out.writeInt(indices.size());
+      for (ARGState state : indices.keySet()) {
+        out.writeObject(state.getWrappedState());
+      }
+      for (ARGState state : indices.keySet()) {
+        out.writeBoolean(reached.contains(state));
+        out.writeInt(state.getParents().size());
+        for (ARGState parent : state.getParents()) {
+          Integer parentIndex = indices.get(parent);
+          if (parentIndex == null) {
+            return null; // ARG has edges into other parts
+          }
+          out.writeInt(parentIndex);
+        }
+        Integer coveringIndex = state.isCovered() ? indices.get(state.getCoveringState()) : -1;
+        if (coveringIndex == null) {
+          return null;
+        }
+        out.writeInt(coveringIndex);
+      }
+      out.writeInt(pEntry.getExitStates().size());
+      for (AbstractState exitState : pEntry.getExitStates()) {
+        Integer exitIndex = indices.get(exitState);
+        if (exitIndex == null) {
+          return null;
+        }
+        out.writeInt(exitIndex);
+      }
+    } catch (IOException e) {
+      disable(e);
+      return null;
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Summary readSummary(Path pFile, String pKey)
+      throws IOException, ClassNotFoundException {
+    byte[] payload;
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(pFile)))) {
+      if (in.readInt() != MAGIC
+          || in.readInt() != FORMAT_VERSION
+          || !in.readUTF().equals(pKey)) {
+        throw new StreamCorruptedException("Invalid header of " + pFile);
+      }
+      byte[] checksum = new byte[32];
+      in.readFully(checksum);
+      int length = in.readInt();
+      if (length < 0) {
+        throw new StreamCorruptedException("Invalid length in " + pFile);
+      }
+      payload = new byte[length];
+      in.readFully(payload);
+      if (!Arrays.equals(checksum, Hashing.sha256().hashBytes(payload).asBytes())) {
+        throw new StreamCorruptedException("Wrong checksum of " + pFile);
+      }
+    }
+
+    Summary summary = new Summary();
+    try (ObjectInputStream in =
+        new ObjectInputStream(new GZIPInputStream(new ByteArrayInputStream(payload)))) {
+      int size = in.readInt();
+      if (size <= 0) {
+        throw new StreamCorruptedException("Missing root state in " + pFile);
+      }
+      List<ARGState> states = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        states.add(new ARGState((AbstractState) in.readObject(), null));
+      }
+      int[] coveringIndices = new int[size];
+      for (int i = 0; i < size; i++) {
+        ARGState state = states.get(i);
+        if (in.readBoolean()) {
+          summary.reachedStates.add(state);
+        } else if (i == 0) {
+          throw new StreamCorruptedException("Root state is not reached in " + pFile);
+        }
+        int parents = in.readInt();
+        if (i == 0 && parents > 0) {
+          throw new StreamCorruptedException("Root state has parents in " + pFile);
+        }
+        for (int j = 0; j < parents; j++) {
+          state.addParent(states.get(checkIndex(in.readInt(), size)));
+        }
+        coveringIndices[i] = in.readInt();
+      }
+      for (int i = 0; i < size; i++) {
+        if (coveringIndices[i] >= 0) {
+          states.get(i).setCovered(states.get(checkIndex(coveringIndices[i], size)));
+        }
+      }
+      int exits = in.readInt();
+      for (int i = 0; i < exits; i++) {
+        summary.exitStates.add(states.get(checkIndex(in.readInt(), size)));
+      }
+      for (ARGState state : summary.reachedStates) {
+        state.markExpanded();
+      }
+    }
+    return summary;
+  }
+
+  private static int checkIndex(int pIndex, int pSize) throws StreamCorruptedException {
+    if (pIndex < 0 || pIndex >= pSize) {
+      throw new StreamCorruptedException("Invalid state index " + pIndex);
+    }
+    return pIndex;
+  }
+
+  @Override
+  @Deprecated
+  public ARGState getLastAnalyzedBlock() {
+    if (lastLoadedEntry != null) {
+      return lastLoadedEntry.getRootOfBlock();
+    }
+    return cache.getLastAnalyzedBlock();
+  }
+
+  @Override
+  public boolean containsPreciseKey(
+      AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+    return cache.containsPreciseKey(pStateKey, pPrecisionKey, pContext);
+  }
+
+  @Override
+  public Collection<ReachedSet> getAllCachedReachedStates() {
+    return cache.getAllCachedReachedStates();
+  }
+
+  @Override
+  public void clear() {
+    storePendingEntries();
+    pendingEntries.clear();
+    lastLoadedEntry = null;
+    cache.clear();
+  }
+
+  @Override
+  public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
+    // there is no other notification at the end of the analysis
+    storePendingEntries();
+
+    cache.printStatistics(out, pResult, pReached);
+    int lookups = diskHits + diskMisses;
+    out.println("Number of lookups in persistent cache:               " + lookups);
+    out.println("  Number of hits in persistent cache:                " + diskHits + " (" + toPercent(diskHits, lookups) + " of all lookups)");
+    out.println("  Number of misses in persistent cache:              " + diskMisses + " (" + toPercent(diskMisses, lookups) + " of all lookups)");
+    out.println("  Number of unreadable entries:                      " + corruptEntries);
+    out.println("Number of entries written to persistent cache:       " + storedEntries);
+    out.println("Number of entries evicted from persistent cache:     " + evictedEntries);
+    out.println("Size of persistent cache:                            " + diskSize + " bytes");
+    out.println("Time for loading from persistent cache:              " + loadTimer + " (Calls: " + loadTimer.getNumberOfIntervals() + ")");
+    out.println("Time for storing into persistent cache:              " + storeTimer + " (Calls: " + storeTimer.getNumberOfIntervals() + ")");
+  }
+
+  @Override
+  public void writeOutputFiles(Result pResult, UnmodifiableReachedSet pReached) {
+    cache.writeOutputFiles(pResult, pReached);
+  }
+
+  @Override
+  public @Nullable String getName() {
+    return cache.getName();
+  }
+
+  @Override
+  public void collectLiveValues(Map<String, Number> pValues) {
+    cache.collectLiveValues(pValues);
+    pValues.put("Number of hits in persistent cache", diskHits);
+  }
+}
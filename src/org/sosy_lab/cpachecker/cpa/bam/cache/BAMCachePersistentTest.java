@@ -0,0 +1,157 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import java.nio.file.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.cfa.blocks.BlockPartitioning;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.core.defaults.NoOpReducer;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.sosy_lab.cpachecker.util.test.TestState;
+
+public class BAMCachePersistentTest {
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final LogManager logger = LogManager.createTestLogManager();
+  private final Precision precision = SingletonPrecision.getInstance();
+
+  private CFA cfa;
+  private Block block;
+  private BlockPartitioning partitioning;
+  private Path directory;
+
+  @Before
+  public void setUp() throws Exception {
+    cfa = TestDataTools.makeCFA("void main() {", "  int x = 0;", "  x++;", "}");
+    FunctionEntryNode main = cfa.getMainFunction();
+    block =
+        new Block(
+            ImmutableSet.of(),
+            ImmutableSet.of(main),
+            ImmutableSet.of(main.getExitNode()),
+            cfa.getAllNodes());
+    partitioning = new BlockPartitioning(ImmutableList.of(block), main);
+    directory = tempFolder.getRoot().toPath().resolve("bam-cache");
+  }
+
+  private BAMCachePersistent createCache(Configuration pConfig)
+      throws InvalidConfigurationException {
+    return new BAMCachePersistent(
+        pConfig,
+        new BAMCacheImpl(pConfig, NoOpReducer.getInstance(), logger),
+        directory,
+        partitioning,
+        new ReachedSetFactory(pConfig, logger),
+        cfa,
+        logger);
+  }
+
+  /** Put a finished summary with two states into the cache and store it. */
+  private void storeSummary(Configuration pConfig) throws InvalidConfigurationException {
+    BAMCachePersistent cache = createCache(pConfig);
+    ARGState root = new ARGState(TestState.withId(0), null);
+    ARGState exit = new ARGState(TestState.withId(1), root);
+    ReachedSet reached = new ReachedSetFactory(pConfig, logger).create();
+    reached.add(root, precision);
+    reached.add(exit, precision);
+    reached.removeOnlyFromWaitlist(root);
+    reached.removeOnlyFromWaitlist(exit);
+
+    BAMCacheEntry entry = cache.put(root, precision, block, reached);
+    entry.setExitStates(ImmutableList.of(exit));
+    // pending entries are stored on the next access
+    cache.clear();
+  }
+
+  private BAMCacheEntry lookup(Configuration pConfig) throws InvalidConfigurationException {
+    return createCache(pConfig).get(new ARGState(TestState.withId(0), null), precision, block);
+  }
+
+  @Test
+  public void testStoreAndReload() throws Exception {
+    Configuration config = TestDataTools.configurationForTest().build();
+    storeSummary(config);
+
+    BAMCacheEntry entry = lookup(config);
+    assertThat(entry).isNotNull();
+    assertThat(entry.getReachedSet().size()).isEqualTo(2);
+    ARGState exit = (ARGState) Iterables.getOnlyElement(entry.getExitStates());
+    assertThat(exit.getWrappedState()).isEqualTo(TestState.withId(1));
+    assertThat(exit.getParents()).containsExactly(entry.getReachedSet().getFirstState());
+  }
+
+  @Test
+  public void testMissForDifferentState() throws Exception {
+    Configuration config = TestDataTools.configurationForTest().build();
+    storeSummary(config);
+
+    assertThat(
+            createCache(config).get(new ARGState(TestState.withId(2), null), precision, block))
+        .isNull();
+  }
+
+  @Test
+  public void testMissForChangedOption() throws Exception {
+    storeSummary(TestDataTools.configurationForTest().build());
+
+    Configuration changedConfig =
+        TestDataTools.configurationForTest()
+            .setOption("cpa.bam.aggressiveCaching", "false")
+            .build();
+    assertThat(lookup(changedConfig)).isNull();
+  }
+
+  @Test
+  public void testHitForChangedOutputOption() throws Exception {
+    storeSummary(TestDataTools.configurationForTest().build());
+
+    Configuration changedConfig =
+        TestDataTools.configurationForTest()
+            .setOption("statistics.memory", "false")
+            .setOption("cpa.bam.persistentCache.maxSize", "1000000")
+            .build();
+    assertThat(lookup(changedConfig)).isNotNull();
+  }
+}
@@ -25,6 +25,7 @@ package org.sosy_lab.cpachecker.cpa.bam.cache;
 
 import java.io.PrintStream;
 import java.util.Collection;
+import java.util.Map;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -71,6 +72,12 @@ public class BAMCacheSynchronized implements BAMCache {
     return cache.getName();
   }
 
+  @Override
+  public void collectLiveValues(Map<String, Number> pValues) {
+    // no synchronization, this must not block
+    cache.collectLiveValues(pValues);
+  }
+
   @Override
   public BAMCacheEntry put(
       AbstractState pStateKey, Precision pPrecisionKey, Block pContext, ReachedSet pItem) {
@@ -50,6 +50,14 @@ public interface BAMDataManager {
   BAMCacheEntry createAndRegisterNewReachedSet(
       AbstractState initialState, Precision initialPrecision, Block context);
 
+  /**
+   * Return the cache entry for the given key, or create a new reached-set with the given state as
+   * root and register it in the cache if there is none. Thread-safe implementations do both steps
+   * atomically, such that only one reached-set is created for each key.
+   */
+  BAMCacheEntry getOrCreateReachedSet(
+      AbstractState initialState, Precision initialPrecision, Block context);
+
   ReachedSetFactory getReachedSetFactory();
 
   /**
@@ -0,0 +1,187 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.defaults.NoOpReducer;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.sosy_lab.cpachecker.util.test.TestState;
+
+public class BAMDataManagerConcurrentTest {
+
+  private static final int THREADS = 8;
+  private static final int STATES_PER_THREAD = 100;
+
+  private static final Precision PRECISION = SingletonPrecision.getInstance();
+
+  private static final Block BLOCK =
+      new Block(ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.of());
+
+  private BAMDataManagerConcurrent data;
+  private ExecutorService executor;
+  private CyclicBarrier barrier;
+
+  @Before
+  public void init() throws Exception {
+    ReachedSetFactory reachedSetFactory =
+        new ReachedSetFactory(
+            TestDataTools.configurationForTest().setOption("analysis.reachedSet", "NORMAL").build(),
+            LogManager.createTestLogManager());
+    data =
+        new BAMDataManagerConcurrent(
+            new BAMCacheConcurrent(NoOpReducer.getInstance()),
+            reachedSetFactory,
+            LogManager.createTestLogManager());
+    executor = Executors.newFixedThreadPool(THREADS);
+    barrier = new CyclicBarrier(THREADS);
+  }
+
+  @After
+  public void shutdown() {
+    MoreExecutors.shutdownAndAwaitTermination(executor, 10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void concurrentGetOrCreateReachedSet() throws Exception {
+    List<Future<List<BAMCacheEntry>>> results = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      results.add(
+          executor.submit(
+              () -> {
+                // all threads request the same block entries at the same time
+                barrier.await();
+                List<BAMCacheEntry> entries = new ArrayList<>();
+                for (int i = 0; i < STATES_PER_THREAD; i++) {
+                  entries.add(data.getOrCreateReachedSet(TestState.withId(i), PRECISION, BLOCK));
+                }
+                return entries;
+              }));
+    }
+
+    List<BAMCacheEntry> expected = results.get(0).get();
+    for (Future<List<BAMCacheEntry>> result : results) {
+      List<BAMCacheEntry> entries = result.get();
+      for (int i = 0; i < STATES_PER_THREAD; i++) {
+        assertThat(entries.get(i)).isSameAs(expected.get(i));
+      }
+    }
+    for (int i = 0; i < STATES_PER_THREAD; i++) {
+      ReachedSet reached = expected.get(i).getReachedSet();
+      assertThat(reached.asCollection()).containsExactly(TestState.withId(i));
+      assertThat(reached.getPrecision(reached.getFirstState())).isSameAs(PRECISION);
+    }
+    assertThat(data.getCache().getAllCachedReachedStates()).hasSize(STATES_PER_THREAD);
+  }
+
+  @Test
+  public void concurrentRegisterInitialState() throws Exception {
+    // all threads register different non-reduced initial states for the same reduced state
+    TestState reducedState = TestState.withId(-1);
+    TestState exitState = TestState.withId(-2);
+    ReachedSet reached =
+        data.createAndRegisterNewReachedSet(reducedState, PRECISION, BLOCK).getReachedSet();
+    reached.add(exitState, PRECISION);
+
+    List<Future<?>> results = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      final int thread = t;
+      results.add(
+          executor.submit(
+              () -> {
+                barrier.await();
+                for (int i = 0; i < STATES_PER_THREAD; i++) {
+                  TestState initialState = TestState.withId(thread * STATES_PER_THREAD + i);
+                  data.registerInitialState(initialState, exitState, reached);
+                }
+                return null;
+              }));
+    }
+    for (Future<?> result : results) {
+      result.get();
+    }
+
+    ImmutableSet<AbstractState> nonReducedStates = data.getNonReducedInitialStates(reducedState);
+    assertThat(nonReducedStates).hasSize(THREADS * STATES_PER_THREAD);
+    for (int i = 0; i < THREADS * STATES_PER_THREAD; i++) {
+      TestState initialState = TestState.withId(i);
+      assertThat(nonReducedStates).contains(initialState);
+      assertThat(data.hasInitialState(initialState)).isTrue();
+      assertThat(data.getReachedSetForInitialState(initialState, exitState)).isSameAs(reached);
+    }
+  }
+
+  @Test
+  public void concurrentRegisterExpandedState() throws Exception {
+    // every thread registers a chain of expanded states of nested blocks
+    List<Future<?>> results = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      final int thread = t;
+      results.add(
+          executor.submit(
+              () -> {
+                barrier.await();
+                for (int i = 0; i < STATES_PER_THREAD; i++) {
+                  int id = thread * (STATES_PER_THREAD + 1) + i;
+                  data.registerExpandedState(
+                      TestState.withId(id), PRECISION, TestState.withId(id + 1), BLOCK);
+                }
+                return null;
+              }));
+    }
+    for (Future<?> result : results) {
+      result.get();
+    }
+
+    for (int t = 0; t < THREADS; t++) {
+      TestState outermostState = TestState.withId(t * (STATES_PER_THREAD + 1));
+      TestState innermostState =
+          TestState.withId(t * (STATES_PER_THREAD + 1) + STATES_PER_THREAD);
+      assertThat(data.getInnermostState(outermostState)).isEqualTo(innermostState);
+      assertThat(data.getExpandedStatesList(outermostState)).hasSize(STATES_PER_THREAD);
+      assertThat(data.alreadyReturnedFromSameBlock(outermostState, BLOCK)).isTrue();
+      assertThat(data.hasExpandedState(innermostState)).isFalse();
+    }
+  }
+}
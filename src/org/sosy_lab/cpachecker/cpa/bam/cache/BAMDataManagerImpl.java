@@ -141,6 +141,16 @@ public class BAMDataManagerImpl implements BAMDataManager {
     return bamCache.put(initialState, initialPrecision, context, reached);
   }
 
+  @Override
+  public BAMCacheEntry getOrCreateReachedSet(
+      AbstractState initialState, Precision initialPrecision, Block context) {
+    BAMCacheEntry entry = bamCache.get(initialState, initialPrecision, context);
+    if (entry == null) {
+      entry = createAndRegisterNewReachedSet(initialState, initialPrecision, context);
+    }
+    return entry;
+  }
+
   @Override
   public ReachedSetFactory getReachedSetFactory() {
     return reachedSetFactory;
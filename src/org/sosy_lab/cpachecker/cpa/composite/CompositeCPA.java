@@ -28,6 +28,7 @@ import static com.google.common.collect.FluentIterable.from;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import java.io.PrintStream;
 import java.util.Collection;
 import java.util.List;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -37,6 +38,7 @@ import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.blocks.BlockPartitioning;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.defaults.AbstractCPAFactory;
 import org.sosy_lab.cpachecker.core.defaults.MergeSepOperator;
 import org.sosy_lab.cpachecker.core.defaults.SimplePrecisionAdjustment;
@@ -53,6 +55,7 @@ import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.ThreadSafeConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.WrapperCPA;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
@@ -61,7 +64,9 @@ import org.sosy_lab.cpachecker.cpa.predicate.PredicateCPA;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 
-public class CompositeCPA implements StatisticsProvider, WrapperCPA, ConfigurableProgramAnalysisWithBAM, ProofChecker {
+public class CompositeCPA
+    implements StatisticsProvider, WrapperCPA, ConfigurableProgramAnalysisWithBAM, ProofChecker,
+        ThreadSafeConfigurableProgramAnalysis {
 
   @Options(prefix="cpa.composite")
   private static class CompositeOptions {
@@ -149,6 +154,9 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
   private final CFA cfa;
   private final CompositeOptions options;
 
+  private final StatCounter coverageChecksAvoided =
+      new StatCounter("Number of coverage checks avoided by signatures");
+
   private CompositeCPA(
       CFA pCfa,
       ImmutableList<ConfigurableProgramAnalysis> cpas,
@@ -222,7 +230,7 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
     for (ConfigurableProgramAnalysis cpa : cpas) {
       stopOps.add(cpa.getStopOperator());
     }
-    return new CompositeStopOperator(stopOps.build());
+    return new CompositeStopOperator(stopOps.build(), coverageChecksAvoided);
   }
 
   @Override
@@ -289,6 +297,20 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
         ((StatisticsProvider)cpa).collectStatistics(pStatsCollection);
       }
     }
+    pStatsCollection.add(
+        new Statistics() {
+
+          @Override
+          public String getName() {
+            return "CompositeCPA";
+          }
+
+          @Override
+          public void printStatistics(
+              PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+            StatisticsWriter.writingStatisticsTo(pOut).put(coverageChecksAvoided);
+          }
+        });
   }
 
   @Override
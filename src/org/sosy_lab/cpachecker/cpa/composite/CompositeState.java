@@ -54,6 +54,7 @@ public class CompositeState
   private transient Object partitionKey; // lazily initialized
   private transient Comparable<?> pseudoPartitionKey; // lazily initialized
   private transient Object pseudoHashCode; // lazily initialized
+  private transient Long coverageSignature; // lazily initialized
 
   public CompositeState(List<AbstractState> elements) {
     this.states = ImmutableList.copyOf(elements);
@@ -200,6 +201,28 @@ public class CompositeState
     return pseudoHashCode;
   }
 
+  @Override
+  public long getCoverageSignature() {
+    if (coverageSignature == null) {
+      long signature = 0L;
+
+      int i = 0;
+      for (AbstractState element : states) {
+        if (element instanceof PseudoPartitionable) {
+          // Rotating is a permutation of the bits and thus keeps the subset relation between
+          // signatures, but avoids that the components share the same bits.
+          long elementSignature = ((PseudoPartitionable) element).getCoverageSignature();
+          signature |= Long.rotateLeft(elementSignature, 11 * i);
+        }
+        i++;
+      }
+
+      coverageSignature = signature;
+    }
+
+    return coverageSignature;
+  }
+
   private static final class CompositePartitionKey implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -33,25 +33,40 @@ import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.ForcedCoveringStopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.PseudoPartitionable;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 
 class CompositeStopOperator implements StopOperator, ForcedCoveringStopOperator {
 
   private final ImmutableList<StopOperator> stopOperators;
 
-  CompositeStopOperator(ImmutableList<StopOperator> stopOperators) {
+  /** Counts the reached states for which the coverage signatures made the stop operators unnecessary. */
+  private final StatCounter coverageChecksAvoided;
+
+  CompositeStopOperator(
+      ImmutableList<StopOperator> stopOperators, StatCounter pCoverageChecksAvoided) {
     this.stopOperators = stopOperators;
+    coverageChecksAvoided = pCoverageChecksAvoided;
   }
 
   @Override
   public boolean stop(AbstractState element, Collection<AbstractState> reached, Precision precision) throws CPAException, InterruptedException {
     CompositeState compositeState = (CompositeState) element;
     CompositePrecision compositePrecision = (CompositePrecision) precision;
+    long signature = compositeState.getCoverageSignature();
 
     for (AbstractState e : reached) {
-      if (stop(compositeState, (CompositeState)e, compositePrecision)) {
+      CompositeState compositeReachedState = (CompositeState) e;
+      if (!PseudoPartitionable.mayBeLessOrEqual(
+          signature, compositeReachedState.getCoverageSignature())) {
+        // quick reject, the state is definitely not covered by this reached state
+        coverageChecksAvoided.inc();
+        continue;
+      }
+      if (stop(compositeState, compositeReachedState, compositePrecision)) {
         return true;
       }
     }
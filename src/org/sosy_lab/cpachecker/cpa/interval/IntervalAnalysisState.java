@@ -447,6 +447,16 @@ public class IntervalAnalysisState
     return this;
   }
 
+  @Override
+  public long getCoverageSignature() {
+    // a state is only 'lessOrEqual' if it contains all variables of the other state
+    long signature = 0L;
+    for (String variableName : intervals.keySet()) {
+      signature |= PseudoPartitionable.toSignatureBit(variableName.hashCode());
+    }
+    return signature;
+  }
+
   /** Just a pair of values, can be compared alphabetically. */
   private static final class IntervalPseudoPartitionKey
       implements Comparable<IntervalPseudoPartitionKey> {
@@ -0,0 +1,179 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import com.google.common.base.Throwables;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Checks the predicates of a Cartesian abstraction in parallel.
+ *
+ * Each worker thread uses its own solver instance,
+ * because solver contexts must not be used concurrently.
+ * The solvers are created lazily when they are needed for the first time,
+ * such that no solvers are created if this class is never used
+ * (e.g., because all Cartesian abstractions have too few predicates).
+ * Formulas are transferred to the worker solvers as SMT-LIB strings,
+ * like for the separate interpolation solver.
+ * The result for each predicate is encoded as in the cache for Cartesian abstraction queries
+ * (-1: predicate is false, 0: predicate is don't care, 1: predicate is true).
+ */
+final class ParallelCartesianAbstraction implements AutoCloseable {
+
+  private final int threads;
+  private final FormulaManagerView fmgr;
+  private final ShutdownNotifier shutdownNotifier;
+
+  /** The persistent cache of the main solver already covers the queries of the workers. */
+  private final WorkerSolvers workers;
+
+  /** sum of the CPU time that the worker threads spent on checking predicates (in ns) */
+  private final AtomicLong workerCpuTime;
+
+  ParallelCartesianAbstraction(
+      int pThreads,
+      FormulaManagerView pFmgr,
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier,
+      AtomicLong pWorkerCpuTime)
+      throws InvalidConfigurationException {
+    threads = pThreads;
+    fmgr = pFmgr;
+    shutdownNotifier = pShutdownNotifier;
+    workerCpuTime = pWorkerCpuTime;
+    workers =
+        new WorkerSolvers(
+            pThreads, "Cartesian abstraction worker %d", pConfig, pLogger, pShutdownNotifier);
+  }
+
+  /**
+   * Determine the value of each of the given (instantiated) predicates
+   * under the given (instantiated and satisfiable) formula.
+   *
+   * @return an array with one entry per predicate, in the same order
+   */
+  byte[] computePredicateValues(BooleanFormula f, List<BooleanFormula> pPredicates)
+      throws SolverException, InterruptedException {
+    String formula = fmgr.dumpFormula(f).toString();
+    List<String> predicates = new ArrayList<>(pPredicates.size());
+    for (BooleanFormula predicate : pPredicates) {
+      predicates.add(fmgr.dumpFormula(predicate).toString());
+    }
+
+    byte[] result = new byte[predicates.size()];
+    int chunkSize = (predicates.size() + threads - 1) / threads;
+    List<Future<?>> futures = new ArrayList<>(threads);
+    for (int start = 0; start < predicates.size(); start += chunkSize) {
+      int end = Math.min(start + chunkSize, predicates.size());
+      int offset = start;
+      List<String> chunk = predicates.subList(start, end);
+      futures.add(
+          workers.getExecutor().submit(
+              () -> {
+                checkChunk(formula, chunk, result, offset);
+                return null;
+              }));
+    }
+
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (ExecutionException e) {
+      Throwable t = e.getCause();
+      Throwables.propagateIfPossible(t, SolverException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("parallel Cartesian abstraction", t);
+    } finally {
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+    }
+    return result;
+  }
+
+  /** Runs in a worker thread and writes into distinct indices of the result array. */
+  private void checkChunk(String pFormula, List<String> pPredicates, byte[] pResult, int pOffset)
+      throws SolverException, InterruptedException {
+    ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    long startCpuTime = threadBean.getCurrentThreadCpuTime();
+    Solver solver = workers.takeSolver();
+    try {
+      FormulaManagerView workerFmgr = solver.getFormulaManager();
+      BooleanFormulaManagerView workerBfmgr = workerFmgr.getBooleanFormulaManager();
+      try (ProverEnvironment prover = solver.newProverEnvironment()) {
+        prover.push(workerFmgr.parse(pFormula));
+
+        for (int i = 0; i < pPredicates.size(); i++) {
+          shutdownNotifier.shutdownIfNecessary();
+          BooleanFormula predTrue = workerFmgr.parse(pPredicates.get(i));
+          byte predVal = 0;
+
+          prover.push(workerBfmgr.not(predTrue));
+          boolean isTrue = prover.isUnsat();
+          prover.pop();
+
+          if (isTrue) {
+            predVal = 1;
+          } else {
+            prover.push(predTrue);
+            boolean isFalse = prover.isUnsat();
+            prover.pop();
+            if (isFalse) {
+              predVal = -1;
+            }
+          }
+          pResult[pOffset + i] = predVal;
+        }
+      }
+    } finally {
+      workers.releaseSolver(solver);
+      if (startCpuTime >= 0) {
+        workerCpuTime.addAndGet(threadBean.getCurrentThreadCpuTime() - startCpuTime);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    workers.close();
+  }
+}
@@ -29,11 +29,16 @@ import static com.google.common.base.Predicates.equalTo;
 import com.google.common.base.Functions;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
+import com.google.common.primitives.Ints;
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.charset.Charset;
@@ -50,6 +55,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.logging.Level;
 import javax.annotation.Nullable;
@@ -57,6 +63,7 @@ import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.collect.Collections3;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -76,6 +83,7 @@ import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.predicates.AbstractionFormula;
 import org.sosy_lab.cpachecker.util.predicates.AbstractionManager;
 import org.sosy_lab.cpachecker.util.predicates.AbstractionPredicate;
+import org.sosy_lab.cpachecker.util.predicates.FormulaMeasuring;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormula;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManager;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap;
@@ -126,6 +134,10 @@ public class PredicateAbstractionManager {
 
     public long allSatCount = 0;
     public int maxAllSatCount = 0;
+
+    public int numParallelCartesianAbstractions = 0;
+    public final Timer parallelCartesianAbstractionTime = new Timer();
+    public final AtomicLong parallelCartesianAbstractionCpuTime = new AtomicLong(); // in ns, sum over all worker threads
   }
 
   final Stats stats = new Stats();
@@ -176,6 +188,19 @@ public class PredicateAbstractionManager {
   @Option(secure=true, name = "abs.useCache", description = "use caching of abstractions")
   private boolean useCache = true;
 
+  @Option(secure=true, name = "abs.cacheMaxWeight",
+      description="Maximal weight of each cache of abstractions (0 for unlimited)."
+          + " The weight of an entry is the size of the DAG of its formula"
+          + " plus the number of its predicates."
+          + " If a cache is full, the entries that were not used recently are removed.")
+  @IntegerOption(min = 0)
+  private long cacheMaxWeight = 0;
+
+  @Option(secure=true, name = "abs.softCacheValues",
+      description="Reference the cached abstractions only softly,"
+          + " such that the garbage collector can remove them if memory gets low.")
+  private boolean softCacheValues = false;
+
   @Option(secure=true, name="refinement.splitItpAtoms",
       description="split each arithmetic equality into two inequalities when extracting predicates from interpolants")
   private boolean splitItpAtoms = false;
@@ -188,20 +213,35 @@ public class PredicateAbstractionManager {
       description="Simplify the abstraction formula that is stored to represent the state space. Helpful when debugging (formulas get smaller).")
   private boolean simplifyAbstractionFormula = false;
 
+  @Option(secure=true, name = "abstraction.cartesianThreads",
+      description="Number of threads that check the predicates of the Cartesian abstraction in parallel,"
+          + " each with its own solver instance. With 1, the predicates are checked sequentially"
+          + " with the same solver as the rest of the abstraction computation.")
+  @IntegerOption(min = 1)
+  private int cartesianAbstractionThreads = 1;
+
+  @Option(secure=true, name = "abstraction.cartesianThreadsMinPredicates",
+      description="Minimal number of uncached predicates for which the Cartesian abstraction"
+          + " is computed in parallel (transferring the formulas to the other solvers has some overhead).")
+  @IntegerOption(min = 1)
+  private int minPredicatesForParallelCartesianAbstraction = 8;
+
   private boolean warnedOfCartesianAbstraction = false;
 
   private boolean abstractionReuseDisabledBecauseOfAmbiguity = false;
 
-  private final Map<Pair<BooleanFormula, ImmutableSet<BooleanFormula>>, AbstractionFormula>
+  private final Cache<Pair<BooleanFormula, ImmutableSet<BooleanFormula>>, AbstractionFormula>
       abstractionCache;
 
   // Cache for satisfiability queries: if formula is contained, it is unsat
-  private final Set<BooleanFormula> unsatisfiabilityCache;
+  private final Cache<BooleanFormula, Boolean> unsatisfiabilityCache;
 
-  //cache for cartesian abstraction queries. For each predicate, the values
+  //cache for cartesian abstraction queries. For each formula and predicate, the values
   // are -1: predicate is false, 0: predicate is don't care,
   // 1: predicate is true
-  private final Map<Pair<BooleanFormula, AbstractionPredicate>, Byte> cartesianAbstractionCache;
+  private final Cache<BooleanFormula, Map<AbstractionPredicate, Byte>> cartesianAbstractionCache;
+
+  private final @Nullable ParallelCartesianAbstraction parallelCartesianAbstraction;
 
   public PredicateAbstractionManager(
       AbstractionManager pAmgr,
@@ -237,17 +277,44 @@ public class PredicateAbstractionManager {
     } else {
       weakeningManager = null;
     }
+    if (cartesianAbstractionThreads > 1
+        && (abstractionType == AbstractionType.CARTESIAN
+            || abstractionType == AbstractionType.COMBINED)) {
+      parallelCartesianAbstraction =
+          new ParallelCartesianAbstraction(
+              cartesianAbstractionThreads,
+              fmgr,
+              pConfig,
+              pLogger,
+              pShutdownNotifier,
+              stats.parallelCartesianAbstractionCpuTime);
+    } else {
+      parallelCartesianAbstraction = null;
+    }
 
+    FormulaMeasuring formulaMeasuring = new FormulaMeasuring(fmgr);
     if (useCache) {
-      abstractionCache = new HashMap<>();
-      unsatisfiabilityCache = new HashSet<>();
+      abstractionCache =
+          createCache(
+              softCacheValues,
+              (key, value) ->
+                  Ints.saturatedCast(
+                      (long) formulaMeasuring.countDagNodes(key.getFirst())
+                          + key.getSecond().size()));
+      // values are always Boolean.TRUE, so soft references would not help
+      unsatisfiabilityCache =
+          createCache(false, (key, value) -> formulaMeasuring.countDagNodes(key));
     } else {
       abstractionCache = null;
       unsatisfiabilityCache = null;
     }
 
     if (useCache && (abstractionType != AbstractionType.BOOLEAN)) {
-      cartesianAbstractionCache = new HashMap<>();
+      cartesianAbstractionCache =
+          createCache(
+              softCacheValues,
+              (key, value) ->
+                  Ints.saturatedCast((long) formulaMeasuring.countDagNodes(key) + value.size()));
     } else {
       cartesianAbstractionCache = null;
     }
@@ -255,6 +322,39 @@ public class PredicateAbstractionManager {
     abstractionStorage = new PredicateAbstractionsStorage(reuseAbstractionsFrom, logger, fmgr, null);
   }
 
+  private <K, V> Cache<K, V> createCache(boolean pSoftValues, Weigher<K, V> pWeigher) {
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+    if (pSoftValues) {
+      builder.softValues();
+    }
+    if (cacheMaxWeight > 0) {
+      return builder.maximumWeight(cacheMaxWeight).weigher(pWeigher).build();
+    }
+    return builder.build();
+  }
+
+  /** Return the statistics of all caches (the map is empty if caching is disabled). */
+  ImmutableMap<String, CacheStats> getCacheStatistics() {
+    ImmutableMap.Builder<String, CacheStats> result = ImmutableMap.builder();
+    if (abstractionCache != null) {
+      result.put("Abstraction cache", abstractionCache.stats());
+    }
+    if (unsatisfiabilityCache != null) {
+      result.put("Unsatisfiability cache", unsatisfiabilityCache.stats());
+    }
+    if (cartesianAbstractionCache != null) {
+      result.put("Cartesian abstraction cache", cartesianAbstractionCache.stats());
+    }
+    return result.build();
+  }
+
+  /** Release the additional solvers and threads that this instance might use. */
+  void close() {
+    if (parallelCartesianAbstraction != null) {
+      parallelCartesianAbstraction.close();
+    }
+  }
+
   /**
    * Compute an abstraction of a single boolean formula.
    * @param f The formula to be abstracted. Needs to be instantiated
@@ -292,8 +392,8 @@ public class PredicateAbstractionManager {
 
   public void clear() {
     if (useCache) {
-      abstractionCache.clear();
-      unsatisfiabilityCache.clear();
+      abstractionCache.invalidateAll();
+      unsatisfiabilityCache.invalidateAll();
     }
   }
   /**
@@ -362,12 +462,14 @@ public class PredicateAbstractionManager {
 
     // caching
     Pair<BooleanFormula, ImmutableSet<BooleanFormula>> absKey = null;
+    BooleanFormula cacheKeyFormula = null;
     if (useCache) {
       ImmutableSet<BooleanFormula> instantiatedPreds =
           Collections3.transformedImmutableSetCopy(
               remainingPredicates, pred -> instantiator.apply(pred.getSymbolicAtom()));
-      absKey = Pair.of(f, instantiatedPreds);
-      AbstractionFormula result = abstractionCache.get(absKey);
+      cacheKeyFormula = solver.normalize(f);
+      absKey = Pair.of(cacheKeyFormula, instantiatedPreds);
+      AbstractionFormula result = abstractionCache.getIfPresent(absKey);
 
       if (result != null) {
         // create new abstraction object to have a unique abstraction id
@@ -384,8 +486,9 @@ public class PredicateAbstractionManager {
         return result;
       }
 
-      boolean unsatisfiable = unsatisfiabilityCache.contains(symbFormula)
-                            || unsatisfiabilityCache.contains(f);
+      boolean unsatisfiable =
+          unsatisfiabilityCache.getIfPresent(solver.normalize(symbFormula)) != null
+              || unsatisfiabilityCache.getIfPresent(cacheKeyFormula) != null;
       if (unsatisfiable) {
         // block is infeasible
         logger.log(Level.FINEST, "Block feasibility of abstraction", stats.numCallsAbstraction, "was cached and is false.");
@@ -441,7 +544,7 @@ public class PredicateAbstractionManager {
       abstractionCache.put(absKey, result);
 
       if (result.isFalse()) {
-        unsatisfiabilityCache.add(f);
+        unsatisfiabilityCache.put(cacheKeyFormula, Boolean.TRUE);
       }
     }
 
@@ -483,7 +586,8 @@ public class PredicateAbstractionManager {
       return bfmgr.makeTrue();
     }
 
-    if (unsatisfiabilityCache.contains(pF)) {
+    final BooleanFormula cacheKeyFormula = useCache ? solver.normalize(pF) : pF;
+    if (useCache && unsatisfiabilityCache.getIfPresent(cacheKeyFormula) != null) {
       stats.numCallsAbstractionCached++;
       return bfmgr.makeFalse();
     }
@@ -501,8 +605,8 @@ public class PredicateAbstractionManager {
       symbolicAbs = fmgr.simplify(symbolicAbs);
     }
 
-    if (bfmgr.isFalse(symbolicAbs)) {
-      unsatisfiabilityCache.add(pF);
+    if (useCache && bfmgr.isFalse(symbolicAbs)) {
+      unsatisfiabilityCache.put(cacheKeyFormula, Boolean.TRUE);
     }
 
     return symbolicAbs;
@@ -850,12 +954,21 @@ public class PredicateAbstractionManager {
 
       // check whether each of the predicate is implied in the next state...
 
-      final Iterator<AbstractionPredicate> predicateIt = pPredicates.iterator();
-      while (predicateIt.hasNext()) {
-        final AbstractionPredicate p = predicateIt.next();
-        Pair<BooleanFormula, AbstractionPredicate> cacheKey = Pair.of(f, p);
-        if (useCache && cartesianAbstractionCache.containsKey(cacheKey)) {
-          byte predVal = cartesianAbstractionCache.get(cacheKey);
+      Map<AbstractionPredicate, Byte> cachedValues = null;
+      final BooleanFormula cacheKeyFormula = useCache ? solver.normalize(f) : f;
+      if (useCache) {
+        cachedValues = cartesianAbstractionCache.getIfPresent(cacheKeyFormula);
+      }
+      if (cachedValues == null) {
+        cachedValues = new HashMap<>();
+      }
+
+      final List<AbstractionPredicate> uncachedPredicates = new ArrayList<>();
+      final Set<AbstractionPredicate> handledPredicates = new HashSet<>();
+      for (AbstractionPredicate p : pPredicates) {
+        Byte cachedVal = cachedValues.get(p);
+        if (cachedVal != null) {
+          byte predVal = cachedVal;
           stats.numCartesianAbsPredicatesCached++;
 
           stats.abstractionEnumTime.getCurentInnerTimer().start();
@@ -873,6 +986,40 @@ public class PredicateAbstractionManager {
           stats.abstractionEnumTime.getCurentInnerTimer().stop();
 
         } else {
+          uncachedPredicates.add(p);
+        }
+      }
+
+      final byte[] predVals;
+      if (parallelCartesianAbstraction != null
+          && uncachedPredicates.size() >= minPredicatesForParallelCartesianAbstraction) {
+        // instantiate the definitions of the predicates
+        List<BooleanFormula> instantiatedPredicates = new ArrayList<>(uncachedPredicates.size());
+        for (AbstractionPredicate p : uncachedPredicates) {
+          instantiatedPredicates.add(instantiator.apply(p.getSymbolicAtom()));
+        }
+
+        stats.numParallelCartesianAbstractions++;
+        stats.parallelCartesianAbstractionTime.start();
+        try {
+          predVals =
+              parallelCartesianAbstraction.computePredicateValues(f, instantiatedPredicates);
+        } finally {
+          stats.parallelCartesianAbstractionTime.stop();
+        }
+
+      } else if (solver.usesWorkerProcesses() && uncachedPredicates.size() > 1) {
+        // independent queries are checked in parallel by the worker processes of the solver
+        List<BooleanFormula> instantiatedPredicates = new ArrayList<>(uncachedPredicates.size());
+        for (AbstractionPredicate p : uncachedPredicates) {
+          instantiatedPredicates.add(instantiator.apply(p.getSymbolicAtom()));
+        }
+        predVals = computePredicateValuesWithWorkers(f, instantiatedPredicates);
+
+      } else {
+        predVals = new byte[uncachedPredicates.size()];
+        for (int i = 0; i < predVals.length; i++) {
+          AbstractionPredicate p = uncachedPredicates.get(i);
           logger.log(Level.ALL, "DEBUG_1",
               "CHECKING VALUE OF PREDICATE: ", p.getSymbolicAtom());
 
@@ -889,13 +1036,6 @@ public class PredicateAbstractionManager {
           thmProver.pop();
 
           if (isTrue) {
-            stats.numCartesianAbsPredicates++;
-            stats.abstractionEnumTime.getCurentInnerTimer().start();
-            Region v = p.getAbstractVariable();
-            absbdd = rmgr.makeAnd(absbdd, v);
-            predicateIt.remove(); // mark predicate as handled
-            stats.abstractionEnumTime.getCurentInnerTimer().stop();
-
             predVal = 1;
           } else {
             // check whether it's false...
@@ -904,22 +1044,36 @@ public class PredicateAbstractionManager {
             thmProver.pop();
 
             if (isFalse) {
-              stats.numCartesianAbsPredicates++;
-              stats.abstractionEnumTime.getCurentInnerTimer().start();
-              Region v = p.getAbstractVariable();
-              v = rmgr.makeNot(v);
-              absbdd = rmgr.makeAnd(absbdd, v);
-              predicateIt.remove(); // mark predicate as handled
-              stats.abstractionEnumTime.getCurentInnerTimer().stop();
-
               predVal = -1;
             }
           }
+          predVals[i] = predVal;
+        }
+      }
+
+      for (int i = 0; i < predVals.length; i++) {
+        AbstractionPredicate p = uncachedPredicates.get(i);
+        byte predVal = predVals[i];
 
-          if (useCache) {
-            cartesianAbstractionCache.put(cacheKey, predVal);
+        if (predVal != 0) {
+          stats.numCartesianAbsPredicates++;
+          stats.abstractionEnumTime.getCurentInnerTimer().start();
+          Region v = p.getAbstractVariable();
+          if (predVal == -1) { // pred is false
+            v = rmgr.makeNot(v);
           }
+          absbdd = rmgr.makeAnd(absbdd, v);
+          handledPredicates.add(p); // mark predicate as handled
+          stats.abstractionEnumTime.getCurentInnerTimer().stop();
         }
+
+        cachedValues.put(p, predVal);
+      }
+      pPredicates.removeAll(handledPredicates);
+
+      if (useCache && !uncachedPredicates.isEmpty()) {
+        // put again such that the weight of the entry is updated
+        cartesianAbstractionCache.put(cacheKeyFormula, cachedValues);
       }
 
       return absbdd;
@@ -1142,6 +1296,47 @@ public class PredicateAbstractionManager {
     return amgr.entails(a1.asRegion(), a2.asRegion());
   }
 
+  /**
+   * Compute the values of the given (instantiated) predicates for a formula
+   * like the sequential Cartesian abstraction,
+   * but with independent satisfiability checks that the solver can dispatch in parallel.
+   *
+   * @return for each predicate 1 if it is implied by f, -1 if its negation is implied, else 0
+   */
+  private byte[] computePredicateValuesWithWorkers(
+      BooleanFormula f, List<BooleanFormula> pPredicates)
+      throws SolverException, InterruptedException {
+    List<BooleanFormula> queries = new ArrayList<>(pPredicates.size());
+    for (BooleanFormula predicate : pPredicates) {
+      queries.add(bfmgr.and(f, bfmgr.not(predicate)));
+    }
+    List<Boolean> isTrue = solver.isUnsatEach(queries);
+
+    // check only the predicates that are not true whether they are false
+    List<Integer> remaining = new ArrayList<>();
+    queries.clear();
+    for (int i = 0; i < pPredicates.size(); i++) {
+      if (!isTrue.get(i)) {
+        remaining.add(i);
+        queries.add(bfmgr.and(f, pPredicates.get(i)));
+      }
+    }
+    List<Boolean> isFalse = solver.isUnsatEach(queries);
+
+    byte[] predVals = new byte[pPredicates.size()];
+    for (int i = 0; i < predVals.length; i++) {
+      if (isTrue.get(i)) {
+        predVals[i] = 1;
+      }
+    }
+    for (int j = 0; j < remaining.size(); j++) {
+      if (isFalse.get(j)) {
+        predVals[remaining.get(j)] = -1;
+      }
+    }
+    return predVals;
+  }
+
   /**
    * Checks if (a1 & p1) => a2
    */
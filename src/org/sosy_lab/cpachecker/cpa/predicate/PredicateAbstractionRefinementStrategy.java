@@ -31,6 +31,8 @@ import static org.sosy_lab.cpachecker.util.AbstractStates.extractLocation;
 
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableList;
@@ -54,6 +56,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.FileOption.Type;
@@ -157,6 +160,28 @@ public class PredicateAbstractionRefinementStrategy extends RefinementStrategy
   @FileOption(Type.OUTPUT_FILE)
   private PathTemplate dumpPredicatesFile = PathTemplate.ofFormatString("refinement%04d-predicates.prec");
 
+  @Option(secure=true, name="refinement.cacheInterpolantPredicates",
+      description="Cache the predicates that were extracted from each interpolant, "
+          + "such that interpolants that occur again in later refinements "
+          + "do not need to be converted again.")
+  private boolean cacheInterpolantPredicates = false;
+
+  @Option(secure=true, name="refinement.interpolantPredicatesCacheSize",
+      description="Maximal number of interpolants whose predicates are cached "
+          + "(cf. cpa.predicate.refinement.cacheInterpolantPredicates). "
+          + "If the cache is full, the interpolant that was not used for the longest time "
+          + "is removed.")
+  @IntegerOption(min=1)
+  private int interpolantPredicatesCacheSize = 10000;
+
+  @Option(secure=true, name="refinement.maxInterpolantAtoms",
+      description="Interpolants with more atoms than this are considered oversized: "
+          + "they are simplified with BDDs before predicates are extracted, "
+          + "and if atomic predicates are not used, they are split into their conjuncts "
+          + "instead of being added as one large predicate. 0 to disable.")
+  @IntegerOption(min=0)
+  private int maxInterpolantAtoms = 0;
+
   private int refinementCount = 0; // this is modulo restartAfterRefinements
 
   private boolean atomicPredicates = false;
@@ -168,9 +193,19 @@ public class PredicateAbstractionRefinementStrategy extends RefinementStrategy
   private final FormulaMeasuring formulaMeasuring;
   private final PredicateMapWriter precisionWriter;
 
+  // uninstantiated interpolant -> predicates extracted from it,
+  // the predicates are uninstantiated and do not depend on the rest of the refinement
+  // (the block formula is only used for instantiating the interpolant during BDD simplification)
+  private final @Nullable Cache<BooleanFormula, Collection<AbstractionPredicate>>
+      interpolantPredicatesCache;
+
   // statistics
   private StatCounter numberOfRefinementsWithStrategy2 = new StatCounter("Number of refs with location-based cutoff");
   private StatInt irrelevantPredsInItp = new StatInt(StatKind.SUM, "Number of irrelevant preds in interpolants");
+  private StatCounter interpolantCacheHits = new StatCounter("Number of cached interpolants");
+  private StatCounter oversizedInterpolants = new StatCounter("Number of oversized interpolants");
+  private StatInt foundPredicates = new StatInt(StatKind.SUM, "Number of predicates found");
+  private StatInt addedPredicates = new StatInt(StatKind.SUM, "Number of predicates added");
 
   private StatTimer predicateCreation = new StatTimer(StatKind.SUM, "Predicate creation");
   private StatTimer precisionUpdate = new StatTimer(StatKind.SUM, "Precision update");
@@ -217,6 +252,12 @@ public class PredicateAbstractionRefinementStrategy extends RefinementStrategy
       w0.put(numberOfRefinementsWithStrategy2)
         .ifUpdatedAtLeastOnce(itpSimplification)
           .put(irrelevantPredsInItp);
+
+      w0.put(foundPredicates)
+        .put(addedPredicates)
+        .put(oversizedInterpolants)
+        .ifTrue(cacheInterpolantPredicates)
+          .put(interpolantCacheHits);
     }
   }
 
@@ -236,6 +277,13 @@ public class PredicateAbstractionRefinementStrategy extends RefinementStrategy
     predAbsMgr = pPredAbsMgr;
     formulaMeasuring = new FormulaMeasuring(fmgr);
 
+    if (cacheInterpolantPredicates) {
+      interpolantPredicatesCache =
+          CacheBuilder.newBuilder().maximumSize(interpolantPredicatesCacheSize).build();
+    } else {
+      interpolantPredicatesCache = null;
+    }
+
     if (dumpPredicates && dumpPredicatesFile != null) {
       precisionWriter = new PredicateMapWriter(config, fmgr);
     } else {
@@ -294,11 +342,34 @@ public class PredicateAbstractionRefinementStrategy extends RefinementStrategy
       return Collections.<AbstractionPredicate>emptySet();
     }
 
+    BooleanFormula cacheKey = null;
+    if (interpolantPredicatesCache != null) {
+      cacheKey = fmgr.uninstantiate(interpolant);
+      Collection<AbstractionPredicate> cachedPreds =
+          interpolantPredicatesCache.getIfPresent(cacheKey);
+      if (cachedPreds != null) {
+        interpolantCacheHits.inc();
+        return cachedPreds;
+      }
+    }
+
     Collection<AbstractionPredicate> preds;
 
+    FormulaMeasures itpBeforeSimple = null;
+    boolean oversized = false;
+    if (maxInterpolantAtoms > 0) {
+      itpBeforeSimple = formulaMeasuring.measure(interpolant);
+      oversized = itpBeforeSimple.getAtoms() > maxInterpolantAtoms;
+      if (oversized) {
+        oversizedInterpolants.inc();
+      }
+    }
+
     int allPredsCount = 0;
-    if (useBddInterpolantSimplification) {
-      FormulaMeasures itpBeforeSimple = formulaMeasuring.measure(interpolant);
+    if (useBddInterpolantSimplification || oversized) {
+      if (itpBeforeSimple == null) {
+        itpBeforeSimple = formulaMeasuring.measure(interpolant);
+      }
 
       itpSimplification.start();
       // need to call extractPredicates() for registering all predicates
@@ -322,15 +393,28 @@ public class PredicateAbstractionRefinementStrategy extends RefinementStrategy
     if (atomicPredicates) {
       preds = predAbsMgr.getPredicatesForAtomsOf(interpolant);
 
-      if (useBddInterpolantSimplification) {
+      if (useBddInterpolantSimplification || oversized) {
         irrelevantPredsInItp.setNextValue(allPredsCount-preds.size());
       }
 
+    } else if (oversized) {
+      // Each conjunct as a separate predicate is at least as precise as the whole interpolant,
+      // but the predicates are smaller and more likely to be useful for other paths.
+      ImmutableList.Builder<AbstractionPredicate> conjunctPreds = ImmutableList.builder();
+      for (BooleanFormula conjunct : bfmgr.toConjunctionArgs(interpolant, true)) {
+        conjunctPreds.add(predAbsMgr.getPredicateFor(conjunct));
+      }
+      preds = conjunctPreds.build();
+
     } else {
       preds = ImmutableList.of(predAbsMgr.getPredicateFor(interpolant));
     }
     assert !preds.isEmpty() : "Interpolant without relevant predicates: " + pInterpolant + "; simplified to " + interpolant;
 
+    if (interpolantPredicatesCache != null) {
+      interpolantPredicatesCache.put(cacheKey, preds);
+    }
+
     logger.log(Level.FINEST, "Got predicates", preds);
 
     return preds;
@@ -418,6 +502,9 @@ public class PredicateAbstractionRefinementStrategy extends RefinementStrategy
     logger.log(Level.ALL, "Predicate map now is", newPrecision);
     logger.log(Level.ALL, "Difference of predicates is", newPrecision.subtract(basePrecision));
 
+    foundPredicates.setNextValue(newPredicates.size());
+    addedPredicates.setNextValue(newPrecision.calculateDifferenceTo(basePrecision));
+
     assert basePrecision.calculateDifferenceTo(newPrecision) == 0
         : "We forgot predicates during refinement!";
     assert targetStatePrecision.calculateDifferenceTo(newPrecision) == 0
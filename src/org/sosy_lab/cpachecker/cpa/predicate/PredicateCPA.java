@@ -56,6 +56,7 @@ import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
 import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
+import org.sosy_lab.cpachecker.util.CPAs;
 import org.sosy_lab.cpachecker.util.blocking.BlockedCFAReducer;
 import org.sosy_lab.cpachecker.util.blocking.interfaces.BlockComputer;
 import org.sosy_lab.cpachecker.util.predicates.AbstractionManager;
@@ -71,7 +72,9 @@ import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
 import org.sosy_lab.cpachecker.util.refinement.PrefixProvider;
 import org.sosy_lab.java_smt.api.SolverException;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.logging.Level;
 
 /**
@@ -129,6 +132,9 @@ public class PredicateCPA
   private final PredicateCPAInvariantsManager invariantsManager;
   private final BlockOperator blk;
 
+  /** objects that use the solver of this CPA and are closed together with it */
+  private final List<AutoCloseable> dependentCloseables = new ArrayList<>();
+
   protected PredicateCPA(
       Configuration config,
       LogManager logger,
@@ -322,8 +328,21 @@ public class PredicateCPA
     invariantsManager.collectStatistics(pStatsCollection);
   }
 
+  /**
+   * Register an object that depends on this CPA (e.g., a refiner with its own solvers)
+   * such that it is closed when this CPA is closed.
+   */
+  synchronized void registerForClose(AutoCloseable pCloseable) {
+    dependentCloseables.add(pCloseable);
+  }
+
   @Override
-  public void close() {
+  public synchronized void close() {
+    for (AutoCloseable closeable : dependentCloseables) {
+      CPAs.closeIfPossible(closeable, logger);
+    }
+    dependentCloseables.clear();
+    predicateManager.close();
     solver.close();
   }
 
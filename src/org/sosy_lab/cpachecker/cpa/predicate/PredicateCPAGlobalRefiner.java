@@ -27,6 +27,8 @@ import static java.util.Collections.unmodifiableList;
 import static org.sosy_lab.cpachecker.cpa.predicate.PredicateAbstractState.getPredicateState;
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsWriter.writingStatisticsTo;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
@@ -40,7 +42,12 @@ import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -61,8 +68,11 @@ import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.StatTimer;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.BooleanFormulaManager;
 import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
@@ -75,7 +85,7 @@ import org.sosy_lab.java_smt.api.SolverException;
  * abstraction, this is left to an instance of {@link GlobalRefinementStrategy}.
  */
 @Options(prefix="cpa.predicate.refinement.global")
-public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider {
+public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider, AutoCloseable {
 
   @Option(secure = true,
           description = "Instead of updating precision and arg we say that the refinement was not successful"
@@ -84,19 +94,42 @@ public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider {
   @IntegerOption(min = 0)
   private int stopAfterNRefinements = 0;
 
+  @Option(secure = true,
+          description = "Number of threads that check and interpolate the paths"
+              + " to the target states in parallel, each with its own solver instance."
+              + " With more than one thread, one path to each target state is checked"
+              + " separately (instead of checking the tree of all paths with one solver),"
+              + " and the predicates for all paths are added in a single update of the ARG.")
+  @IntegerOption(min = 1)
+  private int threads = 1;
+
   // statistics
   private final StatTimer totalTime = new StatTimer("Time for refinement");
-  private final StatTimer interpolationTime = new StatTimer("Time for interpolation");
-  private final StatTimer satCheckTime = new StatTimer("Time for sat-checks");
+  private final ThreadSafeTimerContainer interpolationTime =
+      new ThreadSafeTimerContainer("Time for interpolation");
+  private final ThreadSafeTimerContainer satCheckTime =
+      new ThreadSafeTimerContainer("Time for sat-checks");
+  // timers for the main thread, the worker threads of parallel refinement use their own timers
+  private final TimerWrapper interpolationTimer = interpolationTime.getNewTimer();
+  private final TimerWrapper satCheckTimer = satCheckTime.getNewTimer();
+  private final StatTimer parallelCheckTime = new StatTimer("Time for parallel path checks");
+  private final StatCounter parallelCheckedPaths =
+      new StatCounter("Number of paths checked in parallel");
 
   private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
   private final GlobalRefinementStrategy strategy;
   private final Solver solver;
+  private final FormulaManagerView fmgr;
   private final BooleanFormulaManager bfmgr;
   private final ARGCPA argCPA;
 
+  // only for parallel refinement
+  private final @Nullable WorkerSolvers workers;
+
   public PredicateCPAGlobalRefiner(
       final LogManager pLogger,
+      final ShutdownNotifier pShutdownNotifier,
       final FormulaManagerView pFmgr,
       final GlobalRefinementStrategy pStrategy,
       final Solver pSolver,
@@ -105,11 +138,21 @@ public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider {
     pConfig.inject(this);
 
     logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+    fmgr = pFmgr;
     bfmgr = pFmgr.getBooleanFormulaManager();
     solver = pSolver;
     strategy = pStrategy;
     argCPA = pArgcpa;
 
+    if (threads > 1) {
+      workers =
+          new WorkerSolvers(
+              threads, "Global refinement worker %d", pConfig, pLogger, pShutdownNotifier);
+    } else {
+      workers = null;
+    }
+
     logger.log(
         Level.INFO,
         "Using refinement for predicate analysis with "
@@ -129,7 +172,10 @@ public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider {
 
       ARGReachedSet argReachedSet = new ARGReachedSet(pReached, argCPA);
       strategy.initializeGlobalRefinement();
-      Optional<ARGState> errorState = doPathWiseRefinement(argReachedSet, targets);
+      Optional<ARGState> errorState =
+          threads > 1
+              ? doParallelRefinement(argReachedSet, targets)
+              : doPathWiseRefinement(argReachedSet, targets);
 
       // TODO fix handling of counterexamples
       // + 1 for update count as the current interval is not finished
@@ -260,9 +306,9 @@ public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider {
       itpStack.add(itpProver.push(blockFormula));
       currentPath.add(succ);
       try {
-        satCheckTime.start();
+        satCheckTimer.start();
         boolean isUnsat = itpProver.isUnsat();
-        satCheckTime.stop();
+        satCheckTimer.stop();
         if (isUnsat) {
           logger.log(Level.FINE, "Found unreachable state", succ);
           List<ARGState> abstractionStatesTrace = new ArrayList<>(currentPath);
@@ -306,6 +352,160 @@ public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider {
     return Optional.empty();
   }
 
+  /**
+   * Do refinement for a set of target states by checking one path to each target state
+   * in parallel, each with a separate solver.
+   *
+   * The block formulas are transferred to the worker solvers and the interpolants back
+   * as SMT-LIB strings. There is one worker solver per thread,
+   * which is reused for the following refinements.
+   * The interpolants of all paths are given to the strategy in the main thread,
+   * which collects the predicates and applies them later in a single ARG update.
+   *
+   * @return The first feasible target state (in the order of the given targets) or absent
+   */
+  private Optional<ARGState> doParallelRefinement(
+      ARGReachedSet pReached, List<AbstractState> targets)
+      throws CPAException, InterruptedException, SolverException {
+    logger.log(Level.FINE, "Starting parallel refinement for", targets.size(), "elements.");
+
+    // one path of abstraction states (without the root) for each target
+    List<List<ARGState>> traces = new ArrayList<>(targets.size());
+    List<List<String>> blockFormulas = new ArrayList<>(targets.size());
+    for (AbstractState target : targets) {
+      List<ARGState> trace = new ArrayList<>();
+      List<String> formulas = new ArrayList<>();
+      ARGState currentState = (ARGState) target;
+      while (!currentState.getParents().isEmpty()) {
+        assert currentState.mayCover();
+        trace.add(currentState);
+        formulas.add(
+            fmgr.dumpFormula(
+                    getPredicateState(currentState)
+                        .getAbstractionFormula()
+                        .getBlockFormula()
+                        .getFormula())
+                .toString());
+        do {
+          currentState = currentState.getParents().iterator().next();
+        } while (!getPredicateState(currentState).isAbstractionState());
+      }
+      traces.add(Lists.reverse(trace));
+      blockFormulas.add(Lists.reverse(formulas));
+    }
+
+    List<Optional<List<String>>> results = new ArrayList<>(targets.size());
+    List<Future<Optional<List<String>>>> futures = new ArrayList<>(targets.size());
+    parallelCheckTime.start();
+    try {
+      for (List<String> formulas : blockFormulas) {
+        futures.add(workers.getExecutor().submit(() -> checkPath(formulas)));
+      }
+      for (Future<Optional<List<String>>> future : futures) {
+        results.add(future.get());
+        parallelCheckedPaths.inc();
+      }
+    } catch (ExecutionException e) {
+      Throwable t = e.getCause();
+      Throwables.propagateIfPossible(t, SolverException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("parallel refinement", t);
+    } finally {
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+      parallelCheckTime.stop();
+    }
+
+    for (int i = 0; i < targets.size(); i++) {
+      List<ARGState> trace = traces.get(i);
+      Optional<List<String>> interpolants = results.get(i);
+      if (!interpolants.isPresent()) {
+        // We have found a reachable target state, immediately abort refinement.
+        logger.log(Level.FINE, "Found reachable target state", targets.get(i));
+        return Optional.of((ARGState) targets.get(i));
+      }
+
+      List<BooleanFormula> parsedInterpolants = new ArrayList<>(trace.size() - 1);
+      for (String interpolant : interpolants.get()) {
+        parsedInterpolants.add(fmgr.parse(interpolant));
+      }
+      // fill up interpolants with false as the states after the unreachable state are unreachable
+      while (parsedInterpolants.size() < trace.size() - 1) {
+        parsedInterpolants.add(bfmgr.makeFalse());
+      }
+
+      // TODO repeated counterexample is always false currently, we also ignore the return value
+      strategy.performRefinement(pReached, trace, parsedInterpolants, false);
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Check the feasibility of one path with a worker solver (runs in a worker thread).
+   *
+   * @return The interpolants for all states before the first unreachable state,
+   *     or absent if the path is feasible
+   */
+  private Optional<List<String>> checkPath(List<String> pBlockFormulas)
+      throws SolverException, InterruptedException {
+    Solver workerSolver = workers.takeSolver();
+    try (InterpolatingProverEnvironment<?> itpProver =
+        workerSolver.newProverEnvironmentWithInterpolation()) {
+      return checkPath(pBlockFormulas, workerSolver.getFormulaManager(), itpProver);
+    } finally {
+      workers.releaseSolver(workerSolver);
+    }
+  }
+
+  // This is just a separate method to get the generics right.
+  private <T> Optional<List<String>> checkPath(
+      List<String> pBlockFormulas,
+      FormulaManagerView pFmgr,
+      InterpolatingProverEnvironment<T> itpProver)
+      throws SolverException, InterruptedException {
+    TimerWrapper workerSatCheckTimer = satCheckTime.getNewTimer();
+    TimerWrapper workerInterpolationTimer = interpolationTime.getNewTimer();
+    List<T> itpStack = new ArrayList<>();
+    for (String blockFormula : pBlockFormulas) {
+      shutdownNotifier.shutdownIfNecessary();
+      itpStack.add(itpProver.push(pFmgr.parse(blockFormula)));
+      workerSatCheckTimer.start();
+      boolean isUnsat;
+      try {
+        isUnsat = itpProver.isUnsat();
+      } finally {
+        workerSatCheckTimer.stop();
+      }
+      if (isUnsat) {
+        List<String> interpolants = new ArrayList<>(itpStack.size() - 1);
+        workerInterpolationTimer.start();
+        try {
+          for (int i = 1; i < itpStack.size(); i++) {
+            interpolants.add(
+                pFmgr.dumpFormula(itpProver.getInterpolant(itpStack.subList(0, i))).toString());
+          }
+        } finally {
+          workerInterpolationTimer.stop();
+        }
+        return Optional.of(interpolants);
+      }
+    }
+    return Optional.empty();
+  }
+
+  @VisibleForTesting
+  @Nullable WorkerSolvers getWorkerSolvers() {
+    return workers;
+  }
+
+  /** Stop the worker threads and close the worker solvers of parallel refinement. */
+  @Override
+  public void close() {
+    if (workers != null) {
+      workers.close();
+    }
+  }
+
   /**
    * Actually perform refinement on one path. We compute the interpolants from
    * the first state to the unreachable one.
@@ -331,7 +531,7 @@ public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider {
     boolean visitedUnreachable = false;
     int sublistCounter = 1;
     for (ARGState state : pAbstractionStatesTrace) {
-      interpolationTime.start();
+      interpolationTimer.start();
       visitedUnreachable = visitedUnreachable || state.equals(unreachableState);
 
       if (visitedUnreachable) {
@@ -341,7 +541,7 @@ public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider {
         interpolants.add(itpProver.getInterpolant(itpStack.subList(0, sublistCounter)));
         sublistCounter++;
       }
-      interpolationTime.stop();
+      interpolationTimer.stop();
     }
 
     // last interpolant will always be false and therefore it is required
@@ -366,6 +566,9 @@ public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider {
       w0.put("Number of predicate refinements", numberOfRefinements);
       if (numberOfRefinements > 0) {
         w0.put(totalTime).put(interpolationTime).put(satCheckTime);
+        if (parallelCheckedPaths.getValue() > 0) {
+          w0.put(parallelCheckTime).put(parallelCheckedPaths);
+        }
       }
     }
 
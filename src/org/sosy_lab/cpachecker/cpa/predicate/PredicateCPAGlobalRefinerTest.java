@@ -0,0 +1,80 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.core.CPABuilder;
+import org.sosy_lab.cpachecker.core.Specification;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.util.CPAs;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class PredicateCPAGlobalRefinerTest {
+
+  /** This tests that the worker threads and solvers of the refiner are released with the CPA. */
+  @Test
+  public void closingCpaReleasesWorkers() throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("cpa", "cpa.arg.ARGCPA")
+            .setOption("ARGCPA.cpa", "cpa.predicate.PredicateCPA")
+            .setOption("solver.solver", "SMTINTERPOL")
+            .setOption("cpa.predicate.refinement.global.threads", "2")
+            .build();
+    LogManager logger = LogManager.createTestLogManager();
+    CFA cfa = TestDataTools.makeCFA(config, "void main() { }");
+    ConfigurableProgramAnalysis cpa =
+        new CPABuilder(
+                config, logger, ShutdownNotifier.createDummy(), new ReachedSetFactory(config, logger))
+            .buildCPAs(cfa, Specification.alwaysSatisfied(), new AggregatedReachedSets());
+
+    PredicateCPAGlobalRefiner refiner =
+        (PredicateCPAGlobalRefiner) PredicateGlobalRefiner.create(cpa);
+    WorkerSolvers workers = refiner.getWorkerSolvers();
+    assertThat(workers).isNotNull();
+
+    // use the workers like a parallel refinement does
+    ExecutorService executor = workers.getExecutor();
+    Solver solver = executor.submit(workers::takeSolver).get();
+    workers.releaseSolver(solver);
+    assertThat(workers.getNumberOfSolvers()).isEqualTo(1);
+
+    CPAs.closeCpaIfPossible(cpa, logger);
+
+    assertThat(workers.isClosed()).isTrue();
+    assertThat(workers.getNumberOfSolvers()).isEqualTo(0);
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+  }
+}
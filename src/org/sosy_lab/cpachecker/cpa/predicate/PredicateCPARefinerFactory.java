@@ -69,6 +69,15 @@ public class PredicateCPARefinerFactory {
   @Option(secure = true, description = "recompute block formula from ARG path edges")
   private boolean recomputeBlockFormulas = false;
 
+  @Option(
+    secure = true,
+    description =
+        "when recomputing block formulas, check the path for feasibility after each block"
+            + " and stop recomputing as soon as an infeasible prefix is found"
+            + " (the remaining blocks are not needed for proving infeasibility)"
+  )
+  private boolean stopRecomputationAtInfeasiblePrefix = false;
+
   private final PredicateCPA predicateCpa;
 
   private @Nullable BlockFormulaStrategy blockFormulaStrategy = null;
@@ -164,7 +173,9 @@ public class PredicateCPARefinerFactory {
       } else if (graphBlockFormulaStrategy) {
         bfs = new SlicingAbstractionsBlockFormulaStrategy(solver, config, pfmgr);
       } else if (recomputeBlockFormulas) {
-        bfs = new RecomputeBlockFormulaStrategy(pfmgr);
+        bfs =
+            new RecomputeBlockFormulaStrategy(
+                pfmgr, stopRecomputationAtInfeasiblePrefix ? solver : null, logger);
       } else {
         bfs = new BlockFormulaStrategy();
       }
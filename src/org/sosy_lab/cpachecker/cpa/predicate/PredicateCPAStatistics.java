@@ -29,6 +29,8 @@ import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.valueWithPercentage;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.MultimapBuilder;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
@@ -41,6 +43,7 @@ import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import org.sosy_lab.common.configuration.Configuration;
@@ -188,6 +191,20 @@ class PredicateCPAStatistics implements Statistics {
     return "PredicateCPA";
   }
 
+  @Override
+  public void collectLiveValues(Map<String, Number> pValues) {
+    PredicateAbstractionManager.Stats as = amgr.stats;
+    pValues.put("Number of abstractions", as.numCallsAbstraction);
+    pValues.put("Number of cached abstractions", as.numCallsAbstractionCached);
+    for (Map.Entry<String, CacheStats> cache : amgr.getCacheStatistics().entrySet()) {
+      pValues.put(cache.getKey() + " hit rate", cache.getValue().hitRate());
+    }
+    pValues.put("Number of SMT sat checks", solver.satChecks);
+    pValues.put("Number of cached SMT sat checks", solver.cachedSatChecks);
+    pValues.put("Number of evictions from SMT caches", solver.cacheEvictions);
+    pValues.put("Time for SMT solver (ms)", solver.solverTime.getSumTime().asMillis());
+  }
+
   /**
    * TreeMap to sort output for the user and sets for no duplication.
    */
@@ -301,6 +318,19 @@ class PredicateCPAStatistics implements Statistics {
             "  Times inductive cache was used:  "
                 + valueWithPercentage(as.numInductivePathFormulaCacheUsed, as.numCallsAbstraction));
       }
+      for (Map.Entry<String, CacheStats> cache : amgr.getCacheStatistics().entrySet()) {
+        CacheStats cacheStats = cache.getValue();
+        out.println(
+            Strings.padEnd("  " + cache.getKey() + " hits:", 35, ' ')
+                + cacheStats.hitCount()
+                + " of "
+                + cacheStats.requestCount()
+                + " ("
+                + toPercent(cacheStats.hitCount(), cacheStats.requestCount())
+                + ", "
+                + cacheStats.evictionCount()
+                + " evictions)");
+      }
     }
 
     if (trans.satCheckTimer.getNumberOfIntervals() > 0) {
@@ -319,6 +349,26 @@ class PredicateCPAStatistics implements Statistics {
     out.println("Number of SMT sat checks:          " + solver.satChecks);
     out.println("  trivial:                         " + solver.trivialSatChecks);
     out.println("  cached:                          " + solver.cachedSatChecks);
+    if (solver.persistentCacheHits + solver.persistentCacheMisses > 0) {
+      out.println("    from persistent cache:         " + solver.persistentCacheHits + " (misses: " + solver.persistentCacheMisses + ")");
+    }
+    if (solver.cacheEvictions > 0) {
+      out.println("  evicted from cache:              " + solver.cacheEvictions);
+    }
+    if (solver.workerSatChecks > 0) {
+      out.println("  in worker processes:             " + solver.workerSatChecks + " (failed: " + solver.getNumberOfFailedWorkerSatChecks() + ", started processes: " + solver.getNumberOfStartedWorkerProcesses() + ")");
+    }
+    if (solver.normalizations > 0) {
+      out.println("Number of formula normalizations:  " + solver.normalizations);
+      out.println("  cached:                          " + solver.cachedNormalizations);
+      if (solver.normalizationCacheEvictions > 0) {
+        out.println("  evicted from cache:              " + solver.normalizationCacheEvictions);
+      }
+      if (solver.sizeBeforeNormalization > 0) {
+        out.println("  size of formulas before:         " + solver.sizeBeforeNormalization);
+        out.println("  size of formulas after:          " + solver.sizeAfterNormalization + " (" + toPercent(solver.sizeAfterNormalization, solver.sizeBeforeNormalization) + ")");
+      }
+    }
     out.println();
     out.println("Max ABE block size:                       " + prec.maxBlockSize);
     out.println("Number of predicates discovered:          " + allDistinctPreds);
@@ -376,6 +426,12 @@ class PredicateCPAStatistics implements Statistics {
       if (as.cartesianAbstractionTime.getNumberOfIntervals() > 0) {
         out.println("    Cartesian abstraction:           " + as.cartesianAbstractionTime);
       }
+      if (as.numParallelCartesianAbstractions > 0) {
+        TimeSpan cpuTime = TimeSpan.ofNanos(as.parallelCartesianAbstractionCpuTime.get());
+        out.println("      Parallel predicate checks:     " + as.parallelCartesianAbstractionTime + " (Count: " + as.numParallelCartesianAbstractions + ")");
+        out.println("      CPU time of worker threads:    " + cpuTime.formatAs(SECONDS));
+        out.println("      Degree of parallelism:         " + div(cpuTime.asNanos(), as.parallelCartesianAbstractionTime.getSumTime().asNanos()));
+      }
       if (as.booleanAbstractionTime.getNumberOfIntervals() > 0) {
         out.println("    Boolean abstraction:             " + as.booleanAbstractionTime);
       }
@@ -400,6 +456,9 @@ class PredicateCPAStatistics implements Statistics {
       out.println("  Time for symbolic coverage checks: " + domain.symbolicCoverageCheckTimer);
     }
     out.println("Total time for SMT solver (w/o itp): " + TimeSpan.sum(solver.solverTime.getSumTime(), as.abstractionSolveTime.getSumTime(), as.abstractionEnumTime.getOuterSumTime()).formatAs(SECONDS));
+    if (solver.normalizations > 0) {
+      out.println("Time for formula normalization:      " + solver.normalizationTime);
+    }
 
     if (trans.abstractionCheckTimer.getNumberOfIntervals() > 0) {
       out.println("Time for abstraction checks:       " + trans.abstractionCheckTimer);
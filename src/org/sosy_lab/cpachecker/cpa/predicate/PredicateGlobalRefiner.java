@@ -49,12 +49,17 @@ public abstract class PredicateGlobalRefiner implements Refiner {
         new PredicateAbstractionGlobalRefinementStrategy(
             config, logger, predicateCpa.getPredicateManager(), solver);
 
-    return new PredicateCPAGlobalRefiner(
-        logger,
-        fmgr,
-        strategy,
-        solver,
-        CPAs.retrieveCPAOrFail(pCpa, ARGCPA.class, PredicateGlobalRefiner.class),
-        config);
+    PredicateCPAGlobalRefiner refiner =
+        new PredicateCPAGlobalRefiner(
+            logger,
+            predicateCpa.getShutdownNotifier(),
+            fmgr,
+            strategy,
+            solver,
+            CPAs.retrieveCPAOrFail(pCpa, ARGCPA.class, PredicateGlobalRefiner.class),
+            config);
+    // the worker solvers of the refiner need to be closed together with the main solver
+    predicateCpa.registerForClose(refiner);
+    return refiner;
   }
 }
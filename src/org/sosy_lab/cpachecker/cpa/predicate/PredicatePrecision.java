@@ -44,6 +44,8 @@ import org.sosy_lab.cpachecker.util.Precisions;
 import org.sosy_lab.cpachecker.util.predicates.AbstractionPredicate;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -129,6 +131,9 @@ public class PredicatePrecision implements AdjustablePrecision {
   private final ImmutableSetMultimap<String, AbstractionPredicate> mFunctionPredicates;
   private final ImmutableSet<AbstractionPredicate> mGlobalPredicates;
 
+  // Cache hashCode of potentially big maps, computed lazily (0 if not yet computed)
+  private transient int cachedHashCode = 0;
+
   private static final PredicatePrecision EMPTY =
       new PredicatePrecision(
           ImmutableList.<Map.Entry<LocationInstance, AbstractionPredicate>>of(),
@@ -229,6 +234,14 @@ public class PredicatePrecision implements AdjustablePrecision {
       return Iterables.getOnlyElement(precisions);
     }
 
+    // Often one precision contains all others (e.g., the precisions in the reached set
+    // after a refinement), then we can return it without building a new copy.
+    PredicatePrecision largest =
+        Collections.max(precisions, Comparator.comparingInt(PredicatePrecision::size));
+    if (largest.isReusableAsMergeResult() && Iterables.all(precisions, largest::containsAll)) {
+      return largest;
+    }
+
     return new PredicatePrecision(
         from(precisions).transformAndConcat(prec -> prec.getLocationInstancePredicates().entries()),
         from(precisions).transformAndConcat(prec -> prec.getLocalPredicates().entries()),
@@ -289,6 +302,11 @@ public class PredicatePrecision implements AdjustablePrecision {
    * @param locInstance How often this location has appeared in the current path.
    */
   public final ImmutableSet<AbstractionPredicate> getPredicates(CFANode loc, int locInstance) {
+    if (mLocationInstancePredicates.isEmpty()) {
+      // avoid creating a LocationInstance in the common case of no such predicates
+      Preconditions.checkArgument(locInstance >= 0);
+      return getPredicatesForLocation(loc);
+    }
     return getPredicates(new LocationInstance(loc, locInstance));
   }
 
@@ -299,13 +317,18 @@ public class PredicatePrecision implements AdjustablePrecision {
     ImmutableSet<AbstractionPredicate> result =
         getLocationInstancePredicates().get(locationInstance);
     if (result.isEmpty()) {
-      result = getLocalPredicates().get(locationInstance.getLocation());
+      result = getPredicatesForLocation(locationInstance.getLocation());
     }
+    return result;
+  }
+
+  private ImmutableSet<AbstractionPredicate> getPredicatesForLocation(CFANode loc) {
+    ImmutableSet<AbstractionPredicate> result = mLocalPredicates.get(loc);
     if (result.isEmpty()) {
-      result = getFunctionPredicates().get(locationInstance.getFunctionName());
+      result = mFunctionPredicates.get(loc.getFunctionName());
     }
     if (result.isEmpty()) {
-      result = getGlobalPredicates();
+      result = mGlobalPredicates;
     }
     return result;
   }
@@ -315,6 +338,9 @@ public class PredicatePrecision implements AdjustablePrecision {
    * additional global predicates.
    */
   public PredicatePrecision addGlobalPredicates(Collection<AbstractionPredicate> newPredicates) {
+    if (isReusableAsMergeResult() && mGlobalPredicates.containsAll(newPredicates)) {
+      return this;
+    }
     return new PredicatePrecision(
         getLocationInstancePredicates(),
         getLocalPredicates(),
@@ -331,6 +357,9 @@ public class PredicatePrecision implements AdjustablePrecision {
     if (Iterables.isEmpty(newPredicates)) {
       return this;
     }
+    if (isReusableAsMergeResult() && containsAllEntries(mFunctionPredicates, newPredicates)) {
+      return this;
+    }
     return new PredicatePrecision(
         getLocationInstancePredicates().entries(),
         getLocalPredicates().entries(),
@@ -347,6 +376,9 @@ public class PredicatePrecision implements AdjustablePrecision {
     if (Iterables.isEmpty(newPredicates)) {
       return this;
     }
+    if (isReusableAsMergeResult() && containsAllEntries(mLocalPredicates, newPredicates)) {
+      return this;
+    }
     return new PredicatePrecision(
         getLocationInstancePredicates().entries(),
         Iterables.concat(getLocalPredicates().entries(), newPredicates),
@@ -363,6 +395,10 @@ public class PredicatePrecision implements AdjustablePrecision {
     if (Iterables.isEmpty(newPredicates)) {
       return this;
     }
+    if (isReusableAsMergeResult()
+        && containsAllEntries(mLocationInstancePredicates, newPredicates)) {
+      return this;
+    }
     return new PredicatePrecision(
         Iterables.concat(getLocationInstancePredicates().entries(), newPredicates),
         getLocalPredicates().entries(),
@@ -381,6 +417,12 @@ public class PredicatePrecision implements AdjustablePrecision {
     if (prec.isEmpty()) {
       return this;
     }
+    if (isReusableAsMergeResult() && this.containsAll(prec)) {
+      return this;
+    }
+    if (prec.isReusableAsMergeResult() && prec.containsAll(this)) {
+      return prec;
+    }
     return new PredicatePrecision(
         Iterables.concat(
             getLocationInstancePredicates().entries(),
@@ -390,6 +432,56 @@ public class PredicatePrecision implements AdjustablePrecision {
         Iterables.concat(getGlobalPredicates(), prec.getGlobalPredicates()));
   }
 
+  /**
+   * Subclasses carry additional information that would be wrong for the result
+   * of a merge, so only instances of exactly this class are returned instead of a new copy.
+   */
+  private boolean isReusableAsMergeResult() {
+    return getClass() == PredicatePrecision.class;
+  }
+
+  /**
+   * Check whether this precision contains all predicates of another precision
+   * (for the same locations), i.e., whether merging both would yield this precision.
+   * This is much cheaper than merging, because it needs only lookups and no copies.
+   */
+  private boolean containsAll(PredicatePrecision other) {
+    if (this == other) {
+      return true;
+    }
+    return size() >= other.size()
+        && mGlobalPredicates.containsAll(other.mGlobalPredicates)
+        && containsAllEntries(mFunctionPredicates, other.mFunctionPredicates.entries())
+        && containsAllEntries(mLocalPredicates, other.mLocalPredicates.entries())
+        && containsAllEntries(
+            mLocationInstancePredicates, other.mLocationInstancePredicates.entries());
+  }
+
+  /**
+   * Check whether all entries are already present in the map.
+   * Note that adding an entry whose key is not yet present changes the precision
+   * even if the predicate is already present globally (the entry gets a new key),
+   * so this is a check for containment of the entries and not only of the predicates.
+   */
+  private static <K> boolean containsAllEntries(
+      ImmutableSetMultimap<K, AbstractionPredicate> map,
+      Iterable<Map.Entry<K, AbstractionPredicate>> entries) {
+    for (Map.Entry<K, AbstractionPredicate> entry : entries) {
+      if (!map.containsEntry(entry.getKey(), entry.getValue())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** The number of entries in all maps of this precision. */
+  private int size() {
+    return mGlobalPredicates.size()
+        + mFunctionPredicates.size()
+        + mLocalPredicates.size()
+        + mLocationInstancePredicates.size();
+  }
+
   /**
    * Calculates a "difference" from this precision to another precision.
    * The difference is the number of predicates which are present in this precision,
@@ -425,10 +517,15 @@ public class PredicatePrecision implements AdjustablePrecision {
 
   @Override
   public int hashCode() {
-    return Objects.hash(getGlobalPredicates(),
-                             getFunctionPredicates(),
-                             getLocalPredicates(),
-                             getLocationInstancePredicates());
+    int result = cachedHashCode;
+    if (result == 0) {
+      result = Objects.hash(getGlobalPredicates(),
+                               getFunctionPredicates(),
+                               getLocalPredicates(),
+                               getLocationInstancePredicates());
+      cachedHashCode = result;
+    }
+    return result;
   }
 
   @Override
@@ -441,7 +538,8 @@ public class PredicatePrecision implements AdjustablePrecision {
       return false;
     } else {
       PredicatePrecision other = (PredicatePrecision)pObj;
-      return getLocationInstancePredicates().equals(other.getLocationInstancePredicates())
+      return hashCode() == other.hashCode()
+          && getLocationInstancePredicates().equals(other.getLocationInstancePredicates())
           && getLocalPredicates().equals(other.getLocalPredicates())
           && getFunctionPredicates().equals(other.getFunctionPredicates())
           && getGlobalPredicates().equals(other.getGlobalPredicates());
@@ -25,27 +25,77 @@ package org.sosy_lab.cpachecker.cpa.predicate;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.cpa.arg.ARGUtils;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormula;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManager;
+import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
 import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
 
+/**
+ * Block-formula strategy that recomputes the block formulas from the CFA edges of the path.
+ *
+ * Optionally, the formulas are checked for satisfiability while they are computed,
+ * and the computation stops as soon as a prefix of the path is found to be infeasible.
+ * The formulas of the remaining blocks are then replaced by "true",
+ * which does not change the infeasibility of the path
+ * and still allows to compute interpolants for all blocks
+ * (they are "false" after the infeasible prefix).
+ */
 public class RecomputeBlockFormulaStrategy extends BlockFormulaStrategy {
 
   private final PathFormulaManager pfmgr;
+  private final BooleanFormulaManagerView bfmgr;
+
+  /** solver for checking prefixes of the path, or null if this should not be done */
+  private final @Nullable Solver solver;
+
+  private final @Nullable LogManager logger;
 
   public RecomputeBlockFormulaStrategy(final PathFormulaManager pPathFormulaManager) {
+    this(pPathFormulaManager, null, null);
+  }
+
+  /**
+   * Create an instance that stops the computation at an infeasible prefix
+   * if a solver is given.
+   */
+  public RecomputeBlockFormulaStrategy(
+      final PathFormulaManager pPathFormulaManager,
+      final @Nullable Solver pSolver,
+      final @Nullable LogManager pLogger) {
     super();
     pfmgr = pPathFormulaManager;
+    solver = pSolver;
+    logger = pLogger;
+    bfmgr = pSolver == null ? null : pSolver.getFormulaManager().getBooleanFormulaManager();
   }
 
   @Override
   BlockFormulas getFormulasForPath(ARGState argRoot, List<ARGState> abstractionStates)
       throws CPATransferException, InterruptedException {
+    if (solver == null) {
+      return new BlockFormulas(computeFormulas(argRoot, abstractionStates, null));
+    }
+    try (ProverEnvironment prover = solver.newProverEnvironment()) {
+      return new BlockFormulas(computeFormulas(argRoot, abstractionStates, prover));
+    }
+  }
+
+  private List<BooleanFormula> computeFormulas(
+      ARGState argRoot, List<ARGState> abstractionStates, @Nullable ProverEnvironment pProver)
+      throws CPATransferException, InterruptedException {
     List<BooleanFormula> formulas = new ArrayList<>(abstractionStates.size());
+    // set to null if the solver fails
+    @Nullable ProverEnvironment prover = pProver;
 
     List<CFAEdge> partialPath;
     ARGState current = argRoot;
@@ -64,7 +114,40 @@ public class RecomputeBlockFormulaStrategy extends BlockFormulaStrategy {
       formulas.add(partialFormula.getFormula());
       previousPathFormula = partialFormula;
       current = next;
+
+      // The last block does not need to be checked here,
+      // the whole path is checked anyway by the refinement.
+      if (prover != null && formulas.size() < abstractionStates.size()) {
+        boolean infeasible;
+        try {
+          infeasible = isInfeasibleWith(prover, partialFormula.getFormula());
+        } catch (SolverException e) {
+          // compute all formulas and let the refinement handle the problem
+          if (logger != null) {
+            logger.logUserException(
+                Level.FINE, e, "Solver failed while checking a prefix of the path");
+          }
+          infeasible = false;
+          prover = null;
+        }
+        if (infeasible) {
+          while (formulas.size() < abstractionStates.size()) {
+            formulas.add(bfmgr.makeTrue());
+          }
+          break;
+        }
+      }
+    }
+    return formulas;
+  }
+
+  /** Add a block formula to the prover and check whether the path up to here is infeasible. */
+  private boolean isInfeasibleWith(ProverEnvironment prover, BooleanFormula blockFormula)
+      throws SolverException, InterruptedException {
+    if (bfmgr.isTrue(blockFormula)) {
+      return false;
     }
-    return new BlockFormulas(formulas);
+    prover.push(blockFormula);
+    return prover.isUnsat();
   }
 }
@@ -0,0 +1,176 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+
+/**
+ * The worker threads of a parallel computation with the predicate analysis,
+ * together with one solver per thread.
+ *
+ * Each worker thread uses its own solver instance,
+ * because solver contexts must not be used concurrently.
+ * The threads and solvers are created lazily when they are needed for the first time,
+ * and are reused until {@link #close()} is called.
+ * Formulas need to be transferred to the worker solvers as SMT-LIB strings.
+ */
+final class WorkerSolvers implements AutoCloseable {
+
+  /** Options of the main solver that must not be used for the worker solvers. */
+  private static final ImmutableList<String> IGNORED_OPTIONS =
+      ImmutableList.of(
+          // several solvers must not append to the same file
+          "solver.persistentCache.file",
+          // the worker threads are already parallel, processes per worker would multiply
+          "solver.workerProcesses",
+          // only useful for the caches of the main solver
+          "solver.normalizeFormulas");
+
+  private final int threads;
+  private final String threadNameFormat;
+  private final Configuration workerConfig;
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+
+  /** all solvers that were created so far */
+  private final Queue<Solver> solvers = new ConcurrentLinkedQueue<>();
+
+  /** solvers that are currently not used by a worker */
+  private final BlockingQueue<Solver> availableSolvers = new LinkedBlockingQueue<>();
+
+  private @Nullable ExecutorService executor = null;
+  private volatile boolean closed = false;
+
+  /**
+   * @param pThreads The number of worker threads.
+   * @param pThreadNameFormat The name format for the threads, with one "%d" for the index.
+   * @param pConfig The configuration of the main solver.
+   */
+  WorkerSolvers(
+      int pThreads,
+      String pThreadNameFormat,
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
+    checkArgument(pThreads > 1);
+    threads = pThreads;
+    threadNameFormat = pThreadNameFormat;
+    workerConfig = createWorkerConfiguration(pConfig);
+    logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+  }
+
+  /** Create the configuration for the worker solvers from the configuration of the main solver. */
+  static Configuration createWorkerConfiguration(Configuration pConfig)
+      throws InvalidConfigurationException {
+    ConfigurationBuilder builder = Configuration.builder().copyFrom(pConfig);
+    IGNORED_OPTIONS.forEach(builder::clearOption);
+    return builder.build();
+  }
+
+  int getThreads() {
+    return threads;
+  }
+
+  /** Return the executor that runs the worker threads (which are daemon threads). */
+  synchronized ExecutorService getExecutor() {
+    checkState(!closed, "worker threads were already stopped");
+    if (executor == null) {
+      executor =
+          Executors.newFixedThreadPool(
+              threads,
+              new ThreadFactoryBuilder().setDaemon(true).setNameFormat(threadNameFormat).build());
+    }
+    return executor;
+  }
+
+  /**
+   * Return a solver that is currently not used, or create a new one.
+   * At most one solver per thread is created if each thread uses only one at a time.
+   * The solver needs to be given back with {@link #releaseSolver(Solver)}.
+   */
+  Solver takeSolver() {
+    checkState(!closed, "worker solvers were already closed");
+    Solver solver = availableSolvers.poll();
+    if (solver != null) {
+      return solver;
+    }
+    try {
+      solver = Solver.create(workerConfig, logger, shutdownNotifier);
+    } catch (InvalidConfigurationException e) {
+      // the main solver was created from the same configuration
+      throw new AssertionError(e);
+    }
+    solvers.add(solver);
+    return solver;
+  }
+
+  void releaseSolver(Solver pSolver) {
+    availableSolvers.add(pSolver);
+  }
+
+  /** Return the number of solvers that exist currently. */
+  int getNumberOfSolvers() {
+    return solvers.size();
+  }
+
+  boolean isClosed() {
+    return closed;
+  }
+
+  /** Stop the worker threads and close all solvers. Calling this more than once has no effect. */
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+    Solver solver;
+    while ((solver = solvers.poll()) != null) {
+      solver.close();
+    }
+    availableSolvers.clear();
+  }
+}
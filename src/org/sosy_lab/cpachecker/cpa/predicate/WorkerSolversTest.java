@@ -0,0 +1,116 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class WorkerSolversTest {
+
+  private Configuration config;
+  private WorkerSolvers workers;
+
+  @Before
+  public void setUp() throws Exception {
+    config =
+        TestDataTools.configurationForTest()
+            .setOption("solver.solver", "SMTINTERPOL")
+            .setOption("solver.persistentCache.file", "satCache.txt")
+            .setOption("solver.workerProcesses", "2")
+            .setOption("solver.normalizeFormulas", "true")
+            .build();
+    workers =
+        new WorkerSolvers(
+            2,
+            "Test worker %d",
+            config,
+            LogManager.createTestLogManager(),
+            ShutdownNotifier.createDummy());
+  }
+
+  @After
+  public void tearDown() {
+    workers.close();
+  }
+
+  @Test
+  public void testWorkerConfiguration() throws Exception {
+    String workerConfig = WorkerSolvers.createWorkerConfiguration(config).asPropertiesString();
+    assertThat(workerConfig).contains("solver.solver = SMTINTERPOL");
+    assertThat(workerConfig).doesNotContain("solver.persistentCache.file");
+    assertThat(workerConfig).doesNotContain("solver.workerProcesses");
+    assertThat(workerConfig).doesNotContain("solver.normalizeFormulas");
+  }
+
+  @Test
+  public void testLazyCreation() {
+    assertThat(workers.getNumberOfSolvers()).isEqualTo(0);
+  }
+
+  @Test
+  public void testSolversAreReused() {
+    Solver first = workers.takeSolver();
+    Solver second = workers.takeSolver();
+    assertThat(second).isNotSameAs(first);
+
+    workers.releaseSolver(first);
+    assertThat(workers.takeSolver()).isSameAs(first);
+    assertThat(workers.getNumberOfSolvers()).isEqualTo(2);
+    workers.releaseSolver(first);
+    workers.releaseSolver(second);
+  }
+
+  @Test
+  public void testCloseReleasesWorkers() throws Exception {
+    ExecutorService executor = workers.getExecutor();
+    assertThat(workers.getExecutor()).isSameAs(executor);
+    Solver solver = executor.submit(workers::takeSolver).get();
+    workers.releaseSolver(solver);
+    assertThat(workers.getNumberOfSolvers()).isEqualTo(1);
+
+    workers.close();
+    assertThat(workers.isClosed()).isTrue();
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(workers.getNumberOfSolvers()).isEqualTo(0);
+
+    // closing again has no effect
+    workers.close();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNoSolverAfterClose() {
+    workers.close();
+    workers.takeSolver();
+  }
+}
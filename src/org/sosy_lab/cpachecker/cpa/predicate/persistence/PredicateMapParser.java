@@ -27,6 +27,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.base.Splitter;
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Maps;
@@ -44,6 +46,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -54,6 +57,7 @@ import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.cpa.predicate.PredicatePrecision;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicatePersistenceUtils.PredicateParsingFailedException;
+import org.sosy_lab.cpachecker.util.FunctionHashes;
 import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.predicates.AbstractionManager;
 import org.sosy_lab.cpachecker.util.predicates.AbstractionPredicate;
@@ -85,6 +89,12 @@ import org.sosy_lab.java_smt.api.BooleanFormula;
  *   This line defines where the following predicates are to be used.
  * - The following lines of the section contain SMTLIB2 statements of the form
  *   "(assert ...)". Each asserted term will be used as one predicate.
+ *
+ * If the function hashes of the program version for which the predicates were written
+ * are given (option previousFunctionHashes), the predicates of all functions that changed
+ * in the current program are ignored, and the CFA nodes of the unchanged functions
+ * are translated to the corresponding nodes of the current CFA.
+ * This allows to reuse the precision for a modified version of a program.
  */
 @Options(prefix="cpa.predicate.abstraction.initialPredicates")
 public class PredicateMapParser {
@@ -103,6 +113,13 @@ public class PredicateMapParser {
   @Option(secure=true, description = "when reading predicates from file, convert them from Integer- to BV-theory or reverse.")
   private PrecisionConverter encodePredicates = PrecisionConverter.DISABLE;
 
+  @Option(secure=true, description="file with the function hashes of the program version "
+      + "for which the predicates were written (cf. option cfa.functionHashes.export). "
+      + "If given, only the predicates of functions that did not change (including their callees) "
+      + "are used, and their locations are translated to the CFA of the current program.")
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private @Nullable Path previousFunctionHashes = null;
+
   private final CFA cfa;
 
   private final LogManagerWithoutDuplicates logger;
@@ -111,6 +128,11 @@ public class PredicateMapParser {
 
   private final Map<Integer, CFANode> idToNodeMap = Maps.newHashMap();
 
+  // only present if previousFunctionHashes is given and exists, initialized lazily
+  private boolean functionHashesInitialized = false;
+  private @Nullable ImmutableSet<String> unchangedFunctions = null;
+  private @Nullable ImmutableMap<Integer, Integer> nodeTranslation = null;
+
   public PredicateMapParser(Configuration pConfig, CFA pCfa,
       LogManager pLogger,
       FormulaManagerView pFmgr, AbstractionManager pAmgr) throws InvalidConfigurationException {
@@ -149,6 +171,10 @@ public class PredicateMapParser {
   PredicatePrecision parsePredicates(BufferedReader reader, String source)
           throws IOException, PredicateParsingFailedException {
 
+    if (previousFunctionHashes != null && !functionHashesInitialized) {
+      initFunctionHashes(previousFunctionHashes);
+    }
+
     // first, read first section with initial set of function definitions
     Pair<Integer, String> defParsingResult = PredicatePersistenceUtils.parseCommonDefinitions(reader, source);
     int lineNo = defParsingResult.getFirst();
@@ -208,6 +234,10 @@ public class PredicateMapParser {
             logger.log(Level.WARNING, "Cannot use predicates for function", currentLine + ", this function does not exist.");
             currentSet = new ArrayList<>(); // temporary list which will be thrown away and ignored
 
+          } else if (!isUnchanged(currentLine)) {
+            logger.log(Level.FINE, "Ignoring predicates for function", currentLine + ", this function has changed.");
+            currentSet = new ArrayList<>(); // temporary list which will be thrown away and ignored
+
           } else {
             currentSet = functionPredicates.get(currentLine);
           }
@@ -220,7 +250,11 @@ public class PredicateMapParser {
             String function = matcher.group(1);
             int nodeId = Integer.parseInt(matcher.group(2)); // does not fail, we checked with regexp
 
-            if (applyFunctionWide) {
+            if (!isUnchanged(function)) {
+              logger.log(Level.FINE, "Ignoring predicates for function", function + ", this function has changed.");
+              currentSet = new ArrayList<>(); // temporary list which will be thrown away and ignored
+
+            } else if (applyFunctionWide) {
               if (!cfa.getAllFunctionNames().contains(function)) {
                 logger.log(Level.WARNING, "Cannot use predicates for function", function + ", this function does not exist.");
                 currentSet = new ArrayList<>(); // temporary list which will be thrown away and ignored
@@ -229,7 +263,7 @@ public class PredicateMapParser {
               }
 
             } else {
-              CFANode node = getCFANodeWithId(nodeId);
+              CFANode node = getCFANodeWithId(translateNodeId(nodeId));
               if (node == null) {
                 logger.log(Level.WARNING, "Cannot use predicates for CFANode", nodeId + ", this node does not exist.");
                 currentSet = new ArrayList<>(); // temporary list which will be thrown away and ignored
@@ -283,6 +317,45 @@ public class PredicateMapParser {
     return FormulaParser.convertFormula(checkNotNull(converter), line, logger);
   }
 
+  private void initFunctionHashes(Path pPreviousFunctionHashes) throws IOException {
+    functionHashesInitialized = true;
+    if (!Files.exists(pPreviousFunctionHashes)) {
+      logger.log(
+          Level.WARNING,
+          "Function hashes file",
+          pPreviousFunctionHashes,
+          "does not exist, using predicates without checking for changed functions.");
+      return;
+    }
+    FunctionHashes previousHashes = FunctionHashes.readFrom(pPreviousFunctionHashes);
+    FunctionHashes currentHashes = FunctionHashes.of(cfa);
+    unchangedFunctions = currentHashes.getUnchangedFunctions(previousHashes);
+    nodeTranslation = currentHashes.getNodeTranslation(previousHashes);
+    logger.log(
+        Level.INFO,
+        "Reusing predicates of",
+        unchangedFunctions.size(),
+        "unchanged functions out of",
+        cfa.getNumberOfFunctions(),
+        "functions.");
+  }
+
+  /** Whether the predicates of the given function can be used for the current program. */
+  private boolean isUnchanged(String pFunction) {
+    return unchangedFunctions == null || unchangedFunctions.contains(pFunction);
+  }
+
+  /**
+   * Translate the id of a CFA node of the program for which the predicates were written
+   * to the id of the corresponding node in the current CFA (or -1 if there is no such node).
+   */
+  private int translateNodeId(int pNodeId) {
+    if (nodeTranslation == null) {
+      return pNodeId;
+    }
+    return nodeTranslation.getOrDefault(pNodeId, -1);
+  }
+
   private CFANode getCFANodeWithId(int id) {
     if (idToNodeMap.isEmpty()) {
       for (CFANode n : cfa.getAllNodes()) {
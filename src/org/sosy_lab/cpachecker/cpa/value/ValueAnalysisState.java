@@ -38,6 +38,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentMap;
@@ -77,7 +78,8 @@ public class ValueAnalysisState
 
   private static final long serialVersionUID = -3152134511524554358L;
 
-  private static final Set<MemoryLocation> blacklist = new HashSet<>();
+  // may be updated concurrently by several transfer relations, cf. CPAAlgorithm with several threads
+  private static final Set<MemoryLocation> blacklist = ConcurrentHashMap.newKeySet();
 
   static void addToBlacklist(MemoryLocation var) {
     blacklist.add(checkNotNull(var));
@@ -763,6 +765,18 @@ public class ValueAnalysisState
     return this;
   }
 
+  @Override
+  public long getCoverageSignature() {
+    // a state is only 'lessOrEqual' if it contains all assignments of the other state,
+    // the types are ignored, like in isLessOrEqual
+    long signature = 0L;
+    for (Entry<MemoryLocation, ValueAndType> entry : constantsMap.entrySet()) {
+      int hash = 31 * entry.getKey().hashCode() + entry.getValue().getValue().hashCode();
+      signature |= PseudoPartitionable.toSignatureBit(hash);
+    }
+    return signature;
+  }
+
   public static class ValueAndType implements Serializable {
     private static final long serialVersionUID = 1L;
     private final Value value;
@@ -0,0 +1,280 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.SetMultimap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdgeType;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+
+/**
+ * Fingerprints of the functions of a program, which allow to recognize the functions
+ * that did not change between two versions of a program.
+ *
+ * The hash of a function covers the code and the structure of its CFA
+ * (but not the node numbers or line numbers, which change if other parts of the program change),
+ * as well as the hashes of all functions that are (transitively) called by it.
+ * Additionally, the nodes of each function are stored in a canonical order,
+ * such that the nodes of an unchanged function can be mapped between the CFAs of both versions.
+ *
+ * Instances can be written to and read from a file with one line per function,
+ * which contains the function name, the hash, and the node numbers in canonical order.
+ */
+public final class FunctionHashes {
+
+  private static final Splitter FIELD_SPLITTER = Splitter.on(' ').omitEmptyStrings();
+  private static final Joiner FIELD_JOINER = Joiner.on(' ');
+
+  /**
+   * Temporary variables created by the parser are numbered globally in the whole program,
+   * so their names change if other functions change.
+   */
+  private static final Pattern TMP_VARIABLE = Pattern.compile("__CPAchecker_TMP_\\d+");
+
+  /** function name -> hash of the function and all its callees */
+  private final ImmutableMap<String, String> hashes;
+
+  /** function name -> node numbers of the function in canonical order */
+  private final ImmutableMap<String, ImmutableList<Integer>> nodeNumbers;
+
+  private FunctionHashes(
+      ImmutableMap<String, String> pHashes,
+      ImmutableMap<String, ImmutableList<Integer>> pNodeNumbers) {
+    hashes = pHashes;
+    nodeNumbers = pNodeNumbers;
+  }
+
+  /** Compute the hashes of all functions of the given CFA. */
+  public static FunctionHashes of(CFA pCfa) {
+    Map<String, HashCode> localHashes = new TreeMap<>();
+    SetMultimap<String, String> callees = LinkedHashMultimap.create();
+    ImmutableMap.Builder<String, ImmutableList<Integer>> nodeNumbers = ImmutableMap.builder();
+
+    for (FunctionEntryNode entryNode : pCfa.getAllFunctionHeads()) {
+      String function = entryNode.getFunctionName();
+      Hasher hasher = Hashing.sha256().newHasher();
+      Map<String, String> tmpVariableNames = new HashMap<>();
+      hasher.putString(
+          normalize(entryNode.getFunctionDefinition().toASTString(), tmpVariableNames), UTF_8);
+
+      // breadth-first traversal in the order of the leaving edges,
+      // the index of a node in this traversal is its canonical number
+      List<CFANode> nodes = new ArrayList<>();
+      Map<CFANode, Integer> canonicalNumbers = new HashMap<>();
+      Deque<CFANode> waitlist = new ArrayDeque<>();
+      canonicalNumbers.put(entryNode, 0);
+      nodes.add(entryNode);
+      waitlist.add(entryNode);
+
+      while (!waitlist.isEmpty()) {
+        CFANode node = waitlist.poll();
+        hasher.putInt(canonicalNumbers.get(node));
+        hasher.putBoolean(node.isLoopStart());
+
+        for (CFAEdge edge : CFAUtils.allLeavingEdges(node)) {
+          if (edge.getEdgeType() == CFAEdgeType.FunctionCallEdge) {
+            // the call is handled by the summary edge, which stays inside this function
+            callees.put(function, edge.getSuccessor().getFunctionName());
+            continue;
+          }
+          if (edge.getEdgeType() == CFAEdgeType.FunctionReturnEdge) {
+            continue;
+          }
+
+          CFANode successor = edge.getSuccessor();
+          Integer successorNumber = canonicalNumbers.get(successor);
+          if (successorNumber == null) {
+            successorNumber = nodes.size();
+            canonicalNumbers.put(successor, successorNumber);
+            nodes.add(successor);
+            waitlist.add(successor);
+          }
+          hasher.putString(edge.getEdgeType().name(), UTF_8);
+          hasher.putString(normalize(edge.getDescription(), tmpVariableNames), UTF_8);
+          hasher.putInt(successorNumber);
+        }
+      }
+
+      localHashes.put(function, hasher.hash());
+      nodeNumbers.put(
+          function, ImmutableList.copyOf(Lists.transform(nodes, CFANode::getNodeNumber)));
+    }
+
+    ImmutableMap.Builder<String, String> hashes = ImmutableMap.builder();
+    for (String function : localHashes.keySet()) {
+      // sorted, such that the hash does not depend on the order of the calls
+      Set<String> reachableFunctions = new TreeSet<>();
+      Deque<String> waitlist = new ArrayDeque<>();
+      waitlist.add(function);
+      while (!waitlist.isEmpty()) {
+        String current = waitlist.poll();
+        if (reachableFunctions.add(current)) {
+          waitlist.addAll(callees.get(current));
+        }
+      }
+
+      Hasher hasher = Hashing.sha256().newHasher();
+      for (String reachableFunction : reachableFunctions) {
+        hasher.putString(reachableFunction, UTF_8);
+        HashCode localHash = localHashes.get(reachableFunction);
+        if (localHash != null) {
+          hasher.putBytes(localHash.asBytes());
+        }
+      }
+      hashes.put(function, hasher.hash().toString());
+    }
+
+    return new FunctionHashes(hashes.build(), nodeNumbers.build());
+  }
+
+  /**
+   * Rename the temporary variables in the given code to names that are numbered
+   * in the order of their first occurrence in the current function.
+   *
+   * @param pTmpVariableNames the names that were already assigned in the current function,
+   *     will be updated
+   */
+  static String normalize(String pCode, Map<String, String> pTmpVariableNames) {
+    Matcher matcher = TMP_VARIABLE.matcher(pCode);
+    if (!matcher.find()) {
+      return pCode;
+    }
+    StringBuffer result = new StringBuffer();
+    do {
+      String name =
+          pTmpVariableNames.computeIfAbsent(
+              matcher.group(), k -> "__CPAchecker_TMP_" + pTmpVariableNames.size());
+      matcher.appendReplacement(result, name);
+    } while (matcher.find());
+    matcher.appendTail(result);
+    return result.toString();
+  }
+
+  /** Read function hashes from a file that was written by {@link #writeTo(Appendable)}. */
+  public static FunctionHashes readFrom(Path pFile) throws IOException {
+    ImmutableMap.Builder<String, String> hashes = ImmutableMap.builder();
+    ImmutableMap.Builder<String, ImmutableList<Integer>> nodeNumbers = ImmutableMap.builder();
+
+    int lineNo = 0;
+    for (String line : Files.readAllLines(pFile, UTF_8)) {
+      lineNo++;
+      if (line.trim().isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      List<String> fields = FIELD_SPLITTER.splitToList(line);
+      if (fields.size() < 2) {
+        throw new IOException("Invalid line " + lineNo + " in function hashes file " + pFile);
+      }
+      ImmutableList.Builder<Integer> numbers = ImmutableList.builder();
+      try {
+        for (String number : fields.subList(2, fields.size())) {
+          numbers.add(Integer.parseInt(number));
+        }
+      } catch (NumberFormatException e) {
+        throw new IOException(
+            "Invalid node number in line " + lineNo + " of function hashes file " + pFile, e);
+      }
+      hashes.put(fields.get(0), fields.get(1));
+      nodeNumbers.put(fields.get(0), numbers.build());
+    }
+    return new FunctionHashes(hashes.build(), nodeNumbers.build());
+  }
+
+  public void writeTo(Appendable pOutput) throws IOException {
+    pOutput.append("# function hash node-numbers\n");
+    for (Map.Entry<String, String> entry : hashes.entrySet()) {
+      String function = entry.getKey();
+      pOutput.append(function).append(' ').append(entry.getValue());
+      if (!nodeNumbers.get(function).isEmpty()) {
+        pOutput.append(' ').append(FIELD_JOINER.join(nodeNumbers.get(function)));
+      }
+      pOutput.append('\n');
+    }
+  }
+
+  /**
+   * Return the names of all functions that are unchanged compared to the given previous version
+   * of the program, i.e., that have the same hash (which includes all called functions).
+   */
+  public ImmutableSet<String> getUnchangedFunctions(FunctionHashes pPrevious) {
+    ImmutableSet.Builder<String> result = ImmutableSet.builder();
+    for (Map.Entry<String, String> entry : hashes.entrySet()) {
+      if (entry.getValue().equals(pPrevious.hashes.get(entry.getKey()))) {
+        result.add(entry.getKey());
+      }
+    }
+    return result.build();
+  }
+
+  /**
+   * Compute the mapping from the node numbers of all unchanged functions in the given previous
+   * version of the program to the numbers of the corresponding nodes in this version.
+   */
+  public ImmutableMap<Integer, Integer> getNodeTranslation(FunctionHashes pPrevious) {
+    ImmutableMap.Builder<Integer, Integer> result = ImmutableMap.builder();
+    for (String function : getUnchangedFunctions(pPrevious)) {
+      List<Integer> previousNodeNumbers = pPrevious.nodeNumbers.get(function);
+      List<Integer> currentNodeNumbers = nodeNumbers.get(function);
+      // both lists have the same size if the hashes are equal
+      int size = Math.min(previousNodeNumbers.size(), currentNodeNumbers.size());
+      for (int i = 0; i < size; i++) {
+        result.put(previousNodeNumbers.get(i), currentNodeNumbers.get(i));
+      }
+    }
+    return result.build();
+  }
+
+  @Override
+  public String toString() {
+    return hashes.toString();
+  }
+}
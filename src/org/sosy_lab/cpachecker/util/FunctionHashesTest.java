@@ -0,0 +1,140 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class FunctionHashesTest {
+
+  private static final String[] PROGRAM = {
+    "int f(int x) { return x + 1; }",
+    "int g(int x) { if (f(x)) { return 1; } return 0; }",
+    "int main() { int a; a = g(a); return a; }"
+  };
+
+  /** g and f are unchanged, but the temporary variables and node numbers of g are shifted. */
+  private static final String[] MODIFIED_PROGRAM = {
+    "int f(int x) { return x + 1; }",
+    "int h(int x) { if (f(x)) { return 2; } return 3; }",
+    "int g(int x) { if (f(x)) { return 1; } return 0; }",
+    "int main() { int a; a = g(a); a = h(a); return a; }"
+  };
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static FluentIterable<Integer> nodeNumbersOf(CFA pCfa, String pFunction) {
+    return FluentIterable.from(pCfa.getAllNodes())
+        .filter(node -> node.getFunctionName().equals(pFunction))
+        .transform(CFANode::getNodeNumber);
+  }
+
+  @Test
+  public void normalizeTemporaryVariables() {
+    Map<String, String> names = new HashMap<>();
+    assertThat(FunctionHashes.normalize("int __CPAchecker_TMP_7;", names))
+        .isEqualTo("int __CPAchecker_TMP_0;");
+    assertThat(FunctionHashes.normalize("__CPAchecker_TMP_9 = __CPAchecker_TMP_7;", names))
+        .isEqualTo("__CPAchecker_TMP_1 = __CPAchecker_TMP_0;");
+    assertThat(FunctionHashes.normalize("x = 1;", names)).isEqualTo("x = 1;");
+  }
+
+  @Test
+  public void unchangedProgram() throws Exception {
+    CFA cfa = TestDataTools.makeCFA(PROGRAM);
+    FunctionHashes hashes = FunctionHashes.of(cfa);
+
+    assertThat(hashes.getUnchangedFunctions(FunctionHashes.of(cfa)))
+        .containsExactlyElementsIn(cfa.getAllFunctionNames());
+
+    ImmutableMap<Integer, Integer> translation = hashes.getNodeTranslation(hashes);
+    for (CFANode node : cfa.getAllNodes()) {
+      assertThat(translation).containsEntry(node.getNodeNumber(), node.getNodeNumber());
+    }
+  }
+
+  @Test
+  public void modifiedProgram() throws Exception {
+    CFA previousCfa = TestDataTools.makeCFA(PROGRAM);
+    CFA currentCfa = TestDataTools.makeCFA(MODIFIED_PROGRAM);
+    FunctionHashes previous = FunctionHashes.of(previousCfa);
+    FunctionHashes current = FunctionHashes.of(currentCfa);
+
+    assertThat(current.getUnchangedFunctions(previous)).containsExactly("f", "g");
+
+    ImmutableMap<Integer, Integer> translation = current.getNodeTranslation(previous);
+    assertThat(translation.keySet())
+        .containsExactlyElementsIn(
+            nodeNumbersOf(previousCfa, "f").append(nodeNumbersOf(previousCfa, "g")).toSet());
+    assertThat(translation.values())
+        .containsExactlyElementsIn(
+            nodeNumbersOf(currentCfa, "f").append(nodeNumbersOf(currentCfa, "g")).toSet());
+    assertThat(translation)
+        .containsEntry(
+            previousCfa.getFunctionHead("g").getNodeNumber(),
+            currentCfa.getFunctionHead("g").getNodeNumber());
+    assertThat(translation)
+        .containsEntry(
+            previousCfa.getFunctionHead("g").getExitNode().getNodeNumber(),
+            currentCfa.getFunctionHead("g").getExitNode().getNodeNumber());
+  }
+
+  @Test
+  public void writeAndRead() throws Exception {
+    CFA cfa = TestDataTools.makeCFA(PROGRAM);
+    FunctionHashes hashes = FunctionHashes.of(cfa);
+
+    Path file = tempFolder.newFile("functionHashes.txt").toPath();
+    try (Writer w = Files.newBufferedWriter(file, UTF_8)) {
+      hashes.writeTo(w);
+    }
+    FunctionHashes read = FunctionHashes.readFrom(file);
+
+    assertThat(hashes.getUnchangedFunctions(read))
+        .containsExactlyElementsIn(cfa.getAllFunctionNames());
+    assertThat(hashes.getNodeTranslation(read)).isEqualTo(hashes.getNodeTranslation(hashes));
+  }
+
+  @Test(expected = IOException.class)
+  public void readInvalidFile() throws Exception {
+    Path file = tempFolder.newFile("functionHashes.txt").toPath();
+    Files.write(file, "main 1234 1 x 3\n".getBytes(UTF_8));
+    FunctionHashes.readFrom(file);
+  }
+}
@@ -27,8 +27,10 @@ import com.google.common.collect.ImmutableSortedSet;
 
 import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Formula;
 import org.sosy_lab.java_smt.api.FunctionDeclaration;
 import org.sosy_lab.java_smt.api.visitors.DefaultBooleanFormulaVisitor;
+import org.sosy_lab.java_smt.api.visitors.DefaultFormulaVisitor;
 import org.sosy_lab.java_smt.api.visitors.TraversalProcess;
 
 import java.util.HashSet;
@@ -66,6 +68,29 @@ public class FormulaMeasuring {
     return result;
   }
 
+  /**
+   * Count the distinct terms (including atoms, variables, and constants) of a formula,
+   * i.e., the size of its DAG representation.
+   * This is cheaper than {@link #measure(BooleanFormula)}
+   * and can be used to estimate the memory that is retained by a formula.
+   */
+  public int countDagNodes(Formula formula) {
+    DagNodeCountingVisitor visitor = new DagNodeCountingVisitor();
+    managerView.visitRecursively(formula, visitor);
+    return visitor.nodes;
+  }
+
+  private static class DagNodeCountingVisitor extends DefaultFormulaVisitor<TraversalProcess> {
+
+    private int nodes = 0;
+
+    @Override
+    protected TraversalProcess visitDefault(Formula pF) {
+      nodes++;
+      return TraversalProcess.CONTINUE;
+    }
+  }
+
   private static class FormulaMeasuringVisitor
       extends DefaultBooleanFormulaVisitor<TraversalProcess> {
 
@@ -62,6 +62,7 @@ import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.cpachecker.util.statistics.StatInt;
 import org.sosy_lab.cpachecker.util.statistics.StatKind;
 import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.BooleanFormulaManager;
 import org.sosy_lab.java_smt.api.Formula;
@@ -81,6 +82,8 @@ class JavaBDDRegionManager implements RegionManager {
   // Statistics
   private final StatInt cleanupQueueSize = new StatInt(StatKind.AVG, "Size of BDD node cleanup queue");
   private final StatTimer cleanupTimer = new StatTimer("Time for BDD node cleanup");
+  private final StatTimer reorderTimer = new StatTimer("Time for BDD reordering");
+  private int peakNodeNum = 0;
   private final LogManager logger;
   private final BDDFactory factory;
   private final Region trueFormula;
@@ -106,6 +109,26 @@ class JavaBDDRegionManager implements RegionManager {
   @Option(secure = true,
       description = "Size of the BDD cache in relation to the node table size (set to 0 to use fixed BDD cache size).")
   private double cacheRatio = 0.1;
+
+  @Option(secure = true,
+      description = "Reorder the BDD variables with sifting whenever the number of BDD nodes"
+          + " exceeds a threshold (cf. dynamicReorderingThreshold)."
+          + " The initial order can be set with cpa.predicate.abs.predicateOrdering.method.")
+  private boolean dynamicReordering = false;
+
+  @Option(secure = true,
+      description = "Number of BDD nodes that triggers the first dynamic reordering.")
+  @IntegerOption(min = 1)
+  private int dynamicReorderingThreshold = 100000;
+
+  @Option(secure = true,
+      description = "After a dynamic reordering, the next one is triggered if the number of BDD"
+          + " nodes exceeds the number of nodes after the reordering multiplied by this factor.")
+  private double dynamicReorderingGrowthFactor = 2.0;
+
+  // the number of BDD nodes that triggers the next dynamic reordering
+  private int nextReorderingThreshold;
+
   private int nextvar = 0;
   private int varcount = 100;
 
@@ -131,6 +154,11 @@ class JavaBDDRegionManager implements RegionManager {
     if (cacheSize == 0) {
       cacheSize = (int)(initTableSize * cacheRatio);
     }
+    if (dynamicReorderingGrowthFactor <= 1) {
+      throw new InvalidConfigurationException("Invalid value " + dynamicReorderingGrowthFactor
+          + " for option bdd.javabdd.dynamicReorderingGrowthFactor, needs to be larger than 1.");
+    }
+    nextReorderingThreshold = dynamicReorderingThreshold;
     factory =
         BDDFactory.init(bddPackage.toLowerCase(), initTableSize, cacheSize);
 
@@ -219,20 +247,31 @@ class JavaBDDRegionManager implements RegionManager {
     try {
       BDDFactory.GCStats stats = factory.getGCStats();
       int currentCacheSize = readCacheSize();
+      // Cache stats are disabled in JFactory (CACHESTATS = false), so all values are 0 there.
+      BDDFactory.CacheStats cacheStats = factory.getCacheStats();
+      long cacheAccesses = (long) cacheStats.opHit + cacheStats.opMiss;
+      peakNodeNum = Math.max(peakNodeNum, factory.getNodeNum());
 
       writingStatisticsTo(out)
           .put("Number of BDD nodes", factory.getNodeNum())
+          .put("Max. number of BDD nodes", peakNodeNum)
           .put("Size of BDD node table", factory.getNodeTableSize())
           .putIf(currentCacheSize >= 0, "Size of BDD cache", currentCacheSize)
+          .putIf(
+              cacheAccesses > 0,
+              "BDD cache hit rate",
+              StatisticsUtils.toPercent(cacheStats.opHit, cacheAccesses))
           .put(cleanupQueueSize)
           .put(cleanupTimer)
           .put(
               "Time for BDD garbage collection",
               TimeSpan.ofMillis(stats.sumtime).formatAs(SECONDS)
-                  + " (in " + stats.num + " runs)");
-
-      // Cache stats are disabled in JFactory (CACHESTATS = false)
-      // out.println(factory.getCacheStats());
+                  + " (in " + stats.num + " runs)")
+          .putIfUpdatedAtLeastOnce(reorderTimer)
+          .putIf(
+              reorderTimer.getUpdateCount() > 0,
+              "Number of BDD reorderings",
+              reorderTimer.getUpdateCount());
     } catch (UnsupportedOperationException e) {
       // Not all factories might have all statistics supported.
       // As statistics are not that important, just ignore it.
@@ -317,6 +356,51 @@ class JavaBDDRegionManager implements RegionManager {
     } finally {
       cleanupTimer.stop();
     }
+
+    // track the peak here (and not only before reordering), because this is called
+    // from all public methods after the intermediate results of operations are freed
+    int nodeNum = factory.getNodeNum();
+    peakNodeNum = Math.max(peakNodeNum, nodeNum);
+
+    if (dynamicReordering) {
+      reorderIfNecessary(nodeNum);
+    }
+  }
+
+  /**
+   * Reorder the BDD variables with sifting if the number of BDD nodes has grown too much.
+   * This is called only from {@link #cleanupReferences()} (i.e., at the beginning of public
+   * methods), where all BDDs that are still needed are referenced
+   * and the intermediate results of operations are already freed.
+   */
+  private void reorderIfNecessary(int nodeNum) {
+    if (nodeNum < nextReorderingThreshold) {
+      return;
+    }
+
+    reorderTimer.start();
+    try {
+      factory.reorder(BDDFactory.REORDER_SIFT);
+    } finally {
+      reorderTimer.stop();
+    }
+
+    int newNodeNum = factory.getNodeNum();
+    nextReorderingThreshold =
+        (int)
+            Math.min(
+                Integer.MAX_VALUE,
+                Math.max(
+                    dynamicReorderingThreshold, newNodeNum * dynamicReorderingGrowthFactor));
+    logger.log(
+        LOG_LEVEL,
+        "Dynamic BDD reordering reduced number of nodes from",
+        nodeNum,
+        "to",
+        newNodeNum,
+        ", next reordering at",
+        nextReorderingThreshold,
+        "nodes");
   }
 
   /**
@@ -483,30 +567,38 @@ class JavaBDDRegionManager implements RegionManager {
 
   @Override
   public void reorder(PredicateOrderingStrategy strategy) {
+    final BDDFactory.ReorderMethod method;
     switch (strategy) {
       case FRAMEWORK_RANDOM:
-        factory.reorder(BDDFactory.REORDER_RANDOM);
+        method = BDDFactory.REORDER_RANDOM;
         break;
       case FRAMEWORK_SIFT:
-        factory.reorder(BDDFactory.REORDER_SIFT);
+        method = BDDFactory.REORDER_SIFT;
         break;
       case FRAMEWORK_SIFTITE:
-        factory.reorder(BDDFactory.REORDER_SIFTITE);
+        method = BDDFactory.REORDER_SIFTITE;
         break;
       case FRAMEWORK_WIN2:
-        factory.reorder(BDDFactory.REORDER_WIN2);
+        method = BDDFactory.REORDER_WIN2;
         break;
       case FRAMEWORK_WIN2ITE:
-        factory.reorder(BDDFactory.REORDER_WIN2ITE);
+        method = BDDFactory.REORDER_WIN2ITE;
         break;
       case FRAMEWORK_WIN3:
-        factory.reorder(BDDFactory.REORDER_WIN3);
+        method = BDDFactory.REORDER_WIN3;
         break;
       case FRAMEWORK_WIN3ITE:
-        factory.reorder(BDDFactory.REORDER_WIN3ITE);
+        method = BDDFactory.REORDER_WIN3ITE;
         break;
       default:
-        break;
+        return;
+    }
+
+    reorderTimer.start();
+    try {
+      factory.reorder(method);
+    } finally {
+      reorderTimer.stop();
     }
   }
 
@@ -96,6 +96,9 @@ public final class InterpolationManager {
   private final Timer cexAnalysisGetUsefulBlocksTimer = new Timer();
   private final Timer interpolantVerificationTimer = new Timer();
   private int reusedFormulasOnSolverStack = 0;
+  private int pushedFormulasOnSolverStack = 0;
+  private int poppedFormulasFromSolverStack = 0;
+  private int skippedSatChecksOfReusedFormulas = 0;
 
   public void printStatistics(StatisticsWriter w0) {
     w0.put("Counterexample analysis", cexAnalysisTimer + " (Max: " + cexAnalysisTimer.getMaxTime().formatAs(TimeUnit.SECONDS) + ", Calls: " + cexAnalysisTimer.getNumberOfIntervals() + ")");
@@ -106,6 +109,11 @@ public final class InterpolationManager {
     w1.put("Refinement sat check", satCheckTimer);
     if (reuseInterpolationEnvironment && satCheckTimer.getNumberOfIntervals() > 0) {
       w1.put("Reused formulas on solver stack", reusedFormulasOnSolverStack + " (Avg: " + div(reusedFormulasOnSolverStack, satCheckTimer.getNumberOfIntervals()) + ")");
+      w1.put("Pushed formulas on solver stack", pushedFormulasOnSolverStack + " (Avg: " + div(pushedFormulasOnSolverStack, satCheckTimer.getNumberOfIntervals()) + ")");
+      w1.put("Popped formulas from solver stack", poppedFormulasFromSolverStack);
+      if (incrementalCheck) {
+        w1.put("Sat checks of reused formulas skipped", skippedSatChecksOfReusedFormulas);
+      }
     }
     w1.put("Interpolant computation", getInterpolantTimer);
     if (interpolantVerificationTimer.getNumberOfIntervals() > 0) {
@@ -673,25 +681,31 @@ public final class InterpolationManager {
 
     // add formula to solver environment
     pProver.push(branchingFormula);
+    try {
 
-    // need to ask solver for satisfiability again,
-    // otherwise model doesn't contain new predicates
-    boolean stillSatisfiable = !pProver.isUnsat();
+      // need to ask solver for satisfiability again,
+      // otherwise model doesn't contain new predicates
+      boolean stillSatisfiable = !pProver.isUnsat();
 
-    if (stillSatisfiable) {
-      List<ValueAssignment> model = pProver.getModelAssignments();
-      return CounterexampleTraceInfo.feasible(
-          f, model, pmgr.getBranchingPredicateValuesFromModel(model));
+      if (stillSatisfiable) {
+        List<ValueAssignment> model = pProver.getModelAssignments();
+        return CounterexampleTraceInfo.feasible(
+            f, model, pmgr.getBranchingPredicateValuesFromModel(model));
 
-    } else {
-      // this should not happen
-      logger.log(Level.WARNING, "Could not get precise error path information because of inconsistent reachingPathsFormula!");
+      } else {
+        // this should not happen
+        logger.log(Level.WARNING, "Could not get precise error path information because of inconsistent reachingPathsFormula!");
 
-      dumpInterpolationProblem(f);
-      dumpFormulaToFile("formula", branchingFormula, f.size());
+        dumpInterpolationProblem(f);
+        dumpFormulaToFile("formula", branchingFormula, f.size());
 
-      return CounterexampleTraceInfo.feasible(
-          f, ImmutableList.<ValueAssignment>of(), ImmutableMap.<Integer, Boolean>of());
+        return CounterexampleTraceInfo.feasible(
+            f, ImmutableList.<ValueAssignment>of(), ImmutableMap.<Integer, Boolean>of());
+      }
+
+    } finally {
+      // the solver stack might be reused for the next counterexample
+      pProver.pop();
     }
   }
 
@@ -732,6 +746,12 @@ public final class InterpolationManager {
     public InterpolatingProverEnvironment<T> itpProver;
     private final List<Triple<BooleanFormula, AbstractState, T>> currentlyAssertedFormulas = new ArrayList<>();
 
+    /**
+     * Number of formulas at the bottom of the solver stack
+     * that are known to be satisfiable together (from a previous sat check).
+     */
+    private int satisfiablePrefixLength = 0;
+
     Interpolator() {
       itpProver = newEnvironment();
     }
@@ -893,9 +913,11 @@ public final class InterpolationManager {
       } else if (firstBadIndex == 0) {
         // Create a new environment instead of cleaning up the old one
         // if no formulas need to be reused.
+        poppedFormulasFromSolverStack += currentlyAssertedFormulas.size();
         itpProver.close();
         itpProver = newEnvironment();
         currentlyAssertedFormulas.clear();
+        satisfiablePrefixLength = 0;
 
       } else {
         assert firstBadIndex > 0;
@@ -909,17 +931,29 @@ public final class InterpolationManager {
         for (int i = 0; i < toDeleteFormulas.size(); i++) {
           itpProver.pop();
         }
+        poppedFormulasFromSolverStack += toDeleteFormulas.size();
         toDeleteFormulas.clear(); // this removes from currentlyAssertedFormulas
-
-        reusedFormulasOnSolverStack += currentlyAssertedFormulas.size();
+        satisfiablePrefixLength =
+            Math.min(satisfiablePrefixLength, currentlyAssertedFormulas.size());
       }
 
+      // this includes the case where the whole stack is a prefix of the new trace
+      reusedFormulasOnSolverStack += currentlyAssertedFormulas.size();
+
       boolean isStillFeasible = true;
 
       // we do only need this unsat call here if we are using the incremental
       // checking option, otherwise it is anyway done later on
       if (incrementalCheck && !currentlyAssertedFormulas.isEmpty()) {
-        isStillFeasible = !itpProver.isUnsat();
+        if (satisfiablePrefixLength == currentlyAssertedFormulas.size()) {
+          // the remaining formulas were already checked in a previous query
+          skippedSatChecksOfReusedFormulas++;
+        } else {
+          isStillFeasible = !itpProver.isUnsat();
+          if (isStillFeasible) {
+            satisfiablePrefixLength = currentlyAssertedFormulas.size();
+          }
+        }
       }
 
       // add remaining formulas to the solver stack
@@ -934,12 +968,16 @@ public final class InterpolationManager {
         final Triple<BooleanFormula, AbstractState, T> assertedFormula = Triple.of(f, state, itpGroupId);
         formulasWithStatesAndGroupdIds.set(index, assertedFormula);
         currentlyAssertedFormulas.add(assertedFormula);
+        pushedFormulasOnSolverStack++;
 
 
         // We need to iterate through the full loop
         // to add all formulas, but this prevents us from doing further sat checks.
         if (incrementalCheck && isStillFeasible && !bfmgr.isTrue(f)) {
           isStillFeasible = !itpProver.isUnsat();
+          if (isStillFeasible) {
+            satisfiablePrefixLength = currentlyAssertedFormulas.size();
+          }
         }
       }
 
@@ -950,13 +988,18 @@ public final class InterpolationManager {
       // we have to do the sat check every time, as it could be that also
       // with incremental checking it was missing (when the path is infeasible
       // and formulas get pushed afterwards)
-      return itpProver.isUnsat();
+      boolean isUnsat = itpProver.isUnsat();
+      if (!isUnsat) {
+        satisfiablePrefixLength = currentlyAssertedFormulas.size();
+      }
+      return isUnsat;
     }
 
     private void close() {
       itpProver.close();
       itpProver = null;
       currentlyAssertedFormulas.clear();
+      satisfiablePrefixLength = 0;
     }
   }
 }
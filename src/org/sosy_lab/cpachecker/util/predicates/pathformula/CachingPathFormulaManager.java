@@ -25,6 +25,8 @@ package org.sosy_lab.cpachecker.util.predicates.pathformula;
 
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import java.io.PrintStream;
 import java.util.HashMap;
 import java.util.List;
@@ -48,11 +50,17 @@ import org.sosy_lab.java_smt.api.Model.ValueAssignment;
 /**
  * Implementation of {@link PathFormulaManager} that delegates to another
  * instance but caches results of some methods.
+ *
+ * The cached path formulas (and their SSA maps and pointer-target sets) are interned,
+ * such that equal instances are usually identical
+ * and the lookups in the caches can be decided by the identity checks in the equals methods
+ * instead of deep comparisons of the maps.
  */
 public class CachingPathFormulaManager implements PathFormulaManager {
 
   public final Timer pathFormulaComputationTimer = new Timer();
   public int pathFormulaCacheHits = 0;
+  public int internedPathFormulaHits = 0;
 
   public final PathFormulaManager delegate;
 
@@ -67,11 +75,34 @@ public class CachingPathFormulaManager implements PathFormulaManager {
   private final Map<PathFormula, PathFormula> emptyFormulaCache
             = new HashMap<>();
 
+  private final Interner<PathFormula> pathFormulaInterner = Interners.newWeakInterner();
+  private final Interner<SSAMap> ssaMapInterner = Interners.newWeakInterner();
+  private final Interner<PointerTargetSet> pointerTargetSetInterner = Interners.newWeakInterner();
+
   private final PathFormula emptyFormula;
 
   public CachingPathFormulaManager(PathFormulaManager pDelegate) {
     delegate = pDelegate;
-    emptyFormula = delegate.makeEmptyPathFormula();
+    emptyFormula = intern(delegate.makeEmptyPathFormula());
+  }
+
+  /**
+   * Return the canonical instance of a path formula.
+   * The SSA map and the pointer-target set are interned separately,
+   * because they are shared by path formulas with different formulas.
+   */
+  private PathFormula intern(PathFormula pPathFormula) {
+    SSAMap ssa = ssaMapInterner.intern(pPathFormula.getSsa());
+    PointerTargetSet pts = pointerTargetSetInterner.intern(pPathFormula.getPointerTargetSet());
+    PathFormula pathFormula = pPathFormula;
+    if (ssa != pathFormula.getSsa() || pts != pathFormula.getPointerTargetSet()) {
+      pathFormula = new PathFormula(pathFormula.getFormula(), ssa, pts, pathFormula.getLength());
+    }
+    PathFormula result = pathFormulaInterner.intern(pathFormula);
+    if (result != pathFormula) {
+      internedPathFormulaHits++;
+    }
+    return result;
   }
 
   @Override
@@ -83,6 +114,7 @@ public class CachingPathFormulaManager implements PathFormulaManager {
       pathFormulaComputationTimer.start();
       // compute new pathFormula with the operation on the edge
       result = delegate.makeAndWithErrorConditions(pOldFormula, pEdge);
+      result = Pair.of(intern(result.getFirst()), result.getSecond());
       pathFormulaComputationTimer.stop();
       andFormulaWithConditionsCache.put(formulaCacheKey, result);
 
@@ -100,7 +132,7 @@ public class CachingPathFormulaManager implements PathFormulaManager {
       try {
       pathFormulaComputationTimer.start();
       // compute new pathFormula with the operation on the edge
-      result = delegate.makeAnd(pOldFormula, pEdge);
+      result = intern(delegate.makeAnd(pOldFormula, pEdge));
       andFormulaCache.put(formulaCacheKey, result);
       } finally {
         pathFormulaComputationTimer.stop();
@@ -123,7 +155,7 @@ public class CachingPathFormulaManager implements PathFormulaManager {
     }
 
     if (result == null) {
-      result = delegate.makeOr(pF1, pF2);
+      result = intern(delegate.makeOr(pF1, pF2));
       orFormulaCache.put(formulaCacheKey, result);
     } else {
       pathFormulaCacheHits++;
@@ -140,7 +172,7 @@ public class CachingPathFormulaManager implements PathFormulaManager {
   public PathFormula makeEmptyPathFormula(PathFormula pOldFormula) {
     PathFormula result = emptyFormulaCache.get(pOldFormula);
     if (result == null) {
-      result = delegate.makeEmptyPathFormula(pOldFormula);
+      result = intern(delegate.makeEmptyPathFormula(pOldFormula));
       emptyFormulaCache.put(pOldFormula, result);
     } else {
       pathFormulaCacheHits++;
@@ -225,6 +257,7 @@ public class CachingPathFormulaManager implements PathFormulaManager {
             + " ("
             + toPercent(cacheHits, totalPathFormulaComputations)
             + ")");
+    out.println("Number of reused interned formulas:  " + internedPathFormulaHits);
     out.println();
 
     out.println("Inside post operator:                  ");
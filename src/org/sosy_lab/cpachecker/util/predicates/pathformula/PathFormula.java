@@ -45,12 +45,23 @@ public final class PathFormula implements Serializable {
   private final int length;
   private final PointerTargetSet pts;
 
+  // Path formulas are often used as keys in caches, so precompute the hash code
+  private final int cachedHashCode;
+
   public PathFormula(BooleanFormula pf, SSAMap ssa, PointerTargetSet pts,
       int pLength) {
     this.formula = checkNotNull(pf);
     this.ssa = checkNotNull(ssa);
     this.pts = checkNotNull(pts);
     this.length = pLength;
+
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + formula.hashCode();
+    result = prime * result + length;
+    result = prime * result + pts.hashCode();
+    result = prime * result + ssa.hashCode();
+    cachedHashCode = result;
   }
 
   public BooleanFormula getFormula() {
@@ -93,6 +104,7 @@ public final class PathFormula implements Serializable {
 
     PathFormula other = (PathFormula)obj;
     return (length == other.length)
+        && cachedHashCode == other.cachedHashCode
         && formula.equals(other.formula)
         && ssa.equals(other.ssa)
         && pts.equals(other.pts)
@@ -101,13 +113,7 @@ public final class PathFormula implements Serializable {
 
   @Override
   public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + formula.hashCode();
-    result = prime * result + length;
-    result = prime * result + pts.hashCode();
-    result = prime * result + ssa.hashCode();
-    return result;
+    return cachedHashCode;
   }
 
   private Object writeReplace() {
@@ -141,13 +141,17 @@ public final class PointerTargetSet implements Serializable {
 
   @Override
   public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + bases.hashCode();
-    result = prime * result + fields.hashCode();
-    result = prime * result + deferredAllocations.hashCode();
-    result = prime * result + highestAllocatedAddresses.hashCode();
-    result = prime * result + Integer.hashCode(allocationCount);
+    int result = cachedHashCode;
+    if (result == 0) {
+      final int prime = 31;
+      result = 1;
+      result = prime * result + bases.hashCode();
+      result = prime * result + fields.hashCode();
+      result = prime * result + deferredAllocations.hashCode();
+      result = prime * result + highestAllocatedAddresses.hashCode();
+      result = prime * result + Integer.hashCode(allocationCount);
+      cachedHashCode = result;
+    }
     return result;
   }
 
@@ -161,11 +165,13 @@ public final class PointerTargetSet implements Serializable {
       PointerTargetSet other = (PointerTargetSet) obj;
       // No need to check for equality of targets
       // because if bases and fields are equal, targets is equal, too.
-      return bases.equals(other.bases)
+      // Do a few cheap checks before the expensive ones.
+      return allocationCount == other.allocationCount
+          && hashCode() == other.hashCode()
+          && bases.equals(other.bases)
           && fields.equals(other.fields)
           && deferredAllocations.equals(other.deferredAllocations)
-          && highestAllocatedAddresses.equals(other.getHighestAllocatedAddresses())
-          && allocationCount == other.allocationCount;
+          && highestAllocatedAddresses.equals(other.getHighestAllocatedAddresses());
     }
   }
 
@@ -267,6 +273,9 @@ public final class PointerTargetSet implements Serializable {
 
   private final int allocationCount;
 
+  // Cache hashCode of potentially big maps, computed lazily (0 if not yet computed)
+  private transient int cachedHashCode = 0;
+
   private static final String BASE_PREFIX = "__ADDRESS_OF_";
 
   private static final long serialVersionUID = 2102505458322248624L;
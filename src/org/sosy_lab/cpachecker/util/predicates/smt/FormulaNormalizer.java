@@ -0,0 +1,200 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView.BooleanFormulaTransformationVisitor;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.visitors.DefaultBooleanFormulaVisitor;
+
+/**
+ * Normalization of the Boolean structure of formulas,
+ * such that structurally different but trivially equivalent formulas become identical
+ * (which increases the hit rate of caches that use formulas as keys)
+ * and the solver gets smaller queries.
+ *
+ * The normalization folds Boolean constants, flattens nested conjunctions and disjunctions,
+ * removes duplicate and complementary operands, simplifies if-then-else, equivalence,
+ * and implication with constant or equal operands,
+ * and sorts the operands of conjunctions and disjunctions.
+ * The order is based on the string representation of the formulas
+ * and thus does not depend on hash codes, which may differ between runs or solver contexts.
+ * Atoms are not changed, and the result is always equivalent to the input.
+ */
+final class FormulaNormalizer {
+
+  private final FormulaManagerView fmgr;
+  private final BooleanFormulaManagerView bfmgr;
+
+  FormulaNormalizer(FormulaManagerView pFmgr) {
+    fmgr = pFmgr;
+    bfmgr = pFmgr.getBooleanFormulaManager();
+  }
+
+  BooleanFormula normalize(BooleanFormula f) {
+    return bfmgr.transformRecursively(f, new NormalizingVisitor());
+  }
+
+  /** Returns the operand of a negation, or null if the formula is not a negation. */
+  private static class NegatedOperandVisitor extends DefaultBooleanFormulaVisitor<BooleanFormula> {
+
+    @Override
+    protected BooleanFormula visitDefault() {
+      return null;
+    }
+
+    @Override
+    public BooleanFormula visitNot(BooleanFormula pOperand) {
+      return pOperand;
+    }
+  }
+
+  private class NormalizingVisitor extends BooleanFormulaTransformationVisitor {
+
+    private final NegatedOperandVisitor negatedOperand = new NegatedOperandVisitor();
+
+    /** the sort keys of the operands, which are expensive to compute for large formulas */
+    private final Map<BooleanFormula, String> sortKeys = new HashMap<>();
+
+    private final Comparator<BooleanFormula> operandOrder =
+        Comparator.comparing(f -> sortKeys.computeIfAbsent(f, Object::toString));
+
+    private NormalizingVisitor() {
+      super(fmgr);
+    }
+
+    @Override
+    public BooleanFormula visitNot(BooleanFormula pOperand) {
+      if (bfmgr.isTrue(pOperand)) {
+        return bfmgr.makeFalse();
+      } else if (bfmgr.isFalse(pOperand)) {
+        return bfmgr.makeTrue();
+      }
+      BooleanFormula inner = bfmgr.visit(pOperand, negatedOperand);
+      if (inner != null) {
+        return inner;
+      }
+      return bfmgr.not(pOperand);
+    }
+
+    @Override
+    public BooleanFormula visitAnd(List<BooleanFormula> pOperands) {
+      List<BooleanFormula> operands = flatten(pOperands, true);
+      return operands == null ? bfmgr.makeFalse() : bfmgr.and(operands);
+    }
+
+    @Override
+    public BooleanFormula visitOr(List<BooleanFormula> pOperands) {
+      List<BooleanFormula> operands = flatten(pOperands, false);
+      return operands == null ? bfmgr.makeTrue() : bfmgr.or(operands);
+    }
+
+    /**
+     * Flatten the (already normalized) operands of a conjunction or disjunction,
+     * remove neutral elements and duplicates, and sort them.
+     *
+     * @param pConjunction whether the operands belong to a conjunction or a disjunction
+     * @return the new operands, or null if the formula is equivalent to the absorbing element
+     *     (false for conjunctions, true for disjunctions)
+     */
+    private List<BooleanFormula> flatten(List<BooleanFormula> pOperands, boolean pConjunction) {
+      Set<BooleanFormula> operands = new LinkedHashSet<>();
+      for (BooleanFormula operand : pOperands) {
+        Set<BooleanFormula> args =
+            pConjunction
+                ? bfmgr.toConjunctionArgs(operand, false)
+                : bfmgr.toDisjunctionArgs(operand, false);
+        for (BooleanFormula arg : args) {
+          if (pConjunction ? bfmgr.isFalse(arg) : bfmgr.isTrue(arg)) {
+            return null;
+          } else if (pConjunction ? !bfmgr.isTrue(arg) : !bfmgr.isFalse(arg)) {
+            operands.add(arg);
+          }
+        }
+      }
+
+      for (BooleanFormula operand : operands) {
+        BooleanFormula inner = bfmgr.visit(operand, negatedOperand);
+        if (inner != null && operands.contains(inner)) {
+          // x & !x is false, x | !x is true
+          return null;
+        }
+      }
+
+      List<BooleanFormula> result = new ArrayList<>(operands);
+      result.sort(operandOrder);
+      return result;
+    }
+
+    @Override
+    public BooleanFormula visitIfThenElse(
+        BooleanFormula pCondition, BooleanFormula pThen, BooleanFormula pElse) {
+      if (bfmgr.isTrue(pCondition) || pThen.equals(pElse)) {
+        return pThen;
+      } else if (bfmgr.isFalse(pCondition)) {
+        return pElse;
+      } else if (bfmgr.isTrue(pThen)) {
+        return visitOr(ImmutableList.of(pCondition, pElse));
+      } else if (bfmgr.isFalse(pElse)) {
+        return visitAnd(ImmutableList.of(pCondition, pThen));
+      } else if (bfmgr.isFalse(pThen)) {
+        return visitAnd(ImmutableList.of(visitNot(pCondition), pElse));
+      } else if (bfmgr.isTrue(pElse)) {
+        return visitOr(ImmutableList.of(visitNot(pCondition), pThen));
+      }
+      return bfmgr.ifThenElse(pCondition, pThen, pElse);
+    }
+
+    @Override
+    public BooleanFormula visitEquivalence(BooleanFormula pOperand1, BooleanFormula pOperand2) {
+      if (pOperand1.equals(pOperand2)) {
+        return bfmgr.makeTrue();
+      } else if (bfmgr.isTrue(pOperand1)) {
+        return pOperand2;
+      } else if (bfmgr.isTrue(pOperand2)) {
+        return pOperand1;
+      } else if (bfmgr.isFalse(pOperand1)) {
+        return visitNot(pOperand2);
+      } else if (bfmgr.isFalse(pOperand2)) {
+        return visitNot(pOperand1);
+      }
+      if (operandOrder.compare(pOperand1, pOperand2) > 0) {
+        return bfmgr.equivalence(pOperand2, pOperand1);
+      }
+      return bfmgr.equivalence(pOperand1, pOperand2);
+    }
+
+    @Override
+    public BooleanFormula visitImplication(BooleanFormula pOperand1, BooleanFormula pOperand2) {
+      return visitOr(ImmutableList.of(visitNot(pOperand1), pOperand2));
+    }
+  }
+}
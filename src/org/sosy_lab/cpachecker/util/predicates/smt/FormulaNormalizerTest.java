@@ -0,0 +1,118 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.SolverException;
+
+@RunWith(Parameterized.class)
+@SuppressFBWarnings("NP_NONNULL_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR")
+public class FormulaNormalizerTest extends SolverViewBasedTest0 {
+
+  @Parameters(name = "{0}")
+  public static Object[] getAllSolvers() {
+    return Solvers.values();
+  }
+
+  @Parameter(0)
+  public Solvers solverToUse;
+
+  @Override
+  protected Solvers solverToUse() {
+    return solverToUse;
+  }
+
+  private FormulaNormalizer normalizer;
+  private BooleanFormula a;
+  private BooleanFormula b;
+  private BooleanFormula c;
+
+  @Before
+  public void setUp() {
+    normalizer = new FormulaNormalizer(mgrv);
+    a = bmgrv.makeVariable("a");
+    b = bmgrv.makeVariable("b");
+    c = bmgrv.makeVariable("c");
+  }
+
+  @Test
+  public void testConstants() {
+    assertThat(normalizer.normalize(bmgrv.and(a, bmgrv.makeTrue()))).isEqualTo(a);
+    assertThat(normalizer.normalize(bmgrv.and(a, bmgrv.makeFalse())))
+        .isEqualTo(bmgrv.makeFalse());
+    assertThat(normalizer.normalize(bmgrv.or(a, bmgrv.makeTrue()))).isEqualTo(bmgrv.makeTrue());
+    assertThat(normalizer.normalize(bmgrv.implication(bmgrv.makeFalse(), a)))
+        .isEqualTo(bmgrv.makeTrue());
+  }
+
+  @Test
+  public void testComplementaryOperands() {
+    assertThat(normalizer.normalize(bmgrv.and(a, b, bmgrv.not(a))))
+        .isEqualTo(bmgrv.makeFalse());
+    assertThat(normalizer.normalize(bmgrv.or(b, bmgrv.not(a), a))).isEqualTo(bmgrv.makeTrue());
+  }
+
+  @Test
+  public void testOrderAndNesting() {
+    BooleanFormula f1 = bmgrv.and(a, bmgrv.and(b, c));
+    BooleanFormula f2 = bmgrv.and(bmgrv.and(c, a), b, a);
+    assertThat(normalizer.normalize(f1)).isEqualTo(normalizer.normalize(f2));
+
+    BooleanFormula g1 = bmgrv.or(bmgrv.or(a, b), c);
+    BooleanFormula g2 = bmgrv.or(c, bmgrv.or(b, a));
+    assertThat(normalizer.normalize(g1)).isEqualTo(normalizer.normalize(g2));
+
+    BooleanFormula h1 = bmgrv.equivalence(f1, g1);
+    BooleanFormula h2 = bmgrv.equivalence(g2, f2);
+    assertThat(normalizer.normalize(h1)).isEqualTo(normalizer.normalize(h2));
+  }
+
+  @Test
+  public void testOrderIsIndependentOfNormalizer() {
+    BooleanFormula f = bmgrv.or(bmgrv.and(c, b), bmgrv.not(a), bmgrv.and(b, a));
+    assertThat(normalizer.normalize(f)).isEqualTo(new FormulaNormalizer(mgrv).normalize(f));
+  }
+
+  @Test
+  public void testEquivalence() throws SolverException, InterruptedException {
+    BooleanFormula f =
+        bmgrv.or(
+            bmgrv.ifThenElse(a, bmgrv.makeTrue(), bmgrv.and(b, bmgrv.not(c))),
+            bmgrv.implication(bmgrv.and(c, b, bmgrv.makeTrue()), bmgrv.not(bmgrv.not(a))),
+            bmgrv.equivalence(bmgrv.makeFalse(), b));
+    BooleanFormula normalized = normalizer.normalize(f);
+    assertThatFormula(normalized).isEquivalentTo(f);
+    assertThat(normalizer.normalize(normalized)).isEqualTo(normalized);
+  }
+}
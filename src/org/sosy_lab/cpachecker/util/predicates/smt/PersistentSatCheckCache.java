@@ -0,0 +1,276 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Splitter;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.log.LogManager;
+
+/**
+ * A cache for the results of satisfiability checks that is stored in a file,
+ * such that several runs of CPAchecker (e.g., on the same program) can share results.
+ *
+ * The keys of this cache are hashes of the SMT-LIB representation of the checked formulas,
+ * in which all declared and defined symbols are renamed consistently by the order of
+ * their declaration. Thus the key does not depend on the names of the variables,
+ * which may differ between runs (e.g., for auxiliary terms of the solver).
+ * Such a renaming does not change the satisfiability of a formula.
+ *
+ * The file contains one line per entry with the key and either "sat" or "unsat".
+ * New entries are only appended to the file by {@link #writeNewEntries()},
+ * unless the file would exceed the maximal number of entries.
+ * In this case the file is rewritten with only the most recent entries.
+ */
+final class PersistentSatCheckCache {
+
+  private static final Splitter LINE_SPLITTER = Splitter.on(' ').omitEmptyStrings();
+  private static final String SAT = "sat";
+  private static final String UNSAT = "unsat";
+  private static final String TOKEN_DELIMITERS = "()|\";";
+
+  private final Path file;
+  private final String context;
+  private final int maxEntries;
+  private final LogManager logger;
+
+  /** key -> isUnsat, in the order in which the entries were added to the file */
+  private final Map<String, Boolean> entries = new LinkedHashMap<>();
+
+  /** entries that are not yet stored in the file */
+  private final Map<String, Boolean> newEntries = new LinkedHashMap<>();
+
+  /** whether the file contains entries that were removed from {@link #entries} */
+  private boolean rewriteFile = false;
+
+  /**
+   * Load the cache from the given file (if it exists).
+   *
+   * @param pContext A string that describes everything that may influence the result of a check
+   *     besides the formula itself (e.g., the solver), it is included in all keys.
+   * @param pMaxEntries The maximal number of entries in the file (0 for unlimited).
+   */
+  PersistentSatCheckCache(Path pFile, String pContext, int pMaxEntries, LogManager pLogger) {
+    checkArgument(pMaxEntries >= 0);
+    file = pFile;
+    context = pContext;
+    maxEntries = pMaxEntries;
+    logger = pLogger;
+
+    if (!Files.exists(file)) {
+      return;
+    }
+    try {
+      for (String line : Files.readAllLines(file, UTF_8)) {
+        if (line.startsWith("#")) {
+          continue;
+        }
+        List<String> fields = LINE_SPLITTER.splitToList(line);
+        if (fields.size() == 2 && (fields.get(1).equals(SAT) || fields.get(1).equals(UNSAT))) {
+          entries.put(fields.get(0), fields.get(1).equals(UNSAT));
+        }
+      }
+      removeOldestEntries();
+      logger.log(Level.FINE, "Read", entries.size(), "results of satisfiability checks from", file);
+    } catch (IOException e) {
+      logger.logUserException(
+          Level.WARNING, e, "Could not read cache of satisfiability checks, starting empty");
+    }
+  }
+
+  /** Compute the key for a formula given in SMT-LIB format. */
+  String computeKey(String pSmtlibFormula) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(context, UTF_8);
+    hasher.putChar('\n');
+    hasher.putString(canonicalize(pSmtlibFormula), UTF_8);
+    return hasher.hash().toString();
+  }
+
+  /** Returns whether the formula with the given key is unsat, or null if unknown. */
+  @Nullable Boolean get(String pKey) {
+    return entries.get(pKey);
+  }
+
+  void put(String pKey, boolean pIsUnsat) {
+    if (entries.put(pKey, pIsUnsat) == null) {
+      newEntries.put(pKey, pIsUnsat);
+    }
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  /** Remove the oldest entries if there are more than the maximal number of entries. */
+  private void removeOldestEntries() {
+    if (maxEntries == 0) {
+      return;
+    }
+    Iterator<String> it = entries.keySet().iterator();
+    while (entries.size() > maxEntries) {
+      if (newEntries.remove(it.next()) == null) {
+        // entry is already in the file
+        rewriteFile = true;
+      }
+      it.remove();
+    }
+  }
+
+  /**
+   * Append all new entries to the file, or rewrite the file with the most recent entries
+   * if it would exceed the maximal number of entries.
+   */
+  void writeNewEntries() {
+    removeOldestEntries();
+    if (newEntries.isEmpty() && !rewriteFile) {
+      return;
+    }
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<String, Boolean> entry : (rewriteFile ? entries : newEntries).entrySet()) {
+      sb.append(entry.getKey()).append(' ').append(entry.getValue() ? UNSAT : SAT).append('\n');
+    }
+    // write everything at once, such that parallel runs do not mix their lines
+    try {
+      if (rewriteFile) {
+        // write to a separate file first, such that parallel runs never read a partial file
+        Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmpFile, sb.toString().getBytes(UTF_8));
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+        logger.log(Level.FINE, "Rewrote", file, "with the", entries.size(), "most recent entries");
+      } else {
+        try (Writer w =
+            Files.newBufferedWriter(
+                file, UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+          w.write(sb.toString());
+        }
+      }
+      newEntries.clear();
+      rewriteFile = false;
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write cache of satisfiability checks");
+    }
+  }
+
+  /**
+   * Normalize a formula in SMT-LIB format: remove comments and redundant whitespace,
+   * and rename all symbols that are declared or defined on the top level
+   * by the order of their declaration.
+   */
+  static String canonicalize(String pSmtlibFormula) {
+    List<String> tokens = tokenize(pSmtlibFormula);
+
+    Map<String, String> renaming = new HashMap<>();
+    // The new names are of the form |#0|, which is not a valid simple symbol.
+    // If the input contains such quoted symbols, we do not rename to avoid clashes.
+    boolean mayRename = !pSmtlibFormula.contains("|#");
+    for (int i = 0; mayRename && i + 2 < tokens.size(); i++) {
+      if (tokens.get(i).equals("(")) {
+        String command = tokens.get(i + 1);
+        if (command.equals("declare-fun")
+            || command.equals("declare-const")
+            || command.equals("define-fun")) {
+          String symbol = unquote(tokens.get(i + 2));
+          if (!renaming.containsKey(symbol)) {
+            renaming.put(symbol, "|#" + renaming.size() + "|");
+          }
+        }
+      }
+    }
+
+    StringBuilder result = new StringBuilder(pSmtlibFormula.length());
+    for (String token : tokens) {
+      String renamed = renaming.get(unquote(token));
+      result.append(renamed != null ? renamed : token).append(' ');
+    }
+    return result.toString();
+  }
+
+  private static String unquote(String pSymbol) {
+    if (pSymbol.length() >= 2 && pSymbol.startsWith("|") && pSymbol.endsWith("|")) {
+      return pSymbol.substring(1, pSymbol.length() - 1);
+    }
+    return pSymbol;
+  }
+
+  /** Split SMT-LIB input into parentheses, quoted symbols, string literals, and other tokens. */
+  private static List<String> tokenize(String pInput) {
+    List<String> tokens = new ArrayList<>();
+    int length = pInput.length();
+    int i = 0;
+    while (i < length) {
+      char c = pInput.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (c == ';') {
+        // comment until end of line
+        while (i < length && pInput.charAt(i) != '\n') {
+          i++;
+        }
+      } else if (c == '(' || c == ')') {
+        tokens.add(String.valueOf(c));
+        i++;
+      } else if (c == '|' || c == '"') {
+        int end = pInput.indexOf(c, i + 1);
+        if (c == '"') {
+          // "" is an escaped quote inside string literals
+          while (end >= 0 && end + 1 < length && pInput.charAt(end + 1) == '"') {
+            end = pInput.indexOf(c, end + 2);
+          }
+        }
+        end = (end < 0) ? length : end + 1;
+        tokens.add(pInput.substring(i, end));
+        i = end;
+      } else {
+        int start = i;
+        while (i < length) {
+          char d = pInput.charAt(i);
+          if (Character.isWhitespace(d) || TOKEN_DELIMITERS.indexOf(d) >= 0) {
+            break;
+          }
+          i++;
+        }
+        tokens.add(pInput.substring(start, i));
+      }
+    }
+    return tokens;
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.log.LogManager;
+
+public class PersistentSatCheckCacheTest {
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final LogManager logger = LogManager.createTestLogManager();
+
+  @Test
+  public void testRenamingInvariance() {
+    String f1 = "(declare-fun x@1 () Int)\n(declare-fun y () Int)\n(assert (< x@1 y))";
+    String f2 = "(declare-fun |x@2| () Int) (declare-fun z () Int) ; comment\n(assert (< x@2 z))";
+    assertThat(PersistentSatCheckCache.canonicalize(f1))
+        .isEqualTo(PersistentSatCheckCache.canonicalize(f2));
+  }
+
+  @Test
+  public void testDifferentStructure() {
+    String f1 = "(declare-fun x () Int)\n(declare-fun y () Int)\n(assert (< x y))";
+    String f2 = "(declare-fun x () Int)\n(declare-fun y () Int)\n(assert (< y x))";
+    assertThat(PersistentSatCheckCache.canonicalize(f1))
+        .isNotEqualTo(PersistentSatCheckCache.canonicalize(f2));
+  }
+
+  @Test
+  public void testNoRenamingOfUndeclaredSymbols() {
+    String f1 = "(declare-fun x () Bool)\n(assert (and x true))";
+    String f2 = "(declare-fun true () Bool)\n(assert (and true x))";
+    assertThat(PersistentSatCheckCache.canonicalize(f1))
+        .isNotEqualTo(PersistentSatCheckCache.canonicalize(f2));
+  }
+
+  @Test
+  public void testStringLiterals() {
+    String f = "(declare-fun s () String)\n(assert (= s \"a \"\"b\"\" (c\"))";
+    assertThat(PersistentSatCheckCache.canonicalize(f))
+        .isEqualTo("( declare-fun |#0| ( ) String ) ( assert ( = |#0| \"a \"\"b\"\" (c\" ) ) ");
+  }
+
+  @Test
+  public void testStoreAndReload() throws Exception {
+    Path file = tempFolder.getRoot().toPath().resolve("satCache.txt");
+    PersistentSatCheckCache cache = new PersistentSatCheckCache(file, "ctx", 0, logger);
+    cache.put("a", true);
+    cache.put("b", false);
+    cache.writeNewEntries();
+
+    PersistentSatCheckCache reloaded = new PersistentSatCheckCache(file, "ctx", 0, logger);
+    assertThat(reloaded.get("a")).isTrue();
+    assertThat(reloaded.get("b")).isFalse();
+    assertThat(reloaded.get("c")).isNull();
+
+    reloaded.put("c", true);
+    reloaded.writeNewEntries();
+    assertThat(Files.readAllLines(file, UTF_8)).containsExactly("a unsat", "b sat", "c unsat");
+  }
+
+  @Test
+  public void testMaximalNumberOfEntries() throws Exception {
+    Path file = tempFolder.getRoot().toPath().resolve("satCache.txt");
+    PersistentSatCheckCache cache = new PersistentSatCheckCache(file, "ctx", 2, logger);
+    cache.put("a", true);
+    cache.put("b", false);
+    cache.writeNewEntries();
+    cache.put("c", true);
+    cache.writeNewEntries();
+    assertThat(Files.readAllLines(file, UTF_8)).containsExactly("b sat", "c unsat").inOrder();
+
+    // a lower limit for an existing file keeps only the most recent entries
+    PersistentSatCheckCache reloaded = new PersistentSatCheckCache(file, "ctx", 1, logger);
+    assertThat(reloaded.size()).isEqualTo(1);
+    assertThat(reloaded.get("c")).isTrue();
+    reloaded.writeNewEntries();
+    assertThat(Files.readAllLines(file, UTF_8)).containsExactly("c unsat");
+  }
+}
@@ -24,27 +24,38 @@
 package org.sosy_lab.cpachecker.util.predicates.smt;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 import static org.sosy_lab.java_smt.api.SolverContext.ProverOptions.GENERATE_UNSAT_CORE;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Verify;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Maps;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.configuration.TimeSpanOption;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.util.predicates.FormulaMeasuring;
 import org.sosy_lab.cpachecker.util.predicates.interpolation.SeparateInterpolatingProverEnvironment;
 import org.sosy_lab.cpachecker.util.predicates.ufCheckingProver.UFCheckingBasicProverEnvironment.UFCheckingProverOptions;
 import org.sosy_lab.cpachecker.util.predicates.ufCheckingProver.UFCheckingInterpolatingProverEnvironment;
@@ -94,6 +105,91 @@ public final class Solver implements AutoCloseable {
   description="Extract and cache unsat cores for satisfiability checking")
   private boolean cacheUnsatCores = true;
 
+  @Option(
+    secure = true,
+    description =
+        "Maximal number of entries in each cache for satisfiability checks"
+            + " (0 for unlimited). If a cache is full, the least-recently used entry is removed."
+            + " For the cache of checks with unsat cores, all sets of constraints are counted."
+            + " This limit also applies to the file of the persistent cache."
+  )
+  @IntegerOption(min = 0)
+  private int cacheSize = 0;
+
+  @Option(
+    secure = true,
+    name = "persistentCache.file",
+    description =
+        "File with results of satisfiability checks that is read when the solver is created"
+            + " and extended with new results when the solver is closed,"
+            + " such that later runs (e.g., on the same program) can reuse these results."
+            + " Note that computing the keys for this cache has some overhead for each check."
+  )
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private @Nullable Path persistentCacheFile = null;
+
+  @Option(
+    secure = true,
+    description =
+        "Normalize the Boolean structure of formulas (constant folding, flattening,"
+            + " deterministic order of operands) before satisfiability checks"
+            + " and before they are used as keys of the abstraction caches."
+            + " This increases cache hit rates but costs an additional traversal of new formulas."
+  )
+  private boolean normalizeFormulas = false;
+
+  @Option(
+    secure = true,
+    description =
+        "Measure the size of formulas before and after normalization for the statistics."
+            + " This costs two additional traversals of each normalized formula."
+  )
+  private boolean measureNormalizedFormulas = false;
+
+  @Option(
+    secure = true,
+    description =
+        "Number of separate processes for satisfiability checks (0 to check in this process)."
+            + " Queries are sent to the processes in SMT-LIB2 format,"
+            + " such that crashes of the solver do not affect the analysis."
+            + " This applies only to simple satisfiability checks and not to interpolation,"
+            + " unsat cores, or incremental checks with prover environments."
+  )
+  @IntegerOption(min = 0)
+  private int workerProcesses = 0;
+
+  @Option(
+    secure = true,
+    description =
+        "Time limit for each satisfiability check in a separate process"
+            + " (use milliseconds or specify a unit; 0 for infinite)."
+            + " If the limit is exceeded, the process is terminated"
+            + " and the satisfiability check fails (cf. solver.workerTimeoutRetryLocally)."
+  )
+  @TimeSpanOption(
+    codeUnit = TimeUnit.MILLISECONDS,
+    defaultUserUnit = TimeUnit.MILLISECONDS,
+    min = 0
+  )
+  private TimeSpan workerTimeout = TimeSpan.ofMillis(0);
+
+  @Option(
+    secure = true,
+    description =
+        "Check a query again in this process (without time limit)"
+            + " if a separate process for satisfiability checks exceeded its time limit."
+            + " Otherwise the exceeded time limit is reported as failure of the solver."
+  )
+  private boolean workerTimeoutRetryLocally = false;
+
+  @Option(
+    secure = true,
+    description =
+        "Maximal Java heap size of each separate process for satisfiability checks"
+            + " (in the format of the JVM parameter -Xmx, e.g., 500m)."
+  )
+  private String workerHeapSize = "500m";
+
   private final @Nullable UFCheckingProverOptions ufCheckingProverOptions;
 
   private final FormulaManagerView fmgr;
@@ -102,7 +198,7 @@ public final class Solver implements AutoCloseable {
   private final SolverContext solvingContext;
   private final SolverContext interpolatingContext;
 
-  private final Map<BooleanFormula, Boolean> unsatCache = Maps.newHashMap();
+  private final Map<BooleanFormula, Boolean> unsatCache;
 
   /**
    * More complex unsat cache, grouped by an arbitrary key.
@@ -114,8 +210,18 @@ public final class Solver implements AutoCloseable {
    * If a set of constraints is unsatisfiable, any superset of it is also
    * unsatisfiable.
    */
-  private final Map<Object, Map<Set<BooleanFormula>, Boolean>>
-      groupedUnsatCache = new HashMap<>();
+  private final Map<Object, Map<Set<BooleanFormula>, Boolean>> groupedUnsatCache;
+
+  /** cache for results of satisfiability checks across runs, or null if disabled */
+  private final @Nullable PersistentSatCheckCache persistentCache;
+
+  /** normalizer for formulas and its cache, or null if disabled */
+  private final @Nullable FormulaNormalizer normalizer;
+  private final @Nullable Map<BooleanFormula, BooleanFormula> normalizationCache;
+  private final @Nullable FormulaMeasuring normalizationMeasuring;
+
+  /** pool of separate processes for satisfiability checks, or null if disabled */
+  private final @Nullable SolverWorkerPool workerPool;
 
   private final LogManager logger;
 
@@ -124,39 +230,20 @@ public final class Solver implements AutoCloseable {
   public int satChecks = 0;
   public int trivialSatChecks = 0;
   public int cachedSatChecks = 0;
+  public int cacheEvictions = 0;
+  public int persistentCacheHits = 0;
+  public int persistentCacheMisses = 0;
+  public final Timer normalizationTime = new Timer();
+  public int normalizations = 0;
+  public int cachedNormalizations = 0;
+  public int normalizationCacheEvictions = 0;
+  public long sizeBeforeNormalization = 0;
+  public long sizeAfterNormalization = 0;
+  public int workerSatChecks = 0;
 
   private Solver(SolverContextFactory pSolverFactory, Configuration config, LogManager pLogger)
       throws InvalidConfigurationException {
-    config.inject(this);
-
-    if (solver.equals(interpolationSolver)) {
-      // If interpolationSolver is not null, we use SeparateInterpolatingProverEnvironment
-      // which copies formula from and to the main solver using string serialization.
-      // We don't need this if the solvers are the same anyway.
-      interpolationSolver = null;
-    }
-
-    solvingContext = pSolverFactory.generateContext(solver);
-
-    // Instantiate another SMT solver for interpolation if requested.
-    if (interpolationSolver != null) {
-      interpolatingContext = pSolverFactory.generateContext(interpolationSolver);
-    } else {
-      interpolatingContext = solvingContext;
-    }
-
-    fmgr = new FormulaManagerView(solvingContext.getFormulaManager(),
-        config,
-        pLogger
-    );
-    bfmgr = fmgr.getBooleanFormulaManager();
-    logger = pLogger;
-
-    if (checkUFs) {
-      ufCheckingProverOptions = new UFCheckingProverOptions(config);
-    } else {
-      ufCheckingProverOptions = null;
-    }
+    this(pSolverFactory, config, pLogger, null, null);
   }
 
   /**
@@ -174,7 +261,26 @@ public final class Solver implements AutoCloseable {
       Configuration pConfig,
       LogManager pLogger)
       throws InvalidConfigurationException {
+    this(pSolverFactory, pConfig, pLogger, checkNotNull(pSolver), checkNotNull(pContext));
+  }
+
+  /**
+   * Common constructor for both cases.
+   *
+   * @param pSolver The solver of the given context, or null if the context should be created.
+   * @param pContext The context for the main solver, or null if it should be created.
+   */
+  private Solver(
+      SolverContextFactory pSolverFactory,
+      Configuration pConfig,
+      LogManager pLogger,
+      @Nullable Solvers pSolver,
+      @Nullable SolverContext pContext)
+      throws InvalidConfigurationException {
     pConfig.inject(this);
+    unsatCache = newCache();
+    groupedUnsatCache = newCache((key, stored) -> stored.size(), () -> cacheEvictions++);
+    persistentCache = createPersistentCache(pLogger);
 
     if (solver.equals(interpolationSolver)) {
       // If interpolationSolver is not null, we use SeparateInterpolatingProverEnvironment
@@ -183,8 +289,12 @@ public final class Solver implements AutoCloseable {
       interpolationSolver = null;
     }
 
-    checkArgument(solver.equals(pSolver), "mismatching configuration");
-    solvingContext = pContext;
+    if (pContext == null) {
+      solvingContext = pSolverFactory.generateContext(solver);
+    } else {
+      checkArgument(solver.equals(pSolver), "mismatching configuration");
+      solvingContext = pContext;
+    }
 
     // Instantiate another SMT solver for interpolation if requested.
     if (interpolationSolver != null) {
@@ -193,10 +303,28 @@ public final class Solver implements AutoCloseable {
       interpolatingContext = solvingContext;
     }
 
-    fmgr = new FormulaManagerView(pContext.getFormulaManager(), pConfig, pLogger);
+    fmgr = new FormulaManagerView(solvingContext.getFormulaManager(), pConfig, pLogger);
     bfmgr = fmgr.getBooleanFormulaManager();
     logger = pLogger;
 
+    if (normalizeFormulas) {
+      normalizer = new FormulaNormalizer(fmgr);
+      normalizationCache = newCache((key, value) -> 1, () -> normalizationCacheEvictions++);
+    } else {
+      normalizer = null;
+      normalizationCache = null;
+    }
+    normalizationMeasuring =
+        normalizeFormulas && measureNormalizedFormulas ? new FormulaMeasuring(fmgr) : null;
+
+    if (workerProcesses > 0) {
+      checkWorkerHeapSize();
+      workerPool =
+          new SolverWorkerPool(pConfig, workerProcesses, workerTimeout, workerHeapSize, pLogger);
+    } else {
+      workerPool = null;
+    }
+
     if (checkUFs) {
       ufCheckingProverOptions = new UFCheckingProverOptions(pConfig);
     } else {
@@ -296,12 +424,84 @@ public final class Solver implements AutoCloseable {
     // return environment;
   }
 
+  private void checkWorkerHeapSize() throws InvalidConfigurationException {
+    if (!workerHeapSize.matches("[0-9]+[kKmMgG]?")) {
+      throw new InvalidConfigurationException(
+          "Invalid value '" + workerHeapSize + "' for option solver.workerHeapSize");
+    }
+  }
+
+  /** Create a map for caching results, which is bounded if requested by the user. */
+  private <K, V> Map<K, V> newCache() {
+    return newCache((key, value) -> 1, () -> cacheEvictions++);
+  }
+
+  /**
+   * Create a map for caching results, which is bounded if requested by the user.
+   * The size of the cache is the sum of the weights of all entries,
+   * and the given callback is executed whenever an entry is evicted.
+   */
+  private <K, V> Map<K, V> newCache(Weigher<K, V> pWeigher, Runnable pOnEviction) {
+    if (cacheSize == 0) {
+      return new HashMap<>();
+    }
+    Cache<K, V> cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(cacheSize)
+            .weigher(pWeigher)
+            .removalListener(
+                notification -> {
+                  if (notification.wasEvicted()) {
+                    pOnEviction.run();
+                  }
+                })
+            .build();
+    return cache.asMap();
+  }
+
+  private @Nullable PersistentSatCheckCache createPersistentCache(LogManager pLogger) {
+    if (persistentCacheFile == null) {
+      return null;
+    }
+    // results may depend on the solver and on its configuration
+    String context = solver + " checkUFs=" + checkUFs;
+    return new PersistentSatCheckCache(persistentCacheFile, context, cacheSize, pLogger);
+  }
+
   /**
    * Checks whether a formula is unsat.
    */
   public boolean isUnsat(BooleanFormula f) throws SolverException, InterruptedException {
     satChecks++;
+    f = normalize(f);
 
+    Boolean result = getTrivialOrCachedResult(f);
+    if (result != null) {
+      return result;
+    }
+    String persistentKey = computePersistentKey(f);
+    result = getPersistentlyCachedResult(f, persistentKey);
+    if (result != null) {
+      return result;
+    }
+
+    solverTime.start();
+    try {
+      result = isUnsatUncached(f);
+
+      storeResult(f, persistentKey, result);
+      return result;
+
+    } finally {
+      solverTime.stop();
+    }
+  }
+
+  /**
+   * Return the result for a normalized formula if it is trivial
+   * or in the cache of this solver, otherwise null.
+   */
+  private @Nullable Boolean getTrivialOrCachedResult(BooleanFormula f) {
     if (bfmgr.isTrue(f)) {
       trivialSatChecks++;
       return false;
@@ -313,19 +513,134 @@ public final class Solver implements AutoCloseable {
     Boolean result = unsatCache.get(f);
     if (result != null) {
       cachedSatChecks++;
-      return result;
+    }
+    return result;
+  }
+
+  /** Return the key of a normalized formula for the persistent cache, or null if disabled. */
+  private @Nullable String computePersistentKey(BooleanFormula f) {
+    if (persistentCache == null) {
+      return null;
+    }
+    return persistentCache.computeKey(fmgr.dumpFormula(f).toString());
+  }
+
+  /** Return the result for a normalized formula from the persistent cache, or null. */
+  private @Nullable Boolean getPersistentlyCachedResult(
+      BooleanFormula f, @Nullable String pPersistentKey) {
+    if (pPersistentKey == null) {
+      return null;
+    }
+    Boolean result = persistentCache.get(pPersistentKey);
+    if (result != null) {
+      cachedSatChecks++;
+      persistentCacheHits++;
+      unsatCache.put(f, result);
+    } else {
+      persistentCacheMisses++;
+    }
+    return result;
+  }
+
+  private void storeResult(BooleanFormula f, @Nullable String pPersistentKey, boolean result) {
+    unsatCache.put(f, result);
+    if (pPersistentKey != null) {
+      persistentCache.put(pPersistentKey, result);
+    }
+  }
+
+  /**
+   * Checks each of the given independent formulas for unsatisfiability.
+   * If separate processes are used for satisfiability checks (option solver.workerProcesses),
+   * the formulas whose result is not cached are checked in parallel,
+   * otherwise this is the same as calling {@link #isUnsat(BooleanFormula)} for each formula.
+   *
+   * @return The result for each formula, in the same order as the formulas.
+   */
+  public List<Boolean> isUnsatEach(List<BooleanFormula> formulas)
+      throws SolverException, InterruptedException {
+    List<Boolean> results = new ArrayList<>(formulas.size());
+    if (workerPool == null) {
+      for (BooleanFormula f : formulas) {
+        results.add(isUnsat(f));
+      }
+      return results;
+    }
+
+    List<BooleanFormula> normalizedFormulas = new ArrayList<>(formulas.size());
+    List<String> persistentKeys = new ArrayList<>(formulas.size());
+    List<SolverWorkerPool.PendingQuery> queries = new ArrayList<>(formulas.size());
+    for (BooleanFormula formula : formulas) {
+      satChecks++;
+      BooleanFormula f = normalize(formula);
+      Boolean result = getTrivialOrCachedResult(f);
+      String persistentKey = null;
+      if (result == null) {
+        persistentKey = computePersistentKey(f);
+        result = getPersistentlyCachedResult(f, persistentKey);
+      }
+      normalizedFormulas.add(f);
+      persistentKeys.add(persistentKey);
+      results.add(result);
+      queries.add(result == null ? submitToWorker(f) : null);
     }
 
     solverTime.start();
+    int i = 0;
     try {
-      result = isUnsatUncached(f);
+      for (; i < queries.size(); i++) {
+        SolverWorkerPool.PendingQuery query = queries.get(i);
+        if (query != null) {
+          boolean result = getWorkerResult(query, normalizedFormulas.get(i));
+          storeResult(normalizedFormulas.get(i), persistentKeys.get(i), result);
+          results.set(i, result);
+        }
+      }
+    } finally {
+      // if a query failed, the remaining ones are not needed anymore
+      for (SolverWorkerPool.PendingQuery query : queries.subList(i, queries.size())) {
+        if (query != null) {
+          query.abort();
+        }
+      }
+      solverTime.stop();
+    }
+    return results;
+  }
 
-      unsatCache.put(f, result);
+  /**
+   * Normalize the Boolean structure of a formula if this is enabled
+   * (option solver.normalizeFormulas), otherwise return the formula unchanged.
+   * Equivalent formulas that differ only in the order or nesting of their operands
+   * are normalized to the same formula, so the result can be used as cache key.
+   */
+  public BooleanFormula normalize(BooleanFormula f) {
+    if (normalizer == null) {
+      return f;
+    }
+    normalizations++;
+    BooleanFormula result = normalizationCache.get(f);
+    if (result != null) {
+      cachedNormalizations++;
       return result;
+    }
 
+    normalizationTime.start();
+    try {
+      result = normalizer.normalize(f);
+      if (normalizationMeasuring != null) {
+        sizeBeforeNormalization += normalizationMeasuring.countDagNodes(f);
+        sizeAfterNormalization += normalizationMeasuring.countDagNodes(result);
+      }
     } finally {
-      solverTime.stop();
+      normalizationTime.stop();
     }
+    normalizationCache.put(f, result);
+    if (!result.equals(f)) {
+      // the result is already normalized
+      normalizationCache.put(result, result);
+    }
+    return result;
   }
 
   /**
@@ -434,6 +749,36 @@ public final class Solver implements AutoCloseable {
   }
 
   private boolean isUnsatUncached(BooleanFormula f) throws SolverException, InterruptedException {
+    if (workerPool != null) {
+      return getWorkerResult(submitToWorker(f), f);
+    }
+    return isUnsatLocally(f);
+  }
+
+  private SolverWorkerPool.PendingQuery submitToWorker(BooleanFormula f) {
+    workerSatChecks++;
+    return workerPool.submit(fmgr.dumpFormula(f).toString());
+  }
+
+  /**
+   * Wait for the result of a query in a worker process.
+   * If the worker exceeded its time limit, this fails with a {@link SolverException},
+   * unless checking the formula again in this process is enabled.
+   */
+  private boolean getWorkerResult(SolverWorkerPool.PendingQuery pQuery, BooleanFormula f)
+      throws SolverException, InterruptedException {
+    try {
+      return pQuery.isUnsat();
+    } catch (SolverWorkerPool.WorkerTimeoutException e) {
+      if (!workerTimeoutRetryLocally) {
+        throw e;
+      }
+      logger.logDebugException(e, "Checking query again with local solver");
+      return isUnsatLocally(f);
+    }
+  }
+
+  private boolean isUnsatLocally(BooleanFormula f) throws SolverException, InterruptedException {
     try (ProverEnvironment prover = newProverEnvironment()) {
       prover.push(f);
       return prover.isUnsat();
@@ -461,6 +806,22 @@ public final class Solver implements AutoCloseable {
     return isUnsat(f);
   }
 
+  /**
+   * Whether satisfiability checks are done in separate processes,
+   * such that {@link #isUnsatEach(List)} checks independent formulas in parallel.
+   */
+  public boolean usesWorkerProcesses() {
+    return workerPool != null;
+  }
+
+  public int getNumberOfStartedWorkerProcesses() {
+    return workerPool == null ? 0 : workerPool.startedWorkers.get();
+  }
+
+  public int getNumberOfFailedWorkerSatChecks() {
+    return workerPool == null ? 0 : workerPool.failedQueries.get();
+  }
+
   /**
    * Close this solver instance and all underlying formula managers.
    * This instance and any instance retrieved from it (including all {@link Formula}s)
@@ -468,6 +829,14 @@ public final class Solver implements AutoCloseable {
    */
   @Override
   public void close() {
+    if (workerPool != null) {
+      workerPool.close();
+    }
+
+    if (persistentCache != null) {
+      persistentCache.writeNewEntries();
+    }
+
     // Reliably close both formula managers and re-throw exceptions,
     // such that no exception gets lost and both managers get closed.
     // Taken from https://stackoverflow.com/questions/24705055/wrapping-multiple-autocloseables
@@ -507,7 +876,8 @@ public final class Solver implements AutoCloseable {
    * that is known to be unsat.
    * @param unsat An unsatisfiable formula.
    */
-  public void addUnsatisfiableFormulaToCache(BooleanFormula unsat) {
+  public void addUnsatisfiableFormulaToCache(BooleanFormula pUnsat) {
+    BooleanFormula unsat = normalize(pUnsat);
     if (unsatCache.containsKey(unsat) || bfmgr.isFalse(unsat)) {
       return;
     }
@@ -0,0 +1,133 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Strings;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Main class of the worker processes that are started by {@link SolverWorkerPool}.
+ *
+ * The command-line arguments are configuration options of the form "key=value"
+ * that are used for creating the solver.
+ * The worker then reads queries from stdin and writes one line with the result
+ * of each query to stdout, until stdin is closed.
+ * A query consists of a line with the number of characters of the formula
+ * followed by the formula in SMT-LIB2 format (as created by
+ * {@link FormulaManagerView#dumpFormula(org.sosy_lab.java_smt.api.BooleanFormula)}).
+ */
+public final class SolverWorker {
+
+  static final String SAT = "sat";
+  static final String UNSAT = "unsat";
+  static final String ERROR_PREFIX = "error ";
+
+  private SolverWorker() {}
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    // stdout is used for the communication with the parent process
+    PrintStream protocolOut = System.out;
+    System.setOut(System.err);
+
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator < 0) {
+        throw new IllegalArgumentException("Invalid option " + arg);
+      }
+      options.put(arg.substring(0, separator), arg.substring(separator + 1));
+    }
+
+    try (Solver solver =
+        Solver.create(
+            Configuration.builder().setOptions(options).build(),
+            LogManager.createNullLogManager(),
+            ShutdownNotifier.createDummy())) {
+      serve(
+          solver,
+          new BufferedReader(new InputStreamReader(System.in, UTF_8)),
+          new BufferedWriter(new OutputStreamWriter(protocolOut, UTF_8)));
+    } catch (InvalidConfigurationException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+  /** Answer all queries from the given input until it is closed. */
+  static void serve(Solver pSolver, BufferedReader pIn, Writer pOut)
+      throws IOException, InterruptedException {
+    FormulaManagerView fmgr = pSolver.getFormulaManager();
+    String header;
+    while ((header = pIn.readLine()) != null) {
+      String query = readQuery(pIn, Integer.parseInt(header.trim()));
+
+      String response;
+      try {
+        response = pSolver.isUnsat(fmgr.parse(query)) ? UNSAT : SAT;
+      } catch (SolverException | IllegalArgumentException e) {
+        response = ERROR_PREFIX + Strings.nullToEmpty(e.getMessage()).replace('\n', ' ');
+      }
+      pOut.write(response);
+      pOut.write('\n');
+      pOut.flush();
+    }
+  }
+
+  /** Send a query in the format that is expected by {@link #serve}. */
+  static void writeQuery(Writer pOut, String pQuery) throws IOException {
+    pOut.write(Integer.toString(pQuery.length()));
+    pOut.write('\n');
+    pOut.write(pQuery);
+    pOut.flush();
+  }
+
+  private static String readQuery(Reader in, int length) throws IOException {
+    char[] query = new char[length];
+    int read = 0;
+    while (read < length) {
+      int n = in.read(query, read, length - read);
+      if (n < 0) {
+        throw new EOFException("Incomplete query");
+      }
+      read += n;
+    }
+    return new String(query);
+  }
+}
@@ -0,0 +1,330 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * A pool of separate processes (running {@link SolverWorker}) for satisfiability checks.
+ * Queries are sent as SMT-LIB2 strings, such that a crash of the native solver library
+ * or a query that does not terminate only affects the worker process,
+ * which is replaced by a new one for the next query.
+ * Independent queries can be dispatched in parallel to the workers.
+ *
+ * The worker processes are started lazily and are terminated when the pool is closed.
+ * This class is thread-safe.
+ */
+final class SolverWorkerPool implements AutoCloseable {
+
+  private static final Splitter LINE_SPLITTER = Splitter.on('\n').omitEmptyStrings();
+
+  /** Prefixes of the options that are passed to the worker processes. */
+  private static final ImmutableList<String> FORWARDED_OPTION_PREFIXES =
+      ImmutableList.of("solver.", "cpa.predicate.solver.");
+
+  /** Options of the parent solver that should not be used by the workers. */
+  private static final ImmutableList<String> IGNORED_OPTIONS =
+      ImmutableList.of(
+          "solver.workerProcesses",
+          "solver.workerTimeout",
+          "solver.workerHeapSize",
+          "solver.normalizeFormulas",
+          "solver.persistentCache.file");
+
+  private final ImmutableList<String> command;
+  private final TimeSpan timeout;
+  private final LogManager logger;
+
+  private final ListeningExecutorService executor;
+  private final ScheduledExecutorService watchdog;
+  private final BlockingQueue<WorkerProcess> idleWorkers = new LinkedBlockingQueue<>();
+  private final Set<WorkerProcess> allWorkers = ConcurrentHashMap.newKeySet();
+
+  // stats
+  final AtomicInteger startedWorkers = new AtomicInteger();
+  final AtomicInteger failedQueries = new AtomicInteger();
+
+  /**
+   * Create a pool.
+   *
+   * @param pConfig The configuration, from which the solver options are passed to the workers.
+   * @param pWorkers The maximal number of worker processes.
+   * @param pTimeout The time limit for each query, or an empty time span for no limit.
+   * @param pHeapSize The maximal Java heap size of each worker (as for the JVM parameter -Xmx).
+   */
+  SolverWorkerPool(
+      Configuration pConfig,
+      int pWorkers,
+      TimeSpan pTimeout,
+      String pHeapSize,
+      LogManager pLogger) {
+    timeout = pTimeout;
+    logger = pLogger;
+
+    ImmutableList.Builder<String> cmd = ImmutableList.builder();
+    cmd.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    // otherwise each worker could get a default heap size of a quarter of the physical memory
+    cmd.add("-Xmx" + pHeapSize);
+    String libraryPath = System.getProperty("java.library.path");
+    if (libraryPath != null) {
+      cmd.add("-Djava.library.path=" + libraryPath);
+    }
+    cmd.add("-cp", System.getProperty("java.class.path"));
+    cmd.add(SolverWorker.class.getName());
+    for (String line : LINE_SPLITTER.split(pConfig.asPropertiesString())) {
+      int separator = line.indexOf(" = ");
+      if (separator < 0) {
+        continue;
+      }
+      String key = line.substring(0, separator).trim();
+      if (FORWARDED_OPTION_PREFIXES.stream().anyMatch(key::startsWith)
+          && IGNORED_OPTIONS.stream().noneMatch(key::startsWith)) {
+        cmd.add(key + "=" + line.substring(separator + 3).trim());
+      }
+    }
+    command = cmd.build();
+
+    // important to use daemon threads here, because the pool might not get closed
+    executor =
+        MoreExecutors.listeningDecorator(
+            Executors.newFixedThreadPool(
+                pWorkers,
+                new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("solver-worker-%d")
+                    .build()));
+    watchdog =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("solver-watchdog").build());
+  }
+
+  /**
+   * Start checking the given query (an SMT-LIB2 string) in one of the worker processes.
+   * The result can be retrieved with {@link PendingQuery#isUnsat()}.
+   */
+  PendingQuery submit(String pQuery) {
+    PendingQuery query = new PendingQuery(pQuery);
+    query.future = executor.submit(query::check);
+    return query;
+  }
+
+  /** Check the given query (an SMT-LIB2 string) and wait for the result. */
+  boolean isUnsat(String pQuery) throws SolverException, InterruptedException {
+    return submit(pQuery).isUnsat();
+  }
+
+  /** A query that was submitted to the pool. */
+  final class PendingQuery {
+
+    private final String query;
+    private ListenableFuture<Boolean> future;
+
+    // the worker that currently handles this query, if any
+    private volatile @Nullable WorkerProcess worker = null;
+    private volatile boolean aborted = false;
+
+    private PendingQuery(String pQuery) {
+      query = pQuery;
+    }
+
+    /**
+     * Wait for the result of the query and return whether the query is unsatisfiable.
+     * If the current thread is interrupted, the query is aborted.
+     *
+     * @throws WorkerTimeoutException If the time limit was exceeded.
+     * @throws SolverException If the worker failed.
+     */
+    boolean isUnsat() throws SolverException, InterruptedException {
+      try {
+        return future.get();
+      } catch (InterruptedException | CancellationException e) {
+        abort();
+        throw new InterruptedException();
+      } catch (ExecutionException e) {
+        Throwable t = e.getCause();
+        Throwables.propagateIfPossible(t, SolverException.class, InterruptedException.class);
+        throw new UnexpectedCheckedException("satisfiability check in worker process", t);
+      }
+    }
+
+    /** Abort the query if it is not finished yet (has no effect otherwise). */
+    void abort() {
+      aborted = true;
+      future.cancel(false);
+      WorkerProcess currentWorker = worker;
+      if (currentWorker != null) {
+        currentWorker.kill();
+      }
+    }
+
+    private boolean check() throws SolverException, InterruptedException {
+      WorkerProcess currentWorker = idleWorkers.poll();
+      if (currentWorker == null) {
+        try {
+          currentWorker = new WorkerProcess();
+        } catch (IOException e) {
+          failedQueries.incrementAndGet();
+          throw new SolverException(
+              "Could not start solver worker process: " + e.getMessage(), e);
+        }
+      }
+      worker = currentWorker;
+      if (aborted) {
+        // abort() was called before the worker was set
+        currentWorker.kill();
+        throw new InterruptedException();
+      }
+
+      ScheduledFuture<?> timer = null;
+      if (!timeout.isEmpty()) {
+        timer = watchdog.schedule(currentWorker::kill, timeout.asNanos(), TimeUnit.NANOSECONDS);
+      }
+
+      String response = null;
+      try {
+        response = currentWorker.query(query);
+      } catch (IOException e) {
+        logger.logDebugException(e, "Communication with solver worker process failed");
+      } finally {
+        if (timer != null) {
+          timer.cancel(false);
+        }
+        worker = null;
+      }
+
+      if (aborted) {
+        currentWorker.kill();
+        throw new InterruptedException();
+      }
+      if (response == null) {
+        failedQueries.incrementAndGet();
+        boolean timedOut = currentWorker.killed;
+        currentWorker.kill();
+        if (timedOut) {
+          throw new WorkerTimeoutException(timeout);
+        }
+        throw new SolverException("Solver worker process terminated unexpectedly");
+      }
+
+      if (!currentWorker.killed) {
+        idleWorkers.add(currentWorker);
+      }
+      switch (response) {
+        case SolverWorker.UNSAT:
+          return true;
+        case SolverWorker.SAT:
+          return false;
+        default:
+          failedQueries.incrementAndGet();
+          throw new SolverException(
+              "Solver worker process failed: "
+                  + (response.startsWith(SolverWorker.ERROR_PREFIX)
+                      ? response.substring(SolverWorker.ERROR_PREFIX.length())
+                      : response));
+      }
+    }
+  }
+
+  /** Signals that a query was aborted because it exceeded the time limit for the workers. */
+  static final class WorkerTimeoutException extends SolverException {
+
+    private static final long serialVersionUID = 1L;
+
+    private WorkerTimeoutException(TimeSpan pTimeout) {
+      super("Solver worker process exceeded time limit of " + pTimeout);
+    }
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    watchdog.shutdownNow();
+    for (WorkerProcess worker : allWorkers) {
+      worker.kill();
+    }
+    idleWorkers.clear();
+  }
+
+  /** One worker process and the streams for communicating with it. */
+  private class WorkerProcess {
+
+    private final Process process;
+    private final Writer stdin;
+    private final BufferedReader stdout;
+    private volatile boolean killed = false;
+
+    private WorkerProcess() throws IOException {
+      process =
+          new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+      stdin = new OutputStreamWriter(process.getOutputStream(), UTF_8);
+      stdout = new BufferedReader(new InputStreamReader(process.getInputStream(), UTF_8));
+      allWorkers.add(this);
+      logger.log(Level.FINE, "Started solver worker process", startedWorkers.incrementAndGet());
+    }
+
+    /** Send a query and return the response, or null if the process terminated. */
+    private @Nullable String query(String pQuery) throws IOException {
+      SolverWorker.writeQuery(stdin, pQuery);
+      return stdout.readLine();
+    }
+
+    private void kill() {
+      killed = true;
+      allWorkers.remove(this);
+      process.destroyForcibly();
+    }
+  }
+}
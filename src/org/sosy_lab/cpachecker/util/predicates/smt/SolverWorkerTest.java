@@ -0,0 +1,101 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.base.Splitter;
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+public class SolverWorkerTest {
+
+  private Solver solver;
+  private FormulaManagerView fmgr;
+  private BooleanFormulaManagerView bfmgr;
+
+  @Before
+  public void setUp() throws Exception {
+    solver =
+        Solver.create(
+            TestDataTools.configurationForTest().setOption("solver.solver", "SMTINTERPOL").build(),
+            LogManager.createTestLogManager(),
+            ShutdownNotifier.createDummy());
+    fmgr = solver.getFormulaManager();
+    bfmgr = fmgr.getBooleanFormulaManager();
+  }
+
+  @After
+  public void tearDown() {
+    solver.close();
+  }
+
+  private String serve(String... pQueries) throws Exception {
+    StringWriter requests = new StringWriter();
+    for (String query : pQueries) {
+      SolverWorker.writeQuery(requests, query);
+    }
+    StringWriter responses = new StringWriter();
+    SolverWorker.serve(
+        solver, new BufferedReader(new StringReader(requests.toString())), responses);
+    return responses.toString();
+  }
+
+  @Test
+  public void testSatAndUnsat() throws Exception {
+    BooleanFormula x = bfmgr.makeVariable("x");
+    String sat = fmgr.dumpFormula(x).toString();
+    String unsat = fmgr.dumpFormula(bfmgr.and(x, bfmgr.not(x))).toString();
+
+    assertThat(serve(sat, unsat, sat))
+        .isEqualTo(
+            SolverWorker.SAT + "\n" + SolverWorker.UNSAT + "\n" + SolverWorker.SAT + "\n");
+  }
+
+  @Test
+  public void testQueryWithLineBreaks() throws Exception {
+    String query = "(declare-fun y () Bool)\n\n(assert (and y\n(not y)))\n";
+    assertThat(serve(query)).isEqualTo(SolverWorker.UNSAT + "\n");
+  }
+
+  @Test
+  public void testInvalidQuery() throws Exception {
+    String valid = fmgr.dumpFormula(bfmgr.makeVariable("x")).toString();
+    String response = serve("(assert (undeclared-function 1))", valid);
+
+    // the worker reports the error on a single line and continues with the next query
+    assertThat(Splitter.on('\n').omitEmptyStrings().splitToList(response))
+        .hasSize(2);
+    assertThat(response).startsWith(SolverWorker.ERROR_PREFIX);
+    assertThat(response).endsWith("\n" + SolverWorker.SAT + "\n");
+  }
+}
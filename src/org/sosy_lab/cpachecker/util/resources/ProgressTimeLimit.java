@@ -0,0 +1,140 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.resources;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.TimeUnit;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.cpachecker.core.algorithm.ParallelAlgorithm.ReachedSetUpdateListener;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+
+/**
+ * A limit for the (wall) time during which an analysis does not make progress.
+ *
+ * <p>By default, the analysis makes progress if the size of its reached set or of its waitlist
+ * changes. If a minimal growth rate is given, only a growth of the reached set by at least this
+ * number of states per second (on average since the last progress) is considered as progress,
+ * such that analyses that add only very few states (e.g., because each successor computation
+ * needs a hard solver query) are also considered as stuck. Additionally, the analysis can
+ * report progress explicitly with {@link #reportProgress()}, which is for example used for each
+ * iteration of CEGAR (cf. {@link ReachedSetUpdateListener}), such that refinements (which may
+ * shrink the reached set) are also considered as progress.
+ *
+ * <p>This can be used to detect analyses that are stuck, e.g., in a hard solver query.
+ * Note that the sizes are read from the thread of the {@link ResourceLimitChecker}
+ * (cf. {@link UnmodifiableReachedSet#getWaitlistSize()}),
+ * so they are only a heuristic and may be slightly outdated.
+ * Analyses that do their work in other reached sets than the given one (e.g., BAM)
+ * are not observed correctly by this limit.
+ */
+public class ProgressTimeLimit implements ResourceLimit {
+
+  /** number of measurements during the time span of the limit */
+  private static final int SAMPLES_PER_DURATION = 10;
+
+  private final UnmodifiableReachedSet reached;
+  private final long duration;
+  private final double minGrowthPerSecond;
+
+  private volatile boolean progressReported = false;
+
+  private int lastReachedSize;
+  private int lastWaitlistSize;
+  private long lastProgressTime;
+
+  private ProgressTimeLimit(
+      UnmodifiableReachedSet pReached, long pDuration, double pMinGrowthPerSecond) {
+    reached = checkNotNull(pReached);
+    duration = pDuration;
+    minGrowthPerSecond = pMinGrowthPerSecond;
+    lastReachedSize = pReached.size();
+    lastWaitlistSize = pReached.getWaitlistSize();
+    lastProgressTime = System.nanoTime();
+  }
+
+  public static ProgressTimeLimit fromNowOn(TimeSpan timeSpan, UnmodifiableReachedSet pReached) {
+    return fromNowOn(timeSpan, 0, pReached);
+  }
+
+  /**
+   * Create a limit that considers only a growth of the reached set by at least the given number
+   * of states per second as progress (or any change of the reached set or waitlist if 0).
+   */
+  public static ProgressTimeLimit fromNowOn(
+      TimeSpan timeSpan, double pMinGrowthPerSecond, UnmodifiableReachedSet pReached) {
+    checkArgument(timeSpan.asNanos() > 0);
+    checkArgument(pMinGrowthPerSecond >= 0);
+    return new ProgressTimeLimit(pReached, timeSpan.asNanos(), pMinGrowthPerSecond);
+  }
+
+  /**
+   * Signal that the analysis has made progress, independently of the size of the reached set.
+   * This method may be called from any thread.
+   */
+  public void reportProgress() {
+    progressReported = true;
+  }
+
+  /** Returns the time in nanoseconds since the last progress. */
+  @Override
+  public synchronized long getCurrentValue() {
+    long currentTime = System.nanoTime();
+    int reachedSize = reached.size();
+    // the waitlist itself must not be accessed from the thread of the ResourceLimitChecker
+    int waitlistSize = reached.getWaitlistSize();
+    if (progressReported || hasProgressed(reachedSize, waitlistSize, currentTime)) {
+      progressReported = false;
+      lastReachedSize = reachedSize;
+      lastWaitlistSize = waitlistSize;
+      lastProgressTime = currentTime;
+    }
+    return currentTime - lastProgressTime;
+  }
+
+  private boolean hasProgressed(int reachedSize, int waitlistSize, long currentTime) {
+    if (minGrowthPerSecond == 0) {
+      return reachedSize != lastReachedSize || waitlistSize != lastWaitlistSize;
+    }
+    double seconds = (currentTime - lastProgressTime) / 1e9;
+    int growth = reachedSize - lastReachedSize;
+    return growth > 0 && growth >= minGrowthPerSecond * seconds;
+  }
+
+  @Override
+  public boolean isExceeded(long pCurrentValue) {
+    return pCurrentValue >= duration;
+  }
+
+  @Override
+  public long nanoSecondsToNextCheck(long pCurrentValue) {
+    return Math.min(duration - pCurrentValue, duration / SAMPLES_PER_DURATION);
+  }
+
+  @Override
+  public String getName() {
+    return "time limit of " + TimeUnit.NANOSECONDS.toSeconds(duration) + "s without progress";
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.test;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractStateWithLocation;
+import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
+
+/**
+ * A simple abstract state for unit tests of reached sets, waitlists, and caches.
+ *
+ * <p>Two states are equal if they have the same id. Optionally, a state has a partition key
+ * (cf. {@link Partitionable}) and a location (cf. {@link AbstractStateWithLocation}).
+ * As precision for such states, {@link
+ * org.sosy_lab.cpachecker.core.defaults.SingletonPrecision} can be used.
+ */
+public final class TestState implements AbstractStateWithLocation, Partitionable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /** ids for states that are created without explicit id (distinct from usual explicit ids) */
+  private static final AtomicInteger nextFreshId = new AtomicInteger(Integer.MIN_VALUE);
+
+  private final int id;
+  private final @Nullable Object partitionKey;
+  private final @Nullable CFANode location;
+
+  private TestState(int pId, @Nullable Object pPartitionKey, @Nullable CFANode pLocation) {
+    id = pId;
+    partitionKey = pPartitionKey;
+    location = pLocation;
+  }
+
+  /** Create a state with the given id, without partition key and location. */
+  public static TestState withId(int pId) {
+    return new TestState(pId, null, null);
+  }
+
+  /** Create a state with the given id and partition key. */
+  public static TestState inPartition(int pId, Object pPartitionKey) {
+    return new TestState(pId, checkNotNull(pPartitionKey), null);
+  }
+
+  /** Create a state at the given location, which is different from all other states. */
+  public static TestState atLocation(CFANode pLocation) {
+    return new TestState(nextFreshId.getAndIncrement(), null, checkNotNull(pLocation));
+  }
+
+  /**
+   * Create a state at a new location with the given reverse-postorder id,
+   * which is different from all other states.
+   */
+  public static TestState withReversePostorderId(int pReversePostorderId) {
+    CFANode location = new CFANode("main");
+    location.setReversePostorderId(pReversePostorderId);
+    return atLocation(location);
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  @Override
+  public @Nullable Object getPartitionKey() {
+    return partitionKey;
+  }
+
+  @Override
+  public @Nullable CFANode getLocationNode() {
+    return location;
+  }
+
+  @Override
+  public Iterable<CFANode> getLocationNodes() {
+    return location == null ? ImmutableList.of() : ImmutableList.of(location);
+  }
+
+  @Override
+  public Iterable<CFAEdge> getOutgoingEdges() {
+    return ImmutableList.of();
+  }
+
+  @Override
+  public Iterable<CFAEdge> getIngoingEdges() {
+    return ImmutableList.of();
+  }
+
+  @Override
+  public boolean equals(Object pObj) {
+    return pObj instanceof TestState && ((TestState) pObj).id == id;
+  }
+
+  @Override
+  public int hashCode() {
+    return id;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("State ").append(id);
+    if (partitionKey != null) {
+      sb.append(" in partition ").append(partitionKey);
+    }
+    if (location != null) {
+      sb.append(" at ").append(location);
+      sb.append(" with reverse-postorder id ").append(location.getReversePostorderId());
+    }
+    return sb.toString();
+  }
+}